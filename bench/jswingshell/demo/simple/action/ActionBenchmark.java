@@ -0,0 +1,63 @@
+package jswingshell.demo.simple.action;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the simple actions, published output included.
+ *
+ * @author Mathieu Brunot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBenchmark {
+
+    private HeadlessControllerStub shell;
+
+    private EchoAction echoAction;
+
+    private TimeAction timeAction;
+
+    @Setup
+    public void setup() {
+        shell = new HeadlessControllerStub();
+        echoAction = new EchoAction();
+        timeAction = new TimeAction();
+        shell.add(echoAction);
+        shell.add(timeAction);
+    }
+
+    @Benchmark
+    public int echo() {
+        return echoAction.run(shell, "echo", "Hello", "world!");
+    }
+
+    @Benchmark
+    public int timeDefaultFormat() {
+        return timeAction.run(shell, "time");
+    }
+
+    @Benchmark
+    public int timeCustomFormat() {
+        return timeAction.run(shell, "time", "yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    }
+
+    @Benchmark
+    public int timeCustomFormatAndLocale() {
+        return timeAction.run(shell, "time", "EEE, MMM d, ''yy", "en", "us");
+    }
+
+}
@@ -0,0 +1,89 @@
+package jswingshell.demo.simple.action;
+
+import java.util.concurrent.TimeUnit;
+import jswingshell.IJssController;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.controller.ShellOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the {@link EchoAction} output path.
+ *
+ * <p>
+ * Run it with the {@code -prof gc} option: echoing to the benchmark shell, to
+ * a shell output buffer, or to a headless shell, should not allocate
+ * anything.</p>
+ *
+ * @author Mathieu Brunot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EchoActionBenchmark {
+
+    /**
+     * Number of messages buffered before each flush.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private HeadlessControllerStub shell;
+
+    private EchoAction echoAction;
+
+    private ShellOutputBuffer outputBuffer;
+
+    private IJssController bufferedController;
+
+    private HeadlessShellController headlessShell;
+
+    @Setup
+    public void setup() {
+        shell = new HeadlessControllerStub();
+        echoAction = new EchoAction();
+        shell.add(echoAction);
+        outputBuffer = new ShellOutputBuffer(shell);
+        bufferedController = outputBuffer;
+        headlessShell = new HeadlessShellController(HeadlessControllerStub.DISCARD, HeadlessControllerStub.DISCARD);
+        headlessShell.add(echoAction);
+    }
+
+    @Benchmark
+    public int echoSingleArgument() {
+        return echoAction.run(shell, "echo", "Hello world!");
+    }
+
+    @Benchmark
+    public int echoArguments() {
+        return echoAction.run(shell, "echo", "Hello", "world!", "How", "are", "you?");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int echoBuffered() {
+        int status = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            status |= echoAction.run(bufferedController, "echo", "Hello", "world!", "How", "are", "you?");
+        }
+        outputBuffer.flush();
+        return status;
+    }
+
+    @Benchmark
+    public int echoHeadless() {
+        return echoAction.run(headlessShell, "echo", "Hello", "world!", "How", "are", "you?");
+    }
+
+}
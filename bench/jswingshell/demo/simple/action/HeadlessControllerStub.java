@@ -0,0 +1,75 @@
+package jswingshell.demo.simple.action;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import jswingshell.IJssController;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.controller.TextPublisher;
+
+/**
+ * Headless shell controller for benchmarks.
+ *
+ * <p>
+ * Published messages are only counted, including the ones published as
+ * {@link TextPublisher character sequences}: nothing is written to any
+ * stream.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class HeadlessControllerStub extends HeadlessShellController implements TextPublisher {
+
+    /**
+     * Stream discarding everything written to it.
+     */
+    static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+            // Discarded
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // Discarded
+        }
+    });
+
+    private long publishedMessages;
+
+    private long publishedCharacters;
+
+    public HeadlessControllerStub() {
+        super(DISCARD, DISCARD);
+    }
+
+    // #########################################################################
+    public long getPublishedMessages() {
+        return publishedMessages;
+    }
+
+    public long getPublishedCharacters() {
+        return publishedCharacters;
+    }
+
+    // #########################################################################
+    @Override
+    public void publish(IJssController.PublicationLevel level, CharSequence message) {
+        publishedMessages++;
+        publishedCharacters += message != null ? message.length() : 0;
+    }
+
+    @Override
+    public void publish(IJssController.PublicationLevel level, String message) {
+        publish(level, (CharSequence) message);
+    }
+
+    @Override
+    public void addNewLineToShell(String line) {
+        publish(IJssController.PublicationLevel.INFO, line);
+    }
+
+    @Override
+    public String toString() {
+        return "Headless controller stub";
+    }
+
+}
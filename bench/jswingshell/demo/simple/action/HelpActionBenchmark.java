@@ -0,0 +1,92 @@
+package jswingshell.demo.simple.action;
+
+import java.util.concurrent.TimeUnit;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the help action depending on the number of registered actions.
+ *
+ * @author Mathieu Brunot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpActionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int actionCount;
+
+    private HeadlessControllerStub shell;
+
+    private HelpAction helpAction;
+
+    @Setup
+    public void setup() {
+        shell = new HeadlessControllerStub();
+        helpAction = new HelpAction();
+        shell.add(helpAction);
+        for (int i = 1; i < actionCount; i++) {
+            shell.add(new SyntheticAction(String.format("action%04d", i)));
+        }
+    }
+
+    @Benchmark
+    public int helpListing() {
+        return helpAction.run(shell, "help");
+    }
+
+    @Benchmark
+    public int helpCommand() {
+        return helpAction.run(shell, "help", "help");
+    }
+
+    // #########################################################################
+    /**
+     * Registered action which does nothing.
+     */
+    public static class SyntheticAction extends AbstractJssAction {
+
+        private final String[] identifiers;
+
+        public SyntheticAction(String identifier) {
+            this.identifiers = new String[]{identifier};
+        }
+
+        @Override
+        public String[] getCommandIdentifiers() {
+            return identifiers;
+        }
+
+        @Override
+        public String getBriefHelp() {
+            return "Synthetic action " + identifiers[0] + ".";
+        }
+
+        @Override
+        public String getHelp(IJssController shellController) {
+            return getBriefHelp();
+        }
+
+        @Override
+        public int run(IJssController shellController, String... args) {
+            return AbstractJssAction.SUCCESS;
+        }
+
+    }
+
+}
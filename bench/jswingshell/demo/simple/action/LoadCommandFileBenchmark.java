@@ -0,0 +1,105 @@
+package jswingshell.demo.simple.action;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import jswingshell.action.AbstractThreadedJssAction.AbstractJssActionWorker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the execution of synthetic shell files.
+ *
+ * <p>
+ * Scores are given in commands per second. The file is executed by the
+ * benchmark thread itself, the worker is not scheduled.</p>
+ *
+ * @author Mathieu Brunot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadCommandFileBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Number of commands of the synthetic shell file.
+     */
+    private static final int COMMAND_COUNT = 10000;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private HeadlessControllerStub shell;
+
+    private LoadCommandFile loadCommandFile;
+
+    private Path scriptPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        shell = new HeadlessControllerStub();
+        loadCommandFile = new LoadCommandFile();
+        loadCommandFile.setBatchSize(batchSize);
+        shell.add(loadCommandFile);
+        shell.add(new EchoAction());
+        shell.add(new TimeAction());
+
+        // A third of displayed commands, a few comments and empty lines
+        List<String> lines = new ArrayList<>(COMMAND_COUNT + COMMAND_COUNT / 5);
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            if (i % 10 == 0) {
+                lines.add("// Command " + i);
+                lines.add("");
+            }
+            switch (i % 3) {
+                case 0:
+                    lines.add("echo Hello world! " + i);
+                    break;
+                case 1:
+                    lines.add("@echo \"    Hello world!\" " + i);
+                    break;
+                default:
+                    lines.add("@time yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+                    break;
+            }
+        }
+        scriptPath = Files.createTempFile("jss-benchmark", ".shell");
+        Files.write(scriptPath, lines, UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(scriptPath);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMAND_COUNT)
+    public int loadCommandFile() throws InterruptedException, ExecutionException {
+        AbstractJssActionWorker worker = loadCommandFile.prepareWorker(shell, LoadCommandFile.DEFAULT_IDENTIFIER, scriptPath.toString(), UTF_8.name());
+        worker.run();
+        return worker.get();
+    }
+
+}
@@ -0,0 +1,71 @@
+package jswingshell.demo.simple.metrics;
+
+import java.util.concurrent.TimeUnit;
+import jswingshell.demo.simple.action.EchoAction;
+import jswingshell.demo.simple.action.HeadlessControllerStub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording the executions of commands, alone and around an action.
+ *
+ * <p>
+ * Run with {@code -prof gc} to check that recording does not allocate.</p>
+ *
+ * @author Mathieu Brunot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandMetricsBenchmark {
+
+    private HeadlessControllerStub shell;
+
+    private EchoAction echoAction;
+
+    private CommandMetrics metrics;
+
+    private long latency;
+
+    @Setup
+    public void setup() {
+        shell = new HeadlessControllerStub();
+        echoAction = new EchoAction();
+        shell.add(echoAction);
+        metrics = CommandMetrics.get(echoAction, null);
+    }
+
+    @Benchmark
+    public void record() {
+        metrics.recordCommand(latency++ & 0xFFFFF, 0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        metrics.recordCommand(System.nanoTime() & 0xFFFFF, 0);
+    }
+
+    @Benchmark
+    public int echo() {
+        return echoAction.run(shell, "echo", "Hello", "world!");
+    }
+
+    @Benchmark
+    public int echoRecorded() {
+        return CommandMetrics.run(echoAction, shell, "echo", "Hello", "world!");
+    }
+
+}
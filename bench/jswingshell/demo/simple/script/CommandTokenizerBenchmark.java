@@ -0,0 +1,53 @@
+package jswingshell.demo.simple.script;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the splitting of command lines, with and without the cache of the
+ * {@link CachingCommandTokenizer}.
+ *
+ * @author Mathieu Brunot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandTokenizerBenchmark {
+
+    @Param({"echo Hello world! How are you?", "time \"EEE, MMM d, ''yy\" en us", "echo \"He said \\\"hello\\\"\" and\\ left"})
+    public String commandLine;
+
+    private ICommandTokenizer tokenizer;
+
+    private ICommandTokenizer cachingTokenizer;
+
+    @Setup
+    public void setup() {
+        tokenizer = new QuotingCommandTokenizer();
+        cachingTokenizer = new CachingCommandTokenizer(tokenizer);
+    }
+
+    @Benchmark
+    public String[] tokenize() {
+        return tokenizer.tokenize(commandLine);
+    }
+
+    @Benchmark
+    public String[] tokenizeCached() {
+        return cachingTokenizer.tokenize(commandLine);
+    }
+
+}
@@ -0,0 +1,114 @@
+package jswingshell.demo.simple;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.action.ActionCatalog;
+import jswingshell.demo.simple.action.LoadCommandFile;
+import jswingshell.demo.simple.action.WorkerBackend;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.history.CommandHistory;
+import jswingshell.demo.simple.script.CommandTokenizer;
+
+/**
+ * Shell without any window, for scripts and servers.
+ *
+ * <p>
+ * The shell files given as arguments are executed one after the other;
+ * without arguments, commands are read from the standard input. The exit
+ * status is the status of the last command.</p>
+ *
+ * <pre>
+ * java -cp ... jswingshell.demo.simple.JssHeadlessDemo script.shell
+ * echo "time yyyy-MM-dd" | java -cp ... jswingshell.demo.simple.JssHeadlessDemo
+ * </pre>
+ *
+ * @author Mathieu Brunot
+ */
+public class JssHeadlessDemo {
+
+    /**
+     * Create a headless shell with the actions of the demonstration, writing
+     * to the standard output and error streams.
+     *
+     * @return the headless shell.
+     */
+    public static HeadlessShellController createShell() {
+        return createShell(System.out, System.err);
+    }
+
+    /**
+     * Create a headless shell with the actions of the demonstration.
+     *
+     * @param out the stream of the successful messages
+     * @param err the stream of the other messages
+     *
+     * @return the headless shell.
+     */
+    public static HeadlessShellController createShell(PrintStream out, PrintStream err) {
+        return createShell(out, err, Charset.defaultCharset());
+    }
+
+    /**
+     * Create a headless shell with the actions of the demonstration.
+     *
+     * @param out     the stream of the successful messages
+     * @param err     the stream of the other messages
+     * @param charset the charset of the streams
+     *
+     * @return the headless shell.
+     */
+    public static HeadlessShellController createShell(PrintStream out, PrintStream err, Charset charset) {
+        HeadlessShellController shell = new HeadlessShellController(out, err, charset);
+
+        // Actions of the catalog are instantiated when first used
+        for (IJssAction action : ActionCatalog.getDefault().createActions(true)) {
+            shell.add(action);
+        }
+
+        // Output is written directly, no need to coalesce it
+        LoadCommandFile loadCommandFile = new LoadCommandFile();
+        loadCommandFile.setCoalescing(false);
+        shell.remove(shell.getActionForCommandIdentifier(LoadCommandFile.DEFAULT_IDENTIFIER));
+        shell.add(loadCommandFile);
+
+        return shell;
+    }
+
+    /**
+     * @param args the shell files to execute
+     */
+    public static void main(String[] args) {
+        // No window, and threaded actions run one after the other
+        System.setProperty("java.awt.headless", "true");
+        WorkerBackend.setDefault(WorkerBackend.DIRECT);
+
+        HeadlessShellController shell = createShell();
+
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+        if (args.length > 0) {
+            for (int i = 0; i < args.length && commandReturnStatus == AbstractJssAction.SUCCESS; i++) {
+                commandReturnStatus = shell.interpretCommand(CommandTokenizer.join(LoadCommandFile.DEFAULT_IDENTIFIER, args[i]));
+            }
+        } else {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+                boolean interactive = System.console() != null;
+                if (interactive) {
+                    shell.setHistory(CommandHistory.getDefault());
+                }
+                commandReturnStatus = shell.run(reader, interactive);
+            } catch (IOException e) {
+                System.err.println("Error occured while reading commands: " + e.getMessage());
+                commandReturnStatus = AbstractJssAction.ERROR;
+            }
+        }
+
+        System.exit(commandReturnStatus);
+    }
+
+}
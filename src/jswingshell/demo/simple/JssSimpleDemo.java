@@ -5,14 +5,15 @@ import javax.swing.JFrame;
 import javax.swing.JScrollPane;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
-import jswingshell.demo.simple.action.ClearAction;
-import jswingshell.demo.simple.action.EchoAction;
-import jswingshell.demo.simple.action.ExitAction;
-import jswingshell.demo.simple.action.HelpAction;
-import jswingshell.demo.simple.action.LoadCommandFile;
-import jswingshell.demo.simple.action.SleepAction;
-import jswingshell.demo.simple.action.TimeAction;
-import jswingshell.demo.simple.action.WaitAction;
+import javax.swing.text.JTextComponent;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.action.ActionCatalog;
+import jswingshell.demo.simple.controller.HistoryTextAreaController;
+import jswingshell.demo.simple.gui.CancelShortcut;
+import jswingshell.demo.simple.gui.HistorySearchShortcut;
+import jswingshell.demo.simple.gui.ScrollbackLimiter;
+import jswingshell.demo.simple.gui.TranscriptView;
+import jswingshell.demo.simple.history.CommandHistory;
 import jswingshell.gui.JssTextAreaController;
 
 /**
@@ -21,10 +22,60 @@ import jswingshell.gui.JssTextAreaController;
  */
 public class JssSimpleDemo {
 
+    /**
+     * System property defining the type of view of the shell:
+     * {@value #TEXT_AREA_VIEW} (default) or {@value #TRANSCRIPT_VIEW}.
+     */
+    public static final String VIEW_PROPERTY = "jswingshell.demo.view";
+
+    /**
+     * Shell displayed in a text area, with a bounded scrollback.
+     */
+    public static final String TEXT_AREA_VIEW = "textArea";
+
+    /**
+     * Shell displayed in a text area for its most recent lines, and in a list
+     * rendering only its visible lines for the rest of its transcript.
+     *
+     * @see TranscriptView
+     */
+    public static final String TRANSCRIPT_VIEW = "transcript";
+
+    /**
+     * System property starting the demonstration in fast start mode: actions
+     * are only instantiated when first used, and the look and feel and the
+     * window are set up on the event dispatch thread while the command history
+     * is opened.
+     */
+    public static final String FAST_START_PROPERTY = "jswingshell.demo.fastStart";
+
+    /**
+     * System property exiting the demonstration as soon as its window is
+     * displayed, to measure its startup time or record its class data sharing
+     * archive.
+     */
+    public static final String EXIT_ON_STARTUP_PROPERTY = "jswingshell.demo.exitOnStartup";
+
+    private static final String NIMBUS_LOOK_AND_FEEL = "javax.swing.plaf.nimbus.NimbusLookAndFeel";
+
     /**
      * @param args the command line arguments
      */
     public static void main(String[] args) {
+        if (Boolean.getBoolean(FAST_START_PROPERTY)) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    setNimbusLookAndFeel();
+                    showFrame(createFrame(createShell(CommandHistory.getDefault(), true)));
+                }
+            });
+
+            // Open the history while the event dispatch thread sets the look and feel up
+            CommandHistory.getDefault();
+            return;
+        }
+
         /* Set the Nimbus look and feel */
         //<editor-fold defaultstate="collapsed" desc=" Look and feel setting code (optional) ">
         /* If Nimbus (introduced in Java SE 6) is not available, stay with the default look and feel.
@@ -45,45 +96,117 @@ public class JssSimpleDemo {
         //</editor-fold>
 
         // #####################################################################
-        // Let's create our first shell
-        JssTextAreaController shellController = new JssTextAreaController("Welcome to the Simple JSwingShell demonstration!!\n");
-
-        // Add some actions to it...
-        shellController.getModel().add(new LoadCommandFile());
-        shellController.getModel().add(new ExitAction());
-        shellController.getModel().add(new ClearAction());
-        
-        shellController.getModel().add(new HelpAction());
-        
-        shellController.getModel().add(new EchoAction());
-        shellController.getModel().add(new TimeAction());
-        shellController.getModel().add(new SleepAction());
-        shellController.getModel().add(new WaitAction());
-
-        // and now put its view to a JFrame
-        final JFrame shellFrame = new JFrame("My application shell added to a JFrame");
-
-        JScrollPane jShellScrollPane = new javax.swing.JScrollPane();
-
-        shellFrame.setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
-        shellFrame.setPreferredSize(new java.awt.Dimension(320, 240));
-
-        if (shellController.getView() instanceof java.awt.Component) {
-            jShellScrollPane.setViewportView((java.awt.Component) shellController.getView());
-        }
-
-        shellFrame.getContentPane().add(jShellScrollPane, java.awt.BorderLayout.CENTER);
+        // Let's create our first shell and put its view to a JFrame
+        final JFrame shellFrame = createFrame(createShell(CommandHistory.getDefault(), false));
 
         // #####################################################################
         // Create and display the form
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                shellFrame.setMinimumSize(new Dimension(640, 480));
-                shellFrame.setVisible(true);
+                showFrame(shellFrame);
             }
         });
 
     }
 
+    /**
+     * Set the Nimbus look and feel, without looking it up among the installed
+     * ones.
+     */
+    private static void setNimbusLookAndFeel() {
+        try {
+            UIManager.setLookAndFeel(NIMBUS_LOOK_AND_FEEL);
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | javax.swing.UnsupportedLookAndFeelException ex) {
+            // Stay with the default look and feel
+            java.util.logging.Logger.getLogger(JssSimpleDemo.class.getName()).log(java.util.logging.Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Create the shell of the demonstration.
+     *
+     * @param history the history recording the typed commands, or {@code null}
+     * @param lazy    {@code true} to only instantiate the indexed actions when
+     *                first used
+     *
+     * @return the shell controller.
+     */
+    private static JssTextAreaController createShell(CommandHistory history, boolean lazy) {
+        // Typed commands are kept between sessions
+        JssTextAreaController shellController = new HistoryTextAreaController("Welcome to the Simple JSwingShell demonstration!!\n", history);
+
+        // Add the actions of the catalog to it...
+        for (IJssAction action : ActionCatalog.getDefault().createActions(lazy)) {
+            shellController.getModel().add(action);
+        }
+
+        // Ctrl+C cancels the running commands
+        if (shellController.getView() instanceof JTextComponent) {
+            CancelShortcut.install((JTextComponent) shellController.getView(), shellController);
+        }
+
+        // Ctrl+R searches the command history
+        if (history != null && shellController.getView() instanceof JTextComponent) {
+            HistorySearchShortcut.install((JTextComponent) shellController.getView(), history);
+        }
+
+        return shellController;
+    }
+
+    /**
+     * Create the window of a shell.
+     *
+     * @param shellController the shell controller
+     *
+     * @return the window of the shell.
+     */
+    private static JFrame createFrame(JssTextAreaController shellController) {
+        final JFrame shellFrame = new JFrame("My application shell added to a JFrame");
+
+        shellFrame.setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
+        shellFrame.setPreferredSize(new java.awt.Dimension(320, 240));
+
+        if (TRANSCRIPT_VIEW.equals(System.getProperty(VIEW_PROPERTY)) && shellController.getView() instanceof JTextComponent) {
+            // Older lines are moved to a list which only renders the visible ones
+            TranscriptView transcriptView = new TranscriptView((JTextComponent) shellController.getView());
+            shellFrame.getContentPane().add(transcriptView, java.awt.BorderLayout.CENTER);
+        } else {
+            JScrollPane jShellScrollPane = new javax.swing.JScrollPane();
+
+            if (shellController.getView() instanceof java.awt.Component) {
+                jShellScrollPane.setViewportView((java.awt.Component) shellController.getView());
+            }
+
+            // Keep the scrollback bounded
+            if (shellController.getView() instanceof JTextComponent) {
+                ScrollbackLimiter.install((JTextComponent) shellController.getView(), ScrollbackLimiter.DEFAULT_MAX_LINES, ScrollbackLimiter.DEFAULT_MAX_SIZE);
+            }
+
+            shellFrame.getContentPane().add(jShellScrollPane, java.awt.BorderLayout.CENTER);
+        }
+
+        return shellFrame;
+    }
+
+    /**
+     * Display the window of a shell, from the event dispatch thread.
+     *
+     * @param shellFrame the window of the shell
+     */
+    private static void showFrame(JFrame shellFrame) {
+        shellFrame.setMinimumSize(new Dimension(640, 480));
+        shellFrame.setVisible(true);
+
+        if (Boolean.getBoolean(EXIT_ON_STARTUP_PROPERTY)) {
+            // Once the window is painted
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    System.exit(0);
+                }
+            });
+        }
+    }
+
 }
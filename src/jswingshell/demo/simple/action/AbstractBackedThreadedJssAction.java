@@ -0,0 +1,252 @@
+package jswingshell.demo.simple.action;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.Icon;
+import javax.swing.SwingWorker;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.AbstractThreadedJssAction;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.metrics.CommandMetrics;
+
+/**
+ * Threaded action whose workers are executed by a selectable
+ * {@link WorkerBackend}.
+ *
+ * <p>
+ * The time each worker takes to be done is recorded in the
+ * {@link CommandMetrics} of the action.</p>
+ *
+ * <p>
+ * In {@link JobManager#isQueueMode() queue mode} of their shell, workers are
+ * submitted as jobs to the {@link JobManager} of the shell instead, and do not lock the
+ * command line.</p>
+ *
+ * <p>
+ * Workers can be cancelled through the {@link Cancellation} of the command
+ * which started them, and, unless they are queued, from their shell.</p>
+ *
+ * <p>
+ * Workers started from a {@link HeadlessShellController headless shell} are
+ * always executed by the {@link WorkerBackend#DIRECT direct backend}: such a
+ * shell has no view to report to later, its commands are expected to be done,
+ * output included, once they return.</p>
+ *
+ * <p>
+ * Workers extending {@link AbstractBackedJssActionWorker} and executed by the
+ * {@link WorkerBackend#DIRECT direct backend} publish their messages to the
+ * shell right away, before the command returns.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public abstract class AbstractBackedThreadedJssAction extends AbstractThreadedJssAction {
+
+    private WorkerBackend workerBackend;
+
+    private boolean concurrent;
+
+    // #########################################################################
+    public AbstractBackedThreadedJssAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public AbstractBackedThreadedJssAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public AbstractBackedThreadedJssAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public AbstractBackedThreadedJssAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public AbstractBackedThreadedJssAction() {
+        super();
+    }
+
+    // #########################################################################
+    /**
+     * The backend executing the workers of this action.
+     *
+     * @return the backend of this action, or the
+     *         {@link WorkerBackend#getDefault() default backend} if none was
+     *         defined.
+     */
+    public WorkerBackend getWorkerBackend() {
+        return workerBackend != null ? workerBackend : WorkerBackend.getDefault();
+    }
+
+    /**
+     * Define the backend executing the workers of this action.
+     *
+     * @param workerBackend the backend of this action, {@code null} to use the
+     *                      {@link WorkerBackend#getDefault() default backend}
+     */
+    public void setWorkerBackend(WorkerBackend workerBackend) {
+        this.workerBackend = workerBackend;
+    }
+
+    /**
+     * Whether the jobs of this action start as soon as they are submitted.
+     *
+     * @return {@code true} if the jobs of this action run concurrently with the
+     *         other jobs, {@code false} if they wait for the previous jobs.
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Define whether the jobs of this action start as soon as they are
+     * submitted, or after the previous jobs, in
+     * {@link JobManager#isQueueMode() queue mode}.
+     *
+     * @param concurrent {@code true} to run the jobs of this action
+     *                   concurrently with the other jobs
+     */
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Lock the command line while a worker runs, unless commands are queued.
+     *
+     * @param shellController the shell controller whose command line to lock
+     *
+     * @return {@code true} if the command line was locked.
+     */
+    protected boolean lockCommandLine(IJssController shellController) {
+        return !JobManager.isQueueMode(shellController) && shellController.lockCommandLine();
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        WorkerBackend backend = HeadlessShellController.isHeadless(shellController) ? WorkerBackend.DIRECT : getWorkerBackend();
+
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        AbstractJssActionWorker worker = prepareWorker(shellController, args);
+        if (worker != null) {
+            if (CommandMetrics.isEnabled()) {
+                CommandMetrics metrics = CommandMetrics.get(this, args != null && args.length > 0 ? args[0] : null);
+                worker.addPropertyChangeListener(new WorkerMetricsListener(metrics));
+            }
+            boolean queued = JobManager.isQueueMode(shellController);
+            Cancellation.addWorker(shellController, worker, !queued);
+            if (queued) {
+                JobManager.Job job = JobManager.getInstance(shellController).submit(worker, backend, isConcurrent(), args);
+                shellController.publish(IJssController.PublicationLevel.INFO, job.toString());
+                return commandReturnStatus;
+            }
+            if (backend == WorkerBackend.DIRECT && worker instanceof AbstractBackedJssActionWorker) {
+                // Executed by this thread, its messages must not wait for the Event Dispatch Thread
+                ((AbstractBackedJssActionWorker) worker).synchronous = true;
+            }
+            backend.execute(worker);
+            if (backend == WorkerBackend.DIRECT && worker.isCancelled()) {
+                // Do not leave the interruption of the cancelled worker to the next command
+                Thread.interrupted();
+            }
+            if (worker.isDone()) {
+                // Executed synchronously, its status is already known
+                commandReturnStatus = getReturnStatus(worker);
+            }
+        } else {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        }
+
+        return commandReturnStatus;
+    }
+
+    static int getReturnStatus(SwingWorker<Integer, ?> worker) {
+        try {
+            Integer workerReturnStatus = worker.get();
+            return workerReturnStatus != null ? workerReturnStatus : AbstractJssAction.SUCCESS;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AbstractJssAction.ERROR;
+        } catch (ExecutionException | CancellationException e) {
+            return AbstractJssAction.ERROR;
+        }
+    }
+
+    // #########################################################################
+    /**
+     * Worker publishing its messages directly to its shell when it is executed
+     * synchronously.
+     *
+     * <p>
+     * Chunks published by a {@link javax.swing.SwingWorker} are delivered
+     * later, from the Event Dispatch Thread. A worker executed by the thread
+     * running the command publishes its messages with
+     * {@link #publishChunk(jswingshell.IJssController.PublicationLevel, java.lang.String)}
+     * instead, so that they reach the shell before the command returns.</p>
+     */
+    protected abstract class AbstractBackedJssActionWorker extends AbstractJssActionWorker {
+
+        private volatile boolean synchronous;
+
+        public AbstractBackedJssActionWorker(IJssController shellController) {
+            super(shellController);
+        }
+
+        /**
+         * Is the worker executed by the thread running its command?
+         *
+         * @return {@code true} if the messages of the worker are published
+         *         directly to its shell.
+         */
+        public boolean isSynchronous() {
+            return synchronous;
+        }
+
+        /**
+         * Publish a message of the worker: directly to its shell if the worker
+         * is {@link #isSynchronous() synchronous}, as a chunk otherwise.
+         *
+         * @param level   the publication level of the message
+         * @param message the message
+         */
+        protected void publishChunk(IJssController.PublicationLevel level, String message) {
+            if (synchronous) {
+                getShellController().publish(level, message);
+            } else {
+                this.publish(new JssActionWorkerChunk(level, message));
+            }
+        }
+
+    }
+
+    // #########################################################################
+    /**
+     * Listener recording a worker in the metrics of its action once it is
+     * done.
+     */
+    private static class WorkerMetricsListener implements PropertyChangeListener {
+
+        private final CommandMetrics metrics;
+
+        private final long start = System.nanoTime();
+
+        WorkerMetricsListener(CommandMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void propertyChange(PropertyChangeEvent evt) {
+            if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                SwingWorker<Integer, ?> worker = (SwingWorker<Integer, ?>) evt.getSource();
+                metrics.recordWorker(System.nanoTime() - start, getReturnStatus(worker));
+                worker.removePropertyChangeListener(this);
+            }
+        }
+
+    }
+
+}
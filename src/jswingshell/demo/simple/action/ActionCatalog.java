@@ -0,0 +1,296 @@
+package jswingshell.demo.simple.action;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jswingshell.action.IJssAction;
+
+/**
+ * Catalog of the actions available on the class path.
+ *
+ * <p>
+ * Actions are declared like services, by the name of their class in the
+ * {@value #SERVICES_RESOURCE} resources. The command identifiers and brief
+ * help of each declared action are read from the {@value #INDEX_RESOURCE}
+ * resources, generated at build time by the {@link #main(java.lang.String[])}
+ * method of this class: actions of the index are registered as
+ * {@link LazyJssAction lazy actions}, whose class is neither loaded nor
+ * initialized until their command is first run. Loading the catalog only
+ * reads these two resources, whatever the number of actions.</p>
+ *
+ * <p>
+ * Declared actions missing from the index, like the ones compiled without the
+ * build script, are instantiated right away.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public final class ActionCatalog {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ActionCatalog.class.getName());
+
+    /**
+     * Resources declaring the class names of the actions, one per line.
+     */
+    public static final String SERVICES_RESOURCE = "META-INF/services/jswingshell.action.IJssAction";
+
+    /**
+     * Resources indexing the command identifiers and brief help of the
+     * declared actions.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/jswingshell/actions.index";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final char COMMENT = '#';
+
+    /**
+     * Separator of the class name, command identifiers and brief help of the
+     * index entries.
+     */
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private static final String IDENTIFIER_SEPARATOR = " ";
+
+    private static ActionCatalog defaultCatalog;
+
+    /**
+     * The catalog of the actions available to the demonstration.
+     *
+     * @return the default catalog, loaded on first call.
+     */
+    public static synchronized ActionCatalog getDefault() {
+        if (defaultCatalog == null) {
+            defaultCatalog = load(ActionCatalog.class.getClassLoader());
+        }
+        return defaultCatalog;
+    }
+
+    /**
+     * Load the catalog of the actions declared by the resources of a class
+     * loader.
+     *
+     * @param classLoader the class loader of the resources and actions
+     *
+     * @return the catalog of the declared actions.
+     */
+    public static ActionCatalog load(ClassLoader classLoader) {
+        ActionCatalog catalog = new ActionCatalog(classLoader);
+        for (String line : readLines(classLoader, SERVICES_RESOURCE, true)) {
+            catalog.classNames.add(line.trim());
+        }
+        for (String line : readLines(classLoader, INDEX_RESOURCE, false)) {
+            String[] fields = line.split(FIELD_SEPARATOR, 3);
+            if (fields.length < 2 || fields[1].trim().isEmpty()) {
+                LOGGER.log(Level.WARNING, "Invalid action index entry: {0}", line);
+                continue;
+            }
+            Entry entry = new Entry(fields[0].trim(), fields[1].trim().split(IDENTIFIER_SEPARATOR + "+"), fields.length > 2 ? fields[2] : null);
+            catalog.entries.put(entry.getClassName(), entry);
+        }
+        return catalog;
+    }
+
+    // #########################################################################
+    /**
+     * Index entry of an action.
+     */
+    public static final class Entry {
+
+        private final String className;
+
+        private final String[] commandIdentifiers;
+
+        private final String briefHelp;
+
+        Entry(String className, String[] commandIdentifiers, String briefHelp) {
+            this.className = className;
+            this.commandIdentifiers = commandIdentifiers;
+            this.briefHelp = briefHelp;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String[] getCommandIdentifiers() {
+            return commandIdentifiers.clone();
+        }
+
+        public String getBriefHelp() {
+            return briefHelp;
+        }
+
+    }
+
+    // #########################################################################
+    private final ClassLoader classLoader;
+
+    private final Set<String> classNames = new LinkedHashSet<>();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private ActionCatalog(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * The class names of the declared actions, in their declaration order.
+     *
+     * @return the class names of the actions.
+     */
+    public List<String> getActionClassNames() {
+        return Collections.unmodifiableList(new ArrayList<>(classNames));
+    }
+
+    /**
+     * The index entry of a declared action.
+     *
+     * @param className the class name of the action
+     *
+     * @return the index entry of the action, or {@code null} if it is not
+     *         indexed.
+     */
+    public Entry getEntry(String className) {
+        return entries.get(className);
+    }
+
+    /**
+     * Create the declared actions.
+     *
+     * <p>
+     * Actions which cannot be instantiated are logged and ignored.</p>
+     *
+     * @param lazy {@code true} to create lazy actions for the indexed actions,
+     *             {@code false} to instantiate all the actions
+     *
+     * @return the actions, in their declaration order.
+     */
+    public List<IJssAction> createActions(boolean lazy) {
+        List<IJssAction> actions = new ArrayList<>(classNames.size());
+        for (final String className : classNames) {
+            Entry entry = entries.get(className);
+            if (lazy && entry != null) {
+                actions.add(new LazyJssAction(new LazyJssAction.Factory() {
+                    @Override
+                    public IJssAction create() throws Exception {
+                        return instantiate(className);
+                    }
+
+                    @Override
+                    public String toString() {
+                        return className;
+                    }
+                }, entry.commandIdentifiers, entry.briefHelp));
+            } else {
+                try {
+                    actions.add(instantiate(className));
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    LOGGER.log(Level.SEVERE, "Cannot instantiate action: " + className, e);
+                }
+            }
+        }
+        return actions;
+    }
+
+    private IJssAction instantiate(String className) throws ReflectiveOperationException {
+        return Class.forName(className, true, classLoader).asSubclass(IJssAction.class).newInstance();
+    }
+
+    // #########################################################################
+    /**
+     * Read the lines of resources, without their comments nor the empty
+     * lines.
+     *
+     * @param inlineComments {@code true} if comments can end lines,
+     *                       {@code false} if they take whole lines
+     */
+    private static List<String> readLines(ClassLoader classLoader, String resourceName, boolean inlineComments) {
+        List<String> lines = new ArrayList<>();
+        Enumeration<URL> resources;
+        try {
+            resources = classLoader != null ? classLoader.getResources(resourceName) : ClassLoader.getSystemResources(resourceName);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot list resources: " + resourceName, e);
+            return lines;
+        }
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), UTF_8))) {
+                for (String line; (line = reader.readLine()) != null;) {
+                    int commentStart = inlineComments ? line.indexOf(COMMENT) : (line.startsWith(String.valueOf(COMMENT)) ? 0 : -1);
+                    if (commentStart >= 0) {
+                        line = line.substring(0, commentStart);
+                    }
+                    if (!line.trim().isEmpty()) {
+                        lines.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Cannot read resource: " + resource, e);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Generate the index of the actions declared on the class path.
+     *
+     * <p>
+     * Each declared action is instantiated to read its command identifiers
+     * and brief help. Run by the build script once the classes are
+     * compiled.</p>
+     *
+     * @param args the path of the index file to write
+     *
+     * @throws IOException if the index cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: " + ActionCatalog.class.getName() + " [index file]");
+            System.exit(1);
+        }
+
+        ActionCatalog catalog = load(ActionCatalog.class.getClassLoader());
+        Path indexPath = Paths.get(args[0]);
+        if (indexPath.getParent() != null) {
+            Files.createDirectories(indexPath.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(indexPath, UTF_8)) {
+            writer.write(COMMENT + " Generated by " + ActionCatalog.class.getName() + ": class name, command identifiers and brief help");
+            writer.newLine();
+            for (IJssAction action : catalog.createActions(false)) {
+                StringBuilder identifiers = new StringBuilder();
+                for (String commandIdentifier : action.getCommandIdentifiers()) {
+                    if (identifiers.length() > 0) {
+                        identifiers.append(IDENTIFIER_SEPARATOR);
+                    }
+                    identifiers.append(commandIdentifier);
+                }
+                String briefHelp = action.getBriefHelp();
+                writer.write(action.getClass().getName() + FIELD_SEPARATOR + identifiers
+                        + (briefHelp != null ? FIELD_SEPARATOR + briefHelp.replaceAll("[\\t\\r\\n]+", " ") : ""));
+                writer.newLine();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+package jswingshell.demo.simple.action;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import jswingshell.action.IJssAction;
+
+/**
+ * Sorted index of the actions of a shell, by command identifier.
+ *
+ * <p>
+ * The index is maintained incrementally, either with
+ * {@link #add(jswingshell.action.IJssAction)} and
+ * {@link #remove(jswingshell.action.IJssAction)} or by
+ * {@link #update(java.util.Collection) updating} it with the actions
+ * available in a shell. Shells counting the changes of their actions are
+ * only looked at once their {@link #isUpToDate(long) version} changed. The
+ * listing of the indexed actions is built once and kept until an action is
+ * added or removed.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ActionIndex {
+
+    private final NavigableMap<String, IJssAction> actionsByIdentifier = new TreeMap<>();
+
+    private final Map<IJssAction, Boolean> actions = new IdentityHashMap<>();
+
+    /**
+     * Version of the actions given at the last update, if known.
+     */
+    private long updateVersion;
+
+    private boolean updateVersionKnown;
+
+    private List<IJssAction> sortedActions;
+
+    private String listing;
+
+    // #########################################################################
+    /**
+     * Add an action to the index.
+     *
+     * @param action the action to add
+     *
+     * @return {@code true} if the action was not already indexed.
+     */
+    public synchronized boolean add(IJssAction action) {
+        if (action == null || actions.put(action, Boolean.TRUE) != null) {
+            return false;
+        }
+        String[] commandIdentifiers = action.getCommandIdentifiers();
+        if (commandIdentifiers != null) {
+            for (String commandIdentifier : commandIdentifiers) {
+                if (commandIdentifier != null) {
+                    actionsByIdentifier.put(commandIdentifier, action);
+                }
+            }
+        }
+        invalidate();
+        return true;
+    }
+
+    /**
+     * Remove an action from the index.
+     *
+     * @param action the action to remove
+     *
+     * @return {@code true} if the action was indexed.
+     */
+    public synchronized boolean remove(IJssAction action) {
+        if (action == null || actions.remove(action) == null) {
+            return false;
+        }
+        String[] commandIdentifiers = action.getCommandIdentifiers();
+        if (commandIdentifiers != null) {
+            for (String commandIdentifier : commandIdentifiers) {
+                // Another action might have been indexed with the same identifier
+                if (commandIdentifier != null && actionsByIdentifier.get(commandIdentifier) == action) {
+                    actionsByIdentifier.remove(commandIdentifier);
+                }
+            }
+        }
+        invalidate();
+        return true;
+    }
+
+    /**
+     * Was the index last updated with the given version of the actions of
+     * its shell?
+     *
+     * @param version the current version of the actions of the shell
+     *
+     * @return {@code true} if the index does not need to be updated.
+     *
+     * @see jswingshell.demo.simple.controller.VersionedActions
+     */
+    public synchronized boolean isUpToDate(long version) {
+        return updateVersionKnown && updateVersion == version;
+    }
+
+    /**
+     * Make the index match the given version of the actions of its shell.
+     *
+     * @param availableActions the actions available in a shell
+     * @param version          the version of the actions
+     *
+     * @see jswingshell.demo.simple.controller.VersionedActions
+     */
+    public synchronized void update(Collection<IJssAction> availableActions, long version) {
+        update(availableActions);
+        updateVersion = version;
+        updateVersionKnown = true;
+    }
+
+    /**
+     * Make the index match the given actions.
+     *
+     * <p>
+     * Nothing is done if the given actions are the indexed ones, which is
+     * checked without any allocation.</p>
+     *
+     * @param availableActions the actions available in a shell
+     */
+    public synchronized void update(Collection<IJssAction> availableActions) {
+        updateVersionKnown = false;
+        if (isIndexed(availableActions)) {
+            return;
+        }
+
+        Map<IJssAction, Boolean> newActions = new IdentityHashMap<>();
+        if (availableActions != null) {
+            for (IJssAction availableAction : availableActions) {
+                if (availableAction != null) {
+                    newActions.put(availableAction, Boolean.TRUE);
+                }
+            }
+        }
+        for (IJssAction action : new ArrayList<>(actions.keySet())) {
+            if (!newActions.containsKey(action)) {
+                remove(action);
+            }
+        }
+        for (IJssAction action : newActions.keySet()) {
+            add(action);
+        }
+    }
+
+    /**
+     * Are the given actions exactly the indexed ones?
+     *
+     * @param availableActions the actions available in a shell
+     *
+     * @return {@code true} if every given action is indexed, and as many
+     *         actions are indexed as given.
+     */
+    private boolean isIndexed(Collection<IJssAction> availableActions) {
+        int size = 0;
+        if (availableActions != null) {
+            for (IJssAction availableAction : availableActions) {
+                if (availableAction == null || !actions.containsKey(availableAction)) {
+                    return false;
+                }
+                size++;
+            }
+        }
+        return size == actions.size();
+    }
+
+    /**
+     * Forget the listing of the indexed actions, so that it is built again.
+     */
+    public synchronized void invalidate() {
+        sortedActions = null;
+        listing = null;
+    }
+
+    // #########################################################################
+    /**
+     * The indexed actions, in their natural order.
+     *
+     * @return an unmodifiable list of the indexed actions.
+     */
+    public synchronized List<IJssAction> getActions() {
+        if (sortedActions == null) {
+            List<IJssAction> actionList = new ArrayList<>(actions.keySet());
+            Collections.sort(actionList);
+            sortedActions = Collections.unmodifiableList(actionList);
+        }
+        return sortedActions;
+    }
+
+    /**
+     * The indexed actions having a command identifier starting with the given
+     * prefix, in the order of their identifiers.
+     *
+     * @param prefix the prefix of the command identifiers
+     *
+     * @return the matching actions.
+     */
+    public synchronized List<IJssAction> getActions(String prefix) {
+        Set<IJssAction> matchingActions = new LinkedHashSet<>();
+        for (Map.Entry<String, IJssAction> entry : actionsByIdentifier.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            matchingActions.add(entry.getValue());
+        }
+        return new ArrayList<>(matchingActions);
+    }
+
+    /**
+     * The listing of the indexed actions, one action per line, with its
+     * command identifiers and brief help.
+     *
+     * @return the listing of the indexed actions.
+     */
+    public synchronized String getListing() {
+        if (listing == null) {
+            listing = getListing(getActions());
+        }
+        return listing;
+    }
+
+    /**
+     * Build the listing of the given actions, one action per line, with its
+     * command identifiers and brief help.
+     *
+     * @param actions the actions to list
+     *
+     * @return the listing of the actions.
+     */
+    public static String getListing(Collection<IJssAction> actions) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (IJssAction action : actions) {
+            stringBuilder.append("\n\t").append(action.getCommandIdentifiersAsString()).append(" ").append(action.getBriefHelp());
+        }
+        return stringBuilder.toString();
+    }
+
+}
@@ -0,0 +1,311 @@
+package jswingshell.demo.simple.action;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import jswingshell.IJssController;
+
+/**
+ * Cancellation of the execution of a command, and of the workers it started.
+ *
+ * <p>
+ * A cancellation is opened by the thread about to run a command, and closed
+ * once the command returns. Cancelling it interrupts that thread if the command
+ * is still running, and cancels the workers of the threaded actions started by
+ * the command, even after it returned. Actions check
+ * {@link #isCurrentCancelled()} between steps, or are interrupted while
+ * waiting; either way they give their thread back right away.</p>
+ *
+ * <pre>
+ * Cancellation cancellation = Cancellation.open(shellController);
+ * try {
+ *     cancellation.setTimeout(500, TimeUnit.MILLISECONDS);
+ *     commandReturnStatus = action.run(shellController, args);
+ * } finally {
+ *     cancellation.close();
+ * }
+ * </pre>
+ *
+ * <p>
+ * The workers of threaded actions which are not queued as jobs are also
+ * registered with their shell, so that they can all be cancelled with
+ * {@link #cancelAll(jswingshell.IJssController)}, from a keyboard shortcut for
+ * instance.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public final class Cancellation {
+
+    private static final ThreadLocal<Cancellation> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Cancellations and workers running in each shell.
+     */
+    private static final Map<IJssController, List<Object>> RUNNING = new WeakHashMap<>();
+
+    // #########################################################################
+    /**
+     * Open the cancellation of a command run by the current thread.
+     *
+     * @param shellController the shell running the command, {@code null} if
+     *                        the command cannot be cancelled from its shell
+     *
+     * @return the opened cancellation, to close once the command returns.
+     */
+    public static Cancellation open(IJssController shellController) {
+        Cancellation cancellation = new Cancellation(shellController, Thread.currentThread(), CURRENT.get());
+        CURRENT.set(cancellation);
+        if (shellController != null) {
+            addRunning(shellController, cancellation);
+        }
+        return cancellation;
+    }
+
+    /**
+     * The cancellation of the command run by the current thread.
+     *
+     * @return the current cancellation, or {@code null} if none is opened.
+     */
+    public static Cancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Was the command run by the current thread cancelled?
+     *
+     * @return {@code true} if the current cancellation was cancelled, or the
+     *         current thread interrupted.
+     */
+    public static boolean isCurrentCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Cancellation cancellation = CURRENT.get(); cancellation != null; cancellation = cancellation.parent) {
+            if (cancellation.cancelled) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Register a worker started by the command run by the current thread.
+     *
+     * @param shellController the shell of the worker
+     * @param worker          the worker
+     * @param foreground      {@code true} if the worker can also be cancelled
+     *                        from its shell, {@code false} for background jobs
+     */
+    public static void addWorker(IJssController shellController, Future<?> worker, boolean foreground) {
+        for (Cancellation cancellation = CURRENT.get(); cancellation != null; cancellation = cancellation.parent) {
+            cancellation.add(worker);
+        }
+        if (foreground && shellController != null) {
+            addRunning(shellController, worker);
+        }
+    }
+
+    /**
+     * Cancel all the commands and workers running in a shell.
+     *
+     * @param shellController the shell
+     *
+     * @return the number of cancelled commands and workers.
+     */
+    public static int cancelAll(IJssController shellController) {
+        List<Object> running;
+        synchronized (RUNNING) {
+            List<Object> shellRunning = RUNNING.remove(shellController);
+            if (shellRunning == null) {
+                return 0;
+            }
+            running = shellRunning;
+        }
+
+        int cancelledCount = 0;
+        for (Object runningObject : running) {
+            if (runningObject instanceof Cancellation) {
+                Cancellation cancellation = (Cancellation) runningObject;
+                if (!cancellation.isClosed() && !cancellation.isCancelled()) {
+                    cancellation.cancel();
+                    cancelledCount++;
+                }
+            } else if (((Future<?>) runningObject).cancel(true)) {
+                cancelledCount++;
+            }
+        }
+        return cancelledCount;
+    }
+
+    private static void addRunning(IJssController shellController, Object runningObject) {
+        synchronized (RUNNING) {
+            List<Object> running = RUNNING.get(shellController);
+            if (running == null) {
+                running = new ArrayList<>();
+                RUNNING.put(shellController, running);
+            }
+            removeFinished(running);
+            running.add(runningObject);
+        }
+    }
+
+    private static void removeRunning(IJssController shellController, Object runningObject) {
+        synchronized (RUNNING) {
+            List<Object> running = RUNNING.get(shellController);
+            if (running != null) {
+                running.remove(runningObject);
+                if (running.isEmpty()) {
+                    RUNNING.remove(shellController);
+                }
+            }
+        }
+    }
+
+    private static void removeFinished(List<?> running) {
+        for (Iterator<?> it = running.iterator(); it.hasNext();) {
+            Object runningObject = it.next();
+            if (runningObject instanceof Future && ((Future<?>) runningObject).isDone()) {
+                it.remove();
+            }
+        }
+    }
+
+    // #########################################################################
+    private final IJssController shellController;
+
+    private final Thread thread;
+
+    private final Cancellation parent;
+
+    /**
+     * Workers started by the command, guarded by {@code this}.
+     */
+    private final List<Future<?>> workers = new ArrayList<>();
+
+    private volatile boolean cancelled;
+
+    private volatile boolean closed;
+
+    private ScheduledFuture<?> timeout;
+
+    private Cancellation(IJssController shellController, Thread thread, Cancellation parent) {
+        this.shellController = shellController;
+        this.thread = thread;
+        this.parent = parent;
+    }
+
+    // #########################################################################
+    /**
+     * Was the command cancelled?
+     *
+     * @return {@code true} if the command was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Did the command return?
+     *
+     * @return {@code true} if the cancellation was closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Cancel the command once the given time has elapsed, along with its
+     * workers.
+     *
+     * @param delay the time given to the command
+     * @param unit  the unit of the time
+     */
+    public synchronized void setTimeout(long delay, TimeUnit unit) {
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        timeout = ShellScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                cancel();
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * Cancel the command: its thread is interrupted if it did not return yet,
+     * and its workers are cancelled.
+     */
+    public void cancel() {
+        List<Future<?>> cancelledWorkers;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (!closed) {
+                thread.interrupt();
+            }
+            cancelledWorkers = new ArrayList<>(workers);
+            workers.clear();
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+        }
+        for (Future<?> worker : cancelledWorkers) {
+            worker.cancel(true);
+        }
+    }
+
+    /**
+     * Close the cancellation once the command returned, from the thread which
+     * opened it.
+     *
+     * <p>
+     * The interruption of the thread by a cancellation is cleared, so that it
+     * does not leak into the next command. The timeout, if any, still applies
+     * to the workers of the command which are not done.</p>
+     */
+    public void close() {
+        if (thread != Thread.currentThread()) {
+            throw new IllegalStateException("Cancellation must be closed by the thread which opened it");
+        }
+        synchronized (this) {
+            closed = true;
+            if (cancelled) {
+                Thread.interrupted();
+            }
+            removeFinished(workers);
+            if (workers.isEmpty() && timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+        }
+        if (CURRENT.get() == this) {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        if (shellController != null) {
+            removeRunning(shellController, this);
+        }
+    }
+
+    private synchronized void add(Future<?> worker) {
+        if (cancelled) {
+            worker.cancel(true);
+        } else {
+            removeFinished(workers);
+            workers.add(worker);
+        }
+    }
+
+}
@@ -1,8 +1,10 @@
 package jswingshell.demo.simple.action;
 
 import javax.swing.Icon;
+import javax.swing.text.JTextComponent;
 import jswingshell.IJssController;
 import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.gui.ScrollbackLimiter;
 
 /**
  * Action to clear all messages in a shell.
@@ -22,19 +24,13 @@ public class ClearAction extends AbstractJssAction {
 
     private static final String COMMAND_BRIEF_HELP = "Clears all messages in the shell.";
 
-    private static String commandHelp;
-
-    private static boolean commandHelpInitialized = false;
-
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
-     *
-     * @return the static command help.
+     * Builder of the static command help, cached in the {@link HelpCache}.
      */
-    public static final String getHelp(ClearAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final HelpCache.HelpBuilder<ClearAction> HELP_BUILDER = new HelpCache.HelpBuilder<ClearAction>() {
+
+        @Override
+        public String buildHelp(ClearAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -42,20 +38,31 @@ public class ClearAction extends AbstractJssAction {
             stringBuilder.append("\n");
             stringBuilder.append("\n\t").append(commandIdsAsString);
 
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(ClearAction action) {
+        return HelpCache.getHelp(ClearAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(ClearAction.class);
     }
 
     // #########################################################################
@@ -103,6 +110,14 @@ public class ClearAction extends AbstractJssAction {
             commandReturnStatus = AbstractJssAction.ERROR;
         } else {
             shellController.clearShell();
+
+            // Nothing left to count in the scrollback
+            if (shellController.getView() instanceof JTextComponent) {
+                ScrollbackLimiter scrollbackLimiter = ScrollbackLimiter.getInstalled((JTextComponent) shellController.getView());
+                if (scrollbackLimiter != null) {
+                    scrollbackLimiter.reset();
+                }
+            }
         }
 
         return commandReturnStatus;
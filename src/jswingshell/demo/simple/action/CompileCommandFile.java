@@ -0,0 +1,185 @@
+package jswingshell.demo.simple.action;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractThreadedJssAction;
+import jswingshell.action.AbstractThreadedJssAction.AbstractJssActionWorker;
+import jswingshell.demo.simple.script.CommandScriptCompiler;
+
+/**
+ * Action to compile a shell file into a binary form, faster to load.
+ *
+ * @author Mathieu Brunot
+ */
+public class CompileCommandFile extends AbstractBackedThreadedJssAction {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CompileCommandFile.class.getName());
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "compileCommandFile";
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Compile a shell file into a binary form.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<CompileCommandFile> HELP_BUILDER = new HelpCache.HelpBuilder<CompileCommandFile>() {
+
+        @Override
+        public String buildHelp(CompileCommandFile action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("Compiles the file at the given path into the target file:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [file_path] [target_path] ");
+            stringBuilder.append("\n").append("The charset of the file can be specified (platform default charset otherwise):");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [file_path] [target_path] [charset] ");
+            stringBuilder.append("\n").append("The compiled file can be executed with ").append(LoadCommandFile.DEFAULT_IDENTIFIER).append(".");
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(CompileCommandFile action) {
+        return HelpCache.getHelp(CompileCommandFile.class, action, HELP_BUILDER);
+    }
+
+    /**
+     * Reset the static help to force reconstruction on next call.
+     *
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
+     */
+    @Deprecated
+    public static final void resetHelp() {
+        HelpCache.invalidate(CompileCommandFile.class);
+    }
+
+    // #########################################################################
+    public CompileCommandFile(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public CompileCommandFile(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public CompileCommandFile(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public CompileCommandFile(IJssController shellController) {
+        super(shellController);
+    }
+
+    public CompileCommandFile() {
+        super();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    protected AbstractJssActionWorker prepareWorker(IJssController shellController, String... args) {
+        CompileCommandFileWorker worker = null;
+
+        if (shellController != null) {
+            // Extract file paths from parameters
+            if (args != null && args.length > 2) {
+                if (args.length == 3) {
+                    worker = new CompileCommandFileWorker(shellController, args[1], args[2], Charset.defaultCharset());
+                } else if (args.length == 4) {
+                    try {
+                        worker = new CompileCommandFileWorker(shellController, args[1], args[2], Charset.forName(args[3]));
+                    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                        shellController.publish(IJssController.PublicationLevel.ERROR, "Unsupported charset: " + args[3]);
+                        LOGGER.log(Level.SEVERE, "Unsupported charset: " + args[3], e);
+                    }
+                } else {
+                    shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+                }
+            } else {
+                shellController.publish(IJssController.PublicationLevel.ERROR, "File path and target path are mandatory!");
+                LOGGER.log(Level.SEVERE, "File path and target path are mandatory!");
+            }
+        }
+
+        return worker;
+    }
+
+    // #########################################################################
+    protected class CompileCommandFileWorker extends AbstractBackedJssActionWorker {
+
+        final String filePath;
+
+        final String targetPath;
+
+        final Charset charset;
+
+        public CompileCommandFileWorker(IJssController shellController, String filePath, String targetPath, Charset charset) {
+            super(shellController);
+            this.filePath = filePath;
+            this.targetPath = targetPath;
+            this.charset = charset;
+        }
+
+        @Override
+        protected Integer doInBackground() throws Exception {
+            int workerCommandReturnStatus = AbstractThreadedJssAction.SUCCESS;
+
+            try {
+                int commandCount = CommandScriptCompiler.compile(Paths.get(filePath), charset, Paths.get(targetPath));
+                publishChunk(IJssController.PublicationLevel.SUCCESS, commandCount + " commands compiled to " + targetPath);
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                publishChunk(IJssController.PublicationLevel.ERROR, "File not found: " + filePath);
+                LOGGER.log(Level.SEVERE, "File not found: " + filePath, e);
+                workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
+            } catch (IOException e) {
+                publishChunk(IJssController.PublicationLevel.FATAL_ERROR, "Error occured while compiling file: " + e.getMessage());
+                LOGGER.log(Level.SEVERE, "Error occured while compiling file.", e);
+                workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
+            }
+
+            return workerCommandReturnStatus;
+        }
+
+    }
+}
@@ -3,11 +3,18 @@ package jswingshell.demo.simple.action;
 import javax.swing.Icon;
 import jswingshell.IJssController;
 import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.controller.TextPublisher;
+import jswingshell.demo.simple.controller.TextPublishers;
 import jswingshell.gui.JssTextAreaController;
 
 /**
  * Action to display a message in a shell.
  *
+ * <p>
+ * Messages are built in a buffer reused by each thread, and published to the
+ * {@link TextPublisher} of the shell if it has one: echoing to such a shell
+ * does not allocate anything.</p>
+ *
  * @author Mathieu Brunot
  */
 public class EchoAction extends AbstractJssAction {
@@ -23,19 +30,31 @@ public class EchoAction extends AbstractJssAction {
 
     private static final String COMMAND_BRIEF_HELP = "Displays a message in the shell.";
 
-    private static String commandHelp;
+    private static final int INITIAL_MESSAGE_CAPACITY = 256;
 
-    private static boolean commandHelpInitialized = false;
+    /**
+     * Capacity above which a message buffer is not kept, not to hold on to the
+     * memory of an exceptionally long message.
+     */
+    private static final int MAX_RETAINED_MESSAGE_CAPACITY = 8192;
 
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
-     *
-     * @return the static command help.
+     * Buffer of the messages built by each thread.
      */
-    public static final String getHelp(EchoAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final ThreadLocal<StringBuilder> MESSAGE_BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(INITIAL_MESSAGE_CAPACITY);
+        }
+    };
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<EchoAction> HELP_BUILDER = new HelpCache.HelpBuilder<EchoAction>() {
+
+        @Override
+        public String buildHelp(EchoAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -65,20 +84,31 @@ public class EchoAction extends AbstractJssAction {
             stringBuilder.append("\n");
             stringBuilder.append("\n").append("If no message is provided, an empty line will be displayed.");
 
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(EchoAction action) {
+        return HelpCache.getHelp(EchoAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(EchoAction.class);
     }
 
     // #########################################################################
@@ -125,14 +155,23 @@ public class EchoAction extends AbstractJssAction {
         if (shellController == null) {
             commandReturnStatus = AbstractJssAction.ERROR;
         } else {
-            if (args != null && args.length > 1) {
-                StringBuilder stringBuilder = new StringBuilder();
-
-                for (int i = 1, n = args.length; i < n; i++) {
-                    stringBuilder.append(args[i]).append(JssTextAreaController.COMMAND_PARAMETER_SEPARATOR);
+            if (args != null && args.length == 2) {
+                // Nothing to join
+                TextPublishers.publish(shellController, IJssController.PublicationLevel.SUCCESS, args[1]);
+            } else if (args != null && args.length > 2) {
+                StringBuilder stringBuilder = MESSAGE_BUILDER.get();
+                stringBuilder.setLength(0);
+
+                stringBuilder.append(args[1]);
+                for (int i = 2, n = args.length; i < n; i++) {
+                    stringBuilder.append(JssTextAreaController.COMMAND_PARAMETER_SEPARATOR).append(args[i]);
                 }
 
-                shellController.publish(IJssController.PublicationLevel.SUCCESS, stringBuilder.toString());
+                TextPublishers.publish(shellController, IJssController.PublicationLevel.SUCCESS, stringBuilder);
+
+                if (stringBuilder.capacity() > MAX_RETAINED_MESSAGE_CAPACITY) {
+                    MESSAGE_BUILDER.remove();
+                }
             }
         }
 
@@ -29,19 +29,13 @@ public class ExitAction extends AbstractJssAction {
 
     private static final String COMMAND_BRIEF_HELP = "Exits application.";
 
-    private static String commandHelp;
-
-    private static boolean commandHelpInitialized = false;
-
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
-     *
-     * @return the static command help.
+     * Builder of the static command help, cached in the {@link HelpCache}.
      */
-    public static final String getHelp(ExitAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final HelpCache.HelpBuilder<ExitAction> HELP_BUILDER = new HelpCache.HelpBuilder<ExitAction>() {
+
+        @Override
+        public String buildHelp(ExitAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -52,20 +46,31 @@ public class ExitAction extends AbstractJssAction {
             stringBuilder.append("\n").append("You can define exit status code as follow:");
             stringBuilder.append("\n\t").append(commandIdsAsString).append(" [integer] ");
 
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(ExitAction action) {
+        return HelpCache.getHelp(ExitAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(ExitAction.class);
     }
 
     // #########################################################################
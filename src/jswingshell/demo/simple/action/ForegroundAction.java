@@ -0,0 +1,120 @@
+package jswingshell.demo.simple.action;
+
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+
+/**
+ * Action to bring a job to the foreground: the shell waits for the job to be
+ * done before accepting new commands.
+ *
+ * @author Mathieu Brunot
+ * @see JobManager#foreground(jswingshell.demo.simple.action.JobManager.Job)
+ */
+public class ForegroundAction extends AbstractJssAction {
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "fg";
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Waits for a job to be done.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<ForegroundAction> HELP_BUILDER = new HelpCache.HelpBuilder<ForegroundAction>() {
+
+        @Override
+        public String buildHelp(ForegroundAction action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("By default, the last job which is not finished is brought to the foreground.");
+            stringBuilder.append("\n\t").append(commandIdsAsString);
+            stringBuilder.append("\n").append("You can define the job, started right away if it is queued, as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [job id] ");
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(ForegroundAction action) {
+        return HelpCache.getHelp(ForegroundAction.class, action, HELP_BUILDER);
+    }
+
+    // #########################################################################
+    public ForegroundAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public ForegroundAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public ForegroundAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public ForegroundAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public ForegroundAction() {
+        super();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        if (shellController == null) {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (args != null && args.length > 2) {
+            shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else {
+            String jobSpec = args != null && args.length > 1 ? args[1] : null;
+            JobManager jobManager = JobManager.getInstance(shellController);
+            JobManager.Job job = jobManager.findJob(jobSpec);
+            if (job == null) {
+                shellController.publish(IJssController.PublicationLevel.ERROR, jobSpec != null ? "No such job: " + jobSpec : "No current job");
+                commandReturnStatus = AbstractJssAction.ERROR;
+            } else {
+                shellController.publish(IJssController.PublicationLevel.INFO, job.getCommand());
+                commandReturnStatus = jobManager.foreground(job);
+            }
+        }
+
+        return commandReturnStatus;
+    }
+
+}
@@ -1,13 +1,14 @@
 package jswingshell.demo.simple.action;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.swing.Icon;
 import jswingshell.IJssController;
 import jswingshell.action.AbstractJssAction;
 import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.controller.ShellControllerDecorator;
+import jswingshell.demo.simple.controller.VersionedActions;
 
 /**
  * Action to display available commands.
@@ -27,19 +28,18 @@ public class HelpAction extends AbstractJssAction {
 
     private static final String COMMAND_BRIEF_HELP = "Display available commands.";
 
-    private static String commandHelp;
-
-    private static boolean commandHelpInitialized = false;
+    /**
+     * Suffix of the command identifiers prefixes, as in {@code help ec*}.
+     */
+    public static final String PREFIX_WILDCARD = "*";
 
     /**
-     * Construct the action's command help.
-     *
-     * @param action the action reference
-     *
-     * @return the action's command help.
+     * Builder of the static command help, cached in the {@link HelpCache}.
      */
-    public static final String getHelp(HelpAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final HelpCache.HelpBuilder<HelpAction> HELP_BUILDER = new HelpCache.HelpBuilder<HelpAction>() {
+
+        @Override
+        public String buildHelp(HelpAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -47,24 +47,43 @@ public class HelpAction extends AbstractJssAction {
             stringBuilder.append("\n");
             stringBuilder.append("\n").append("For more information on a command, enter ").append(commandIdsAsString).append(" followed by the command:");
             stringBuilder.append("\n\t").append(commandIdsAsString).append(" [command] ");
+            stringBuilder.append("\n").append("To list the commands starting with a prefix, enter ").append(commandIdsAsString).append(" followed by the prefix and ").append(PREFIX_WILDCARD).append(":");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [prefix]").append(PREFIX_WILDCARD).append(" ");
 
-            commandHelp = stringBuilder.toString();
-            return commandHelp;
-        } else {
-            return null;
+            return stringBuilder.toString();
         }
+
+    };
+
+    /**
+     * Construct the action's command help.
+     *
+     * @param action the action reference
+     *
+     * @return the action's command help.
+     */
+    public static final String getHelp(HelpAction action) {
+        return HelpCache.getHelp(HelpAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(HelpAction.class);
     }
 
+    // #########################################################################
+    /**
+     * Index of the available actions of each shell controller, the proxies
+     * standing for a controller sharing its index.
+     */
+    private final Map<IJssController, ActionIndex> actionIndexes = new WeakHashMap<>();
+
     // #########################################################################
     public HelpAction(String name, Icon icon, IJssController shellController, String... args) {
         super(name, icon, shellController, args);
@@ -115,24 +134,24 @@ public class HelpAction extends AbstractJssAction {
             commandReturnStatus = 1;
         } else {
             if (args == null || args.length <= 1) {
-                StringBuilder stringBuilder = new StringBuilder();
-
                 String commandIdsAsString = this.getCommandIdentifiersAsString();
+                String listing = getActionIndex(shellController).getListing();
+
+                StringBuilder stringBuilder = new StringBuilder(128 + listing.length());
                 stringBuilder.append("For more information on a command, enter ").append(commandIdsAsString).append(" followed by the command.");
                 stringBuilder.append("\n");
                 stringBuilder.append("\n").append("Available commands:");
-                Collection<IJssAction> shellAvailableActions = shellController.getAvailableActions();
-                if (shellAvailableActions != null) {
-                    List<IJssAction> availableActions = new ArrayList<>(shellAvailableActions);
-                    Collections.sort(availableActions);
-                    for (IJssAction availableAction : availableActions) {
-                        if (availableAction != null) {
-                            stringBuilder.append("\n\t").append(availableAction.getCommandIdentifiersAsString()).append(" ").append(availableAction.getBriefHelp());
-                        }
-                    }
-                }
+                stringBuilder.append(listing);
 
                 shellController.publish(IJssController.PublicationLevel.SUCCESS, stringBuilder.toString());
+            } else if (args.length == 2 && args[1].endsWith(PREFIX_WILDCARD)) {
+                String prefix = args[1].substring(0, args[1].length() - PREFIX_WILDCARD.length());
+                List<IJssAction> matchingActions = getActionIndex(shellController).getActions(prefix);
+                if (!matchingActions.isEmpty()) {
+                    shellController.publish(IJssController.PublicationLevel.SUCCESS, "Commands starting with " + prefix + ":" + ActionIndex.getListing(matchingActions));
+                } else {
+                    shellController.publish(IJssController.PublicationLevel.WARNING, "Command not found: " + args[1]);
+                }
             } else if (args.length == 2) {
                 IJssAction action = shellController.getActionForCommandIdentifier(args[1]);
                 if (action != null) {
@@ -148,4 +167,36 @@ public class HelpAction extends AbstractJssAction {
         return commandReturnStatus;
     }
 
+    /**
+     * Get the index of the available actions of a shell controller, updated
+     * if actions were added or removed since last call.
+     *
+     * @param shellController the shell controller, or a decorator standing for it
+     *
+     * @return the up to date index of the shell controller actions.
+     *
+     * @see ShellControllerDecorator#unwrap(jswingshell.IJssController)
+     */
+    protected ActionIndex getActionIndex(IJssController shellController) {
+        IJssController underlyingController = ShellControllerDecorator.unwrap(shellController);
+        ActionIndex actionIndex;
+        synchronized (actionIndexes) {
+            actionIndex = actionIndexes.get(underlyingController);
+            if (actionIndex == null) {
+                actionIndex = new ActionIndex();
+                actionIndexes.put(underlyingController, actionIndex);
+            }
+        }
+        if (underlyingController instanceof VersionedActions) {
+            // Only look at the actions once they changed
+            long actionsVersion = ((VersionedActions) underlyingController).getActionsVersion();
+            if (!actionIndex.isUpToDate(actionsVersion)) {
+                actionIndex.update(underlyingController.getAvailableActions(), actionsVersion);
+            }
+        } else {
+            actionIndex.update(underlyingController.getAvailableActions());
+        }
+        return actionIndex;
+    }
+
 }
@@ -0,0 +1,128 @@
+package jswingshell.demo.simple.action;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import jswingshell.action.IJssAction;
+
+/**
+ * Cache of the command helps of the actions, shared by all threads.
+ *
+ * <p>
+ * Helps are built on first use, for an action class and the default locale,
+ * and then read without locking. They are built again after being
+ * {@link #invalidate(java.lang.Class) invalidated}.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public final class HelpCache {
+
+    /**
+     * Builder of the command help of an action class.
+     *
+     * @param <A> the action class
+     */
+    public interface HelpBuilder<A extends IJssAction> {
+
+        /**
+         * Build the command help.
+         *
+         * @param action the action reference
+         *
+         * @return the command help.
+         */
+        String buildHelp(A action);
+
+    }
+
+    private static final ConcurrentMap<HelpKey, String> HELPS = new ConcurrentHashMap<>();
+
+    private HelpCache() {
+    }
+
+    // #########################################################################
+    /**
+     * Get the command help of an action class, building it if needed.
+     *
+     * <p>
+     * Concurrent first calls might all build the help, only one of them is
+     * kept.</p>
+     *
+     * @param <A>         the action class
+     * @param actionClass the action class
+     * @param action      the action reference, or {@code null} to only look up
+     *                    the cache
+     * @param builder     the builder of the command help
+     *
+     * @return the command help, or {@code null} if it is not cached and no
+     *         action was given.
+     */
+    public static <A extends IJssAction> String getHelp(Class<A> actionClass, A action, HelpBuilder<? super A> builder) {
+        HelpKey key = new HelpKey(actionClass, Locale.getDefault());
+        String help = HELPS.get(key);
+        if (help == null && action != null) {
+            help = builder.buildHelp(action);
+            if (help != null) {
+                String cachedHelp = HELPS.putIfAbsent(key, help);
+                if (cachedHelp != null) {
+                    help = cachedHelp;
+                }
+            }
+        }
+        return help;
+    }
+
+    /**
+     * Invalidate the command helps of an action class, for all locales, to
+     * force their reconstruction on next call.
+     *
+     * @param actionClass the action class
+     */
+    public static void invalidate(Class<? extends IJssAction> actionClass) {
+        for (HelpKey key : HELPS.keySet()) {
+            if (key.actionClass == actionClass) {
+                HELPS.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Invalidate all the command helps, to force their reconstruction on next
+     * call.
+     */
+    public static void invalidateAll() {
+        HELPS.clear();
+    }
+
+    // #########################################################################
+    private static final class HelpKey {
+
+        private final Class<?> actionClass;
+
+        private final Locale locale;
+
+        HelpKey(Class<?> actionClass, Locale locale) {
+            this.actionClass = actionClass;
+            this.locale = locale;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * actionClass.hashCode() + locale.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HelpKey)) {
+                return false;
+            }
+            HelpKey other = (HelpKey) obj;
+            return actionClass == other.actionClass && locale.equals(other.locale);
+        }
+
+    }
+
+}
@@ -0,0 +1,216 @@
+package jswingshell.demo.simple.action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.history.CommandHistory;
+
+/**
+ * Action to display, search and clear the persistent command history.
+ *
+ * @author Mathieu Brunot
+ * @see CommandHistory
+ */
+public class HistoryAction extends AbstractJssAction {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(HistoryAction.class.getName());
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "history";
+
+    /**
+     * Argument searching the history.
+     */
+    public static final String SEARCH_ARGUMENT = "search";
+
+    /**
+     * Argument clearing the history.
+     */
+    public static final String CLEAR_ARGUMENT = "clear";
+
+    /**
+     * Default number of displayed commands.
+     */
+    public static final int DEFAULT_COUNT = 20;
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Displays the history of the commands.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<HistoryAction> HELP_BUILDER = new HelpCache.HelpBuilder<HistoryAction>() {
+
+        @Override
+        public String buildHelp(HistoryAction action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("The history is kept between sessions. You can display the last ").append(DEFAULT_COUNT).append(" commands as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString);
+            stringBuilder.append("\n").append("You can display a given number of commands as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [count]");
+            stringBuilder.append("\n").append("You can display the last commands containing a text as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" ").append(SEARCH_ARGUMENT).append(" [text]");
+            stringBuilder.append("\n").append("You can clear the history as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" ").append(CLEAR_ARGUMENT);
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(HistoryAction action) {
+        return HelpCache.getHelp(HistoryAction.class, action, HELP_BUILDER);
+    }
+
+    // #########################################################################
+    private CommandHistory history;
+
+    public HistoryAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public HistoryAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public HistoryAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public HistoryAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public HistoryAction() {
+        super();
+    }
+
+    // #########################################################################
+    /**
+     * The history displayed by this action.
+     *
+     * @return the history of this action, the
+     *         {@link CommandHistory#getDefault() default history} if none was
+     *         set.
+     */
+    public CommandHistory getHistory() {
+        return history != null ? history : CommandHistory.getDefault();
+    }
+
+    public void setHistory(CommandHistory history) {
+        this.history = history;
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        CommandHistory commandHistory = getHistory();
+        if (shellController == null) {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (commandHistory == null) {
+            shellController.publish(IJssController.PublicationLevel.WARNING, "Command history is disabled, see the " + CommandHistory.ENABLED_PROPERTY + " system property.");
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (args == null || args.length <= 1) {
+            publishLast(shellController, commandHistory, DEFAULT_COUNT);
+        } else if (CLEAR_ARGUMENT.equals(args[1]) && args.length == 2) {
+            if (commandHistory.isReadOnly()) {
+                shellController.publish(IJssController.PublicationLevel.WARNING, "Command history is used by another shell and cannot be cleared: " + commandHistory.getDirectory());
+                commandReturnStatus = AbstractJssAction.ERROR;
+            } else {
+                commandHistory.clear();
+                shellController.publish(IJssController.PublicationLevel.SUCCESS, "History cleared.");
+            }
+        } else if (SEARCH_ARGUMENT.equals(args[1]) && args.length == 3) {
+            publishMatches(shellController, commandHistory, args[2], DEFAULT_COUNT);
+        } else if (args.length == 2) {
+            try {
+                publishLast(shellController, commandHistory, Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                shellController.publish(IJssController.PublicationLevel.ERROR, "Invalid number format: " + args[1] + " (" + e.getMessage() + ")");
+                LOGGER.log(Level.WARNING, "Invalid number format: " + args[1], e);
+                commandReturnStatus = AbstractJssAction.ERROR;
+            }
+        } else {
+            shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+            commandReturnStatus = AbstractJssAction.ERROR;
+        }
+
+        return commandReturnStatus;
+    }
+
+    // #########################################################################
+    private static void publishLast(IJssController shellController, CommandHistory commandHistory, int count) {
+        long size = commandHistory.size();
+        StringBuilder stringBuilder = new StringBuilder();
+        for (long i = Math.max(0, size - Math.max(count, 0)); i < size; i++) {
+            appendCommand(stringBuilder, i, commandHistory.get(i));
+        }
+        if (stringBuilder.length() > 0) {
+            shellController.publish(IJssController.PublicationLevel.SUCCESS, stringBuilder.toString());
+        }
+    }
+
+    private static void publishMatches(IJssController shellController, CommandHistory commandHistory, String text, int count) {
+        List<Long> matches = new ArrayList<>();
+        for (long i = commandHistory.search(text, commandHistory.size()); i >= 0 && matches.size() < count; i = commandHistory.search(text, i)) {
+            matches.add(i);
+        }
+        if (matches.isEmpty()) {
+            shellController.publish(IJssController.PublicationLevel.INFO, "No command found containing: " + text);
+        } else {
+            Collections.reverse(matches);
+            StringBuilder stringBuilder = new StringBuilder();
+            for (Long match : matches) {
+                appendCommand(stringBuilder, match, commandHistory.get(match));
+            }
+            shellController.publish(IJssController.PublicationLevel.SUCCESS, stringBuilder.toString());
+        }
+    }
+
+    private static void appendCommand(StringBuilder stringBuilder, long index, String command) {
+        if (stringBuilder.length() > 0) {
+            stringBuilder.append("\n");
+        }
+        stringBuilder.append(String.format("%6d  ", index + 1)).append(command);
+    }
+
+}
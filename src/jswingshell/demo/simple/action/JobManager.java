@@ -0,0 +1,531 @@
+package jswingshell.demo.simple.action;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.controller.ShellControllerDecorator;
+import jswingshell.demo.simple.script.CommandTokenizer;
+
+/**
+ * Jobs of the threaded actions of a shell, when commands are queued.
+ *
+ * <p>
+ * In queue mode, threaded actions do not lock the command line: their workers
+ * are submitted as jobs, and the shell accepts new commands right away. Jobs
+ * of {@link AbstractBackedThreadedJssAction#isConcurrent() concurrent}
+ * actions start as soon as they are submitted; other jobs are executed one
+ * after the other, in the order they were submitted.</p>
+ *
+ * <p>
+ * Each job has an identifier, used by the {@code jobs}, {@code fg} and
+ * {@code kill} commands.</p>
+ *
+ * <p>
+ * The queue mode and the jobs belong to a shell: the job manager of a
+ * decorator, like the ones shell files run their commands through, is the one
+ * of the shell controller it stands for. A job manager does not keep its shell
+ * alive: it is forgotten once the shell is collected, or
+ * {@link #release(jswingshell.IJssController) released}.</p>
+ *
+ * @author Mathieu Brunot
+ * @see JobsAction
+ * @see ForegroundAction
+ * @see KillAction
+ */
+public class JobManager {
+
+    /**
+     * System property enabling the queue mode of new shells ({@code false} by
+     * default).
+     */
+    public static final String QUEUE_MODE_PROPERTY = "jswingshell.demo.jobs.queue";
+
+    private static final Map<IJssController, JobManager> JOB_MANAGERS = new WeakHashMap<>();
+
+    /**
+     * The job manager of a shell, created if needed.
+     *
+     * @param shellController the shell controller, or a decorator standing for it
+     *
+     * @return the job manager of the shell.
+     *
+     * @see ShellControllerDecorator#unwrap(jswingshell.IJssController)
+     */
+    public static JobManager getInstance(IJssController shellController) {
+        if (shellController == null) {
+            throw new IllegalArgumentException("Shell controller cannot be null");
+        }
+        IJssController underlyingController = ShellControllerDecorator.unwrap(shellController);
+        synchronized (JOB_MANAGERS) {
+            JobManager jobManager = JOB_MANAGERS.get(underlyingController);
+            if (jobManager == null) {
+                jobManager = new JobManager(underlyingController);
+                JOB_MANAGERS.put(underlyingController, jobManager);
+            }
+            return jobManager;
+        }
+    }
+
+    /**
+     * Are the workers of the threaded actions of a shell queued as jobs?
+     *
+     * <p>
+     * No job manager is created for the shell: shells without one use the
+     * default queue mode.</p>
+     *
+     * @param shellController the shell controller, or a decorator standing for it
+     *
+     * @return {@code true} if the queue mode of the shell is enabled,
+     *         {@code false} if it is not or if there is no shell.
+     *
+     * @see #QUEUE_MODE_PROPERTY
+     */
+    public static boolean isQueueMode(IJssController shellController) {
+        if (shellController == null) {
+            return false;
+        }
+        JobManager jobManager;
+        synchronized (JOB_MANAGERS) {
+            jobManager = JOB_MANAGERS.get(ShellControllerDecorator.unwrap(shellController));
+        }
+        return jobManager != null ? jobManager.isQueueMode() : Boolean.getBoolean(QUEUE_MODE_PROPERTY);
+    }
+
+    /**
+     * Forget the job manager of a shell which is not used anymore, and kill
+     * its unfinished jobs.
+     *
+     * @param shellController the shell controller, or a decorator standing for it
+     */
+    public static void release(IJssController shellController) {
+        if (shellController == null) {
+            return;
+        }
+        JobManager jobManager;
+        synchronized (JOB_MANAGERS) {
+            jobManager = JOB_MANAGERS.remove(ShellControllerDecorator.unwrap(shellController));
+        }
+        if (jobManager != null) {
+            for (Job job : jobManager.getJobs()) {
+                jobManager.kill(job);
+            }
+        }
+    }
+
+    // #########################################################################
+    /**
+     * States of a job.
+     */
+    public enum JobState {
+
+        QUEUED("Queued"),
+        RUNNING("Running"),
+        DONE("Done"),
+        KILLED("Killed");
+
+        private final String label;
+
+        private JobState(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+
+    }
+
+    /**
+     * Worker of a threaded action submitted to a job manager.
+     */
+    public static class Job {
+
+        private final int id;
+
+        private final String command;
+
+        private final SwingWorker<Integer, ?> worker;
+
+        private final WorkerBackend backend;
+
+        private final boolean concurrent;
+
+        private volatile JobState state = JobState.QUEUED;
+
+        private volatile int returnStatus = AbstractJssAction.SUCCESS;
+
+        /**
+         * Is the command line locked until the job is done?
+         */
+        private boolean foreground;
+
+        private Job(int id, String command, SwingWorker<Integer, ?> worker, WorkerBackend backend, boolean concurrent) {
+            this.id = id;
+            this.command = command;
+            this.worker = worker;
+            this.backend = backend;
+            this.concurrent = concurrent;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        /**
+         * Was the job started without waiting for the previous ones?
+         *
+         * @return {@code true} if the job is concurrent.
+         */
+        public boolean isConcurrent() {
+            return concurrent;
+        }
+
+        public JobState getState() {
+            JobState currentState = state;
+            if (currentState == JobState.RUNNING && worker.isDone()) {
+                // Its listener may not have been notified yet
+                currentState = worker.isCancelled() ? JobState.KILLED : JobState.DONE;
+            }
+            return currentState;
+        }
+
+        /**
+         * Is the job done or killed?
+         *
+         * @return {@code true} if the job is finished.
+         */
+        public boolean isFinished() {
+            JobState currentState = getState();
+            return currentState == JobState.DONE || currentState == JobState.KILLED;
+        }
+
+        /**
+         * The return status of the job's worker.
+         *
+         * @return the return status of the job, meaningful once it is done.
+         */
+        public int getReturnStatus() {
+            if (state == JobState.RUNNING && worker.isDone()) {
+                return AbstractBackedThreadedJssAction.getReturnStatus(worker);
+            }
+            return returnStatus;
+        }
+
+        @Override
+        public String toString() {
+            JobState currentState = getState();
+            int currentReturnStatus = getReturnStatus();
+            String stateAsString = currentState == JobState.DONE && currentReturnStatus != AbstractJssAction.SUCCESS
+                    ? "Exit " + currentReturnStatus : currentState.toString();
+            return String.format("[%d] %-8s %s", id, stateAsString, command);
+        }
+
+    }
+
+    // #########################################################################
+    /**
+     * The shell of the manager, only weakly referenced: the manager is the
+     * value of its shell in the managers' map.
+     */
+    private final WeakReference<IJssController> shellController;
+
+    /**
+     * All the jobs not yet reported as finished, by identifier.
+     */
+    private final Map<Integer, Job> jobs = new TreeMap<>();
+
+    /**
+     * Jobs waiting for the previous ones to be done.
+     */
+    private final Queue<Job> queuedJobs = new ArrayDeque<>();
+
+    /**
+     * Non concurrent job being executed, if any.
+     */
+    private Job sequentialJob;
+
+    private int lastJobId;
+
+    private volatile boolean queueMode = Boolean.getBoolean(QUEUE_MODE_PROPERTY);
+
+    private JobManager(IJssController shellController) {
+        this.shellController = new WeakReference<>(shellController);
+    }
+
+    // #########################################################################
+    /**
+     * Are the workers of the threaded actions of the shell queued as jobs?
+     *
+     * @return {@code true} if the queue mode is enabled.
+     */
+    public boolean isQueueMode() {
+        return queueMode;
+    }
+
+    /**
+     * Enable or disable the queue mode of the shell.
+     *
+     * <p>
+     * Jobs already submitted are still executed when the queue mode is
+     * disabled.</p>
+     *
+     * @param queueMode {@code true} to queue the workers of threaded actions
+     */
+    public void setQueueMode(boolean queueMode) {
+        this.queueMode = queueMode;
+    }
+
+    // #########################################################################
+    /**
+     * Submit the worker of a threaded action.
+     *
+     * @param worker     the worker to execute
+     * @param backend    the backend executing the worker
+     * @param concurrent {@code true} to execute the worker right away,
+     *                   {@code false} to execute it after the previous jobs
+     * @param args       the command of the worker
+     *
+     * @return the submitted job.
+     */
+    public Job submit(SwingWorker<Integer, ?> worker, WorkerBackend backend, boolean concurrent, String... args) {
+        Job job;
+        boolean startJob;
+        synchronized (this) {
+            job = new Job(++lastJobId, CommandTokenizer.join(args), worker, backend, concurrent);
+            jobs.put(job.id, job);
+            if (concurrent) {
+                startJob = true;
+            } else if (sequentialJob == null) {
+                sequentialJob = job;
+                startJob = true;
+            } else {
+                queuedJobs.add(job);
+                startJob = false;
+            }
+        }
+        if (startJob) {
+            start(job);
+        }
+        return job;
+    }
+
+    /**
+     * The jobs not yet reported as finished.
+     *
+     * @return the jobs, sorted by identifier.
+     */
+    public synchronized List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Find a job.
+     *
+     * @param id the identifier of the job
+     *
+     * @return the job, or {@code null} if there is no such job.
+     */
+    public synchronized Job getJob(int id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Find a job from its specification in a command.
+     *
+     * @param jobSpec the identifier of the job, optionally prefixed by
+     *                {@code %}, or {@code null} for the
+     *                {@link #getCurrentJob() current job}
+     *
+     * @return the job, or {@code null} if there is no such job.
+     */
+    public Job findJob(String jobSpec) {
+        if (jobSpec == null) {
+            return getCurrentJob();
+        }
+        try {
+            return getJob(Integer.parseInt(jobSpec.startsWith("%") ? jobSpec.substring(1) : jobSpec));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The last submitted job which is not finished.
+     *
+     * @return the current job, or {@code null} if all jobs are finished.
+     */
+    public synchronized Job getCurrentJob() {
+        Job currentJob = null;
+        for (Job job : jobs.values()) {
+            if (!job.isFinished()) {
+                currentJob = job;
+            }
+        }
+        return currentJob;
+    }
+
+    /**
+     * Forget the finished jobs once they were reported.
+     *
+     * @param reportedJobs the reported jobs
+     */
+    public synchronized void removeFinished(List<Job> reportedJobs) {
+        for (Job job : reportedJobs) {
+            if (job.isFinished()) {
+                jobs.remove(job.id);
+            }
+        }
+    }
+
+    /**
+     * Kill a job: a queued job is never executed, a running job is
+     * interrupted.
+     *
+     * @param job the job to kill
+     *
+     * @return {@code false} if the job was already finished.
+     */
+    public boolean kill(Job job) {
+        synchronized (this) {
+            if (job.isFinished()) {
+                return false;
+            }
+            if (job.state == JobState.QUEUED && queuedJobs.remove(job)) {
+                job.state = JobState.KILLED;
+                job.returnStatus = AbstractJssAction.ERROR;
+                return true;
+            }
+        }
+        // The end of the worker is handled by its listener
+        return job.worker.cancel(true);
+    }
+
+    /**
+     * Bring a job to the foreground: a queued job is started right away, and
+     * the shell waits for the job to be done.
+     *
+     * <p>
+     * From the Event Dispatch Thread, the command line is locked until the job
+     * is done; from any other thread, the job is waited for.</p>
+     *
+     * @param job the job to bring to the foreground
+     *
+     * @return the return status of the job if it was waited for,
+     *         {@link AbstractJssAction#SUCCESS} otherwise.
+     */
+    public int foreground(Job job) {
+        boolean startJob = false;
+        boolean onEdt = SwingUtilities.isEventDispatchThread();
+        synchronized (this) {
+            if (job.isFinished()) {
+                return job.getReturnStatus();
+            }
+            if (job.state == JobState.QUEUED && queuedJobs.remove(job)) {
+                startJob = true;
+            }
+            IJssController shell = shellController.get();
+            if (shell != null) {
+                // Cancelling the foreground command now cancels the job
+                Cancellation.addWorker(shell, job.worker, true);
+                if (onEdt && !job.foreground) {
+                    job.foreground = true;
+                    shell.lockCommandLine();
+                }
+            }
+        }
+        if (startJob) {
+            start(job);
+        }
+
+        if (onEdt) {
+            return AbstractJssAction.SUCCESS;
+        }
+        return waitFor(job);
+    }
+
+    // #########################################################################
+    private void start(final Job job) {
+        synchronized (this) {
+            if (job.state != JobState.QUEUED) {
+                return;
+            }
+            job.state = JobState.RUNNING;
+        }
+        job.worker.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                    job.worker.removePropertyChangeListener(this);
+                    finished(job);
+                }
+            }
+        });
+        // The command line never waits for a job
+        WorkerBackend backend = job.backend == WorkerBackend.DIRECT ? WorkerBackend.VIRTUAL_THREAD : job.backend;
+        backend.execute(job.worker);
+    }
+
+    private void finished(Job job) {
+        Job nextJob = null;
+        boolean foreground;
+        synchronized (this) {
+            job.returnStatus = AbstractBackedThreadedJssAction.getReturnStatus(job.worker);
+            job.state = job.worker.isCancelled() ? JobState.KILLED : JobState.DONE;
+            if (job == sequentialJob) {
+                sequentialJob = null;
+                for (Iterator<Job> it = queuedJobs.iterator(); it.hasNext() && sequentialJob == null;) {
+                    Job queuedJob = it.next();
+                    it.remove();
+                    if (!queuedJob.isFinished()) {
+                        sequentialJob = queuedJob;
+                    }
+                }
+                nextJob = sequentialJob;
+            }
+            foreground = job.foreground;
+        }
+
+        IJssController shell = shellController.get();
+        if (shell != null) {
+            shell.publish(IJssController.PublicationLevel.INFO, job.toString());
+            if (foreground) {
+                shell.unlockCommandLine();
+            }
+        }
+        if (nextJob != null) {
+            start(nextJob);
+        }
+    }
+
+    private static int waitFor(Job job) {
+        try {
+            job.worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AbstractJssAction.ERROR;
+        } catch (ExecutionException | CancellationException e) {
+            return AbstractJssAction.ERROR;
+        }
+        return AbstractBackedThreadedJssAction.getReturnStatus(job.worker);
+    }
+
+}
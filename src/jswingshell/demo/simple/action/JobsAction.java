@@ -0,0 +1,143 @@
+package jswingshell.demo.simple.action;
+
+import java.util.List;
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+
+/**
+ * Action to list the jobs of the shell, and to enable or disable the queue
+ * mode.
+ *
+ * @author Mathieu Brunot
+ * @see JobManager
+ */
+public class JobsAction extends AbstractJssAction {
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "jobs";
+
+    /**
+     * Argument displaying or defining the queue mode.
+     */
+    public static final String QUEUE_ARGUMENT = "queue";
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Lists the jobs of the shell.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<JobsAction> HELP_BUILDER = new HelpCache.HelpBuilder<JobsAction>() {
+
+        @Override
+        public String buildHelp(JobsAction action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("Finished jobs are listed once, and then forgotten.");
+            stringBuilder.append("\n\t").append(commandIdsAsString);
+            stringBuilder.append("\n").append("In queue mode, threaded commands of the shell do not lock the command line but are queued as jobs.");
+            stringBuilder.append("\n").append("You can display or define the queue mode as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" ").append(QUEUE_ARGUMENT).append(" [on|off]");
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(JobsAction action) {
+        return HelpCache.getHelp(JobsAction.class, action, HELP_BUILDER);
+    }
+
+    // #########################################################################
+    public JobsAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public JobsAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public JobsAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public JobsAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public JobsAction() {
+        super();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        if (shellController == null) {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (args != null && args.length > 1) {
+            JobManager jobManager = JobManager.getInstance(shellController);
+            if (!QUEUE_ARGUMENT.equals(args[1]) || args.length > 3) {
+                shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+                commandReturnStatus = AbstractJssAction.ERROR;
+            } else if (args.length == 3 && "on".equals(args[2])) {
+                jobManager.setQueueMode(true);
+            } else if (args.length == 3 && "off".equals(args[2])) {
+                jobManager.setQueueMode(false);
+            } else if (args.length == 3) {
+                shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+                commandReturnStatus = AbstractJssAction.ERROR;
+            }
+            if (commandReturnStatus == AbstractJssAction.SUCCESS) {
+                shellController.publish(IJssController.PublicationLevel.SUCCESS, "Queue mode is " + (jobManager.isQueueMode() ? "on" : "off") + ".");
+            }
+        } else {
+            JobManager jobManager = JobManager.getInstance(shellController);
+            List<JobManager.Job> jobs = jobManager.getJobs();
+            if (!jobs.isEmpty()) {
+                StringBuilder stringBuilder = new StringBuilder();
+                for (JobManager.Job job : jobs) {
+                    if (stringBuilder.length() > 0) {
+                        stringBuilder.append("\n");
+                    }
+                    stringBuilder.append(job);
+                }
+                shellController.publish(IJssController.PublicationLevel.SUCCESS, stringBuilder.toString());
+            }
+            jobManager.removeFinished(jobs);
+        }
+
+        return commandReturnStatus;
+    }
+
+}
@@ -0,0 +1,125 @@
+package jswingshell.demo.simple.action;
+
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+
+/**
+ * Action to kill jobs: queued jobs are never executed, running jobs are
+ * interrupted.
+ *
+ * @author Mathieu Brunot
+ * @see JobManager#kill(jswingshell.demo.simple.action.JobManager.Job)
+ */
+public class KillAction extends AbstractJssAction {
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "kill";
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Kills jobs.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<KillAction> HELP_BUILDER = new HelpCache.HelpBuilder<KillAction>() {
+
+        @Override
+        public String buildHelp(KillAction action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("Queued jobs are removed from the queue, running jobs are interrupted.");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [job id] ...");
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(KillAction action) {
+        return HelpCache.getHelp(KillAction.class, action, HELP_BUILDER);
+    }
+
+    // #########################################################################
+    public KillAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public KillAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public KillAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public KillAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public KillAction() {
+        super();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        if (shellController == null) {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (args == null || args.length < 2) {
+            shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else {
+            JobManager jobManager = JobManager.getInstance(shellController);
+            for (int i = 1; i < args.length; i++) {
+                JobManager.Job job = jobManager.findJob(args[i]);
+                if (job == null) {
+                    shellController.publish(IJssController.PublicationLevel.ERROR, "No such job: " + args[i]);
+                    commandReturnStatus = AbstractJssAction.ERROR;
+                    continue;
+                }
+                boolean queued = job.getState() == JobManager.JobState.QUEUED;
+                if (!jobManager.kill(job)) {
+                    shellController.publish(IJssController.PublicationLevel.WARNING, "Job already finished: " + job);
+                    commandReturnStatus = AbstractJssAction.ERROR;
+                } else if (queued) {
+                    // Running jobs are reported once interrupted
+                    shellController.publish(IJssController.PublicationLevel.INFO, job.toString());
+                }
+            }
+        }
+
+        return commandReturnStatus;
+    }
+
+}
@@ -0,0 +1,182 @@
+package jswingshell.demo.simple.action;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+
+/**
+ * Action standing for another one, only instantiated when first needed.
+ *
+ * <p>
+ * Only the command identifiers of the action, and optionally its brief help,
+ * are known beforehand: the action itself is instantiated, and its class
+ * initialized, when it is run or when its help is first requested. Registering
+ * lazy actions in a shell makes its startup independent of the number and
+ * weight of its actions.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class LazyJssAction extends AbstractJssAction {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(LazyJssAction.class.getName());
+
+    /**
+     * Factory of the action a lazy action stands for.
+     */
+    public interface Factory {
+
+        /**
+         * Instantiate the action.
+         *
+         * @return a new action.
+         *
+         * @throws Exception if the action cannot be instantiated
+         */
+        IJssAction create() throws Exception;
+
+    }
+
+    /**
+     * The action a lazy action stands for.
+     *
+     * @param action an action
+     *
+     * @return the instantiated action if {@code action} is a lazy action,
+     *         {@code action} itself otherwise.
+     */
+    public static IJssAction unwrap(IJssAction action) {
+        return action instanceof LazyJssAction ? ((LazyJssAction) action).getAction() : action;
+    }
+
+    // #########################################################################
+    private final String[] commandIdentifiers;
+
+    private final String briefHelp;
+
+    private final Factory factory;
+
+    private volatile IJssAction action;
+
+    /**
+     * Construct a lazy action instantiated by a factory.
+     *
+     * @param factory            the factory of the action
+     * @param commandIdentifiers the command identifiers of the action
+     */
+    public LazyJssAction(Factory factory, String... commandIdentifiers) {
+        this(factory, commandIdentifiers, null);
+    }
+
+    /**
+     * Construct a lazy action instantiated by a factory, whose brief help is
+     * known beforehand.
+     *
+     * @param factory            the factory of the action
+     * @param commandIdentifiers the command identifiers of the action
+     * @param briefHelp          the brief help of the action, or {@code null}
+     *                           to get it from the instantiated action
+     */
+    public LazyJssAction(Factory factory, String[] commandIdentifiers, String briefHelp) {
+        super();
+        if (factory == null) {
+            throw new IllegalArgumentException("Action factory cannot be null");
+        }
+        if (commandIdentifiers == null || commandIdentifiers.length == 0) {
+            throw new IllegalArgumentException("Command identifiers cannot be empty");
+        }
+        this.factory = factory;
+        this.commandIdentifiers = commandIdentifiers.clone();
+        this.briefHelp = briefHelp;
+    }
+
+    /**
+     * Construct a lazy action instantiated with the public constructor without
+     * arguments of its class.
+     *
+     * <p>
+     * The class is loaded, but only initialized once the action is
+     * instantiated.</p>
+     *
+     * @param actionClass        the class of the action
+     * @param commandIdentifiers the command identifiers of the action
+     */
+    public LazyJssAction(final Class<? extends IJssAction> actionClass, String... commandIdentifiers) {
+        this(new Factory() {
+            @Override
+            public IJssAction create() throws Exception {
+                return actionClass.newInstance();
+            }
+
+            @Override
+            public String toString() {
+                return actionClass.getName();
+            }
+        }, commandIdentifiers);
+    }
+
+    // #########################################################################
+    /**
+     * The action this lazy action stands for, instantiated on first call.
+     *
+     * @return the instantiated action.
+     *
+     * @throws IllegalStateException if the action cannot be instantiated
+     */
+    public IJssAction getAction() {
+        IJssAction instantiatedAction = action;
+        if (instantiatedAction == null) {
+            synchronized (this) {
+                instantiatedAction = action;
+                if (instantiatedAction == null) {
+                    try {
+                        instantiatedAction = factory.create();
+                    } catch (Exception e) {
+                        LOGGER.log(Level.SEVERE, "Cannot instantiate action: " + factory, e);
+                        throw new IllegalStateException("Cannot instantiate action: " + factory, e);
+                    }
+                    if (instantiatedAction == null) {
+                        throw new IllegalStateException("No action instantiated: " + factory);
+                    }
+                    action = instantiatedAction;
+                }
+            }
+        }
+        return instantiatedAction;
+    }
+
+    /**
+     * Whether the action this lazy action stands for was instantiated.
+     *
+     * @return {@code true} if the action was instantiated.
+     */
+    public boolean isInstantiated() {
+        return action != null;
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return commandIdentifiers;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return briefHelp != null ? briefHelp : getAction().getBriefHelp();
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getAction().getHelp(shellController);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        return getAction().run(shellController, args);
+    }
+
+}
@@ -1,24 +1,45 @@
 package jswingshell.demo.simple.action;
 
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Icon;
-import jswingshell.AbstractJssController;
 import jswingshell.IJssController;
 import jswingshell.action.AbstractThreadedJssAction;
 import jswingshell.action.AbstractThreadedJssAction.AbstractJssActionWorker;
-import jswingshell.action.AbstractThreadedJssAction.JssActionWorkerChunk;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.controller.CoalescingPublisher;
+import jswingshell.demo.simple.controller.CommandDispatcher;
+import jswingshell.demo.simple.controller.ShellOutputBuffer;
+import jswingshell.demo.simple.script.AbstractCommandFileReader;
+import jswingshell.demo.simple.script.CommandScriptCache;
+import jswingshell.demo.simple.script.IScriptCommand;
+import jswingshell.demo.simple.script.ScriptCommand;
 
 /**
  * Action to load and execute a shell file.
  *
  * @author Mathieu Brunot
  */
-public class LoadCommandFile extends AbstractThreadedJssAction {
+public class LoadCommandFile extends AbstractBackedThreadedJssAction {
 
     /**
      * Logger.
@@ -26,40 +47,77 @@ public class LoadCommandFile extends AbstractThreadedJssAction {
     private static final Logger LOGGER = Logger.getLogger(LoadCommandFile.class.getName());
 
     /**
-     * Prefix for start of lines to indicate that a command should not display
-     * itself before execution.
+     * This action default identifier.
+     * 
+     * @since 1.2
      */
-    private static final String MUTE_PREFIX = "@";
+    public static final String DEFAULT_IDENTIFIER = "loadCommandFile";
 
     /**
-     * Prefix for start of lines to indicate a comment.
+     * System property defining the default number of commands executed in a
+     * batch.
      */
-    private static final String COMMENT_PREFIX = "//";
+    public static final String BATCH_SIZE_PROPERTY = "jswingshell.demo.loadCommandFile.batchSize";
 
     /**
-     * This action default identifier.
-     * 
-     * @since 1.2
+     * Default number of commands executed in a batch, batches are disabled
+     * unless the {@link #BATCH_SIZE_PROPERTY} system property is defined.
      */
-    public static final String DEFAULT_IDENTIFIER = "loadCommandFile";
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger(BATCH_SIZE_PROPERTY, 1);
 
-    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+    /**
+     * System property defining whether the output of shell files is coalesced
+     * by default.
+     */
+    public static final String COALESCING_PROPERTY = "jswingshell.demo.loadCommandFile.coalescing";
 
-    private static final String COMMAND_BRIEF_HELP = "Load and execute a shell file.";
+    /**
+     * Whether the output of shell files is coalesced by default, unless the
+     * {@link #COALESCING_PROPERTY} system property is {@code false}.
+     */
+    public static final boolean DEFAULT_COALESCING = Boolean.parseBoolean(System.getProperty(COALESCING_PROPERTY, "true"));
 
-    private static String commandHelp;
+    private static final String PARALLEL_KEYWORD = "parallel";
 
-    private static boolean commandHelpInitialized = false;
+    private static final String JOIN_KEYWORD = "join";
 
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
+     * Directive starting a block of commands executed in parallel.
+     */
+    public static final String PARALLEL_DIRECTIVE = AbstractCommandFileReader.MUTE_PREFIX + PARALLEL_KEYWORD;
+
+    /**
+     * Directive ending a block of commands executed in parallel.
+     */
+    public static final String JOIN_DIRECTIVE = AbstractCommandFileReader.MUTE_PREFIX + JOIN_KEYWORD;
+
+    /**
+     * System property defining the maximum number of commands of a parallel
+     * block executed at the same time.
+     */
+    public static final String PARALLELISM_PROPERTY = "jswingshell.demo.loadCommandFile.parallelism";
+
+    /**
+     * Default maximum number of commands of a parallel block executed at the
+     * same time.
      *
-     * @return the static command help.
+     * <p>
+     * Scripted commands may block (sleep, ...), so parallel blocks are not
+     * limited to the number of processors.</p>
      */
-    public static final String getHelp(LoadCommandFile action) {
-        if (!commandHelpInitialized && action != null) {
+    public static final int DEFAULT_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Load and execute a shell file.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<LoadCommandFile> HELP_BUILDER = new HelpCache.HelpBuilder<LoadCommandFile>() {
+
+        @Override
+        public String buildHelp(LoadCommandFile action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -67,23 +125,75 @@ public class LoadCommandFile extends AbstractThreadedJssAction {
             stringBuilder.append("\n");
             stringBuilder.append("\n").append("Load and executes the file at the given path:");
             stringBuilder.append("\n\t").append(commandIdsAsString).append(" [file_path] ");
-
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            stringBuilder.append("\n").append("The charset of the file can be specified (platform default charset otherwise):");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [file_path] [charset] ");
+            stringBuilder.append("\n").append("Files compiled with ").append(CompileCommandFile.DEFAULT_IDENTIFIER).append(" are detected and loaded without parsing.");
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("Independent commands of the file can be executed in parallel:");
+            stringBuilder.append("\n\t").append(PARALLEL_DIRECTIVE);
+            stringBuilder.append("\n\t").append("[command]");
+            stringBuilder.append("\n\t").append("[command]");
+            stringBuilder.append("\n\t").append(JOIN_DIRECTIVE);
+            stringBuilder.append("\n").append("The output of the block is displayed in the file order once all its commands are done.");
+            stringBuilder.append("\n").append("The first command in error cancels the other commands of the block.");
+            stringBuilder.append("\n").append("Threaded commands cannot be executed in a parallel block.");
+
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(LoadCommandFile action) {
+        return HelpCache.getHelp(LoadCommandFile.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(LoadCommandFile.class);
+    }
+
+    /**
+     * Executor of the parallel blocks of all shell files, created on first
+     * use.
+     *
+     * <p>
+     * Its threads are plain threads, which the cancellation of a command
+     * interrupts.</p>
+     */
+    private static class ParallelExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Integer.getInteger(PARALLELISM_PROPERTY, DEFAULT_PARALLELISM), new ThreadFactory() {
+
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jss-parallel-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
     }
 
+    // #########################################################################
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private boolean coalescing = DEFAULT_COALESCING;
+
     // #########################################################################
     public LoadCommandFile(String name, Icon icon, IJssController shellController, String... args) {
         super(name, icon, shellController, args);
@@ -121,6 +231,58 @@ public class LoadCommandFile extends AbstractThreadedJssAction {
         return getHelp(this);
     }
 
+    /**
+     * Number of commands executed back to back before their output is sent to
+     * the shell.
+     *
+     * @return the number of commands of a batch, batches are disabled if lower
+     *         or equal to 1.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Define the number of commands executed back to back before their output
+     * is sent to the shell.
+     *
+     * <p>
+     * In batch mode, commands are dispatched directly to their action with a
+     * buffered controller, and consecutive messages of the same level are
+     * merged into a single update of the shell per batch.</p>
+     *
+     * @param batchSize the number of commands of a batch, lower or equal to 1
+     *                  to disable batches.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether the output of shell files is coalesced.
+     *
+     * @return {@code true} if the output of shell files is coalesced.
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Define whether the output of shell files is coalesced.
+     *
+     * <p>
+     * Coalesced output is queued by the worker and sent to the shell from the
+     * Event Dispatch Thread about once per frame, instead of once per message.
+     * The worker waits when the shell falls behind.</p>
+     *
+     * @param coalescing {@code true} to coalesce the output of shell files
+     *
+     * @see CoalescingPublisher
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
     @Override
     protected AbstractJssActionWorker prepareWorker(IJssController shellController, String... args) {
         LoadCommandFileWorker worker = null;
@@ -131,6 +293,14 @@ public class LoadCommandFile extends AbstractThreadedJssAction {
                 if (args.length == 2) {
                     String filePath = args[1];
                     worker = new LoadCommandFileWorker(shellController, filePath);
+                } else if (args.length == 3) {
+                    String filePath = args[1];
+                    try {
+                        worker = new LoadCommandFileWorker(shellController, filePath, Charset.forName(args[2]));
+                    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                        shellController.publish(IJssController.PublicationLevel.ERROR, "Unsupported charset: " + args[2]);
+                        LOGGER.log(Level.SEVERE, "Unsupported charset: " + args[2], e);
+                    }
                 } else {
                     shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
                 }
@@ -144,78 +314,119 @@ public class LoadCommandFile extends AbstractThreadedJssAction {
     }
 
     // #########################################################################
-    protected class LoadCommandFileWorker extends AbstractJssActionWorker {
+    protected class LoadCommandFileWorker extends AbstractBackedJssActionWorker {
 
         final String filePath;
 
+        final Charset charset;
+
+        final int batchSize;
+
+        final boolean coalescing;
+
+        private CommandDispatcher dispatcher;
+
+        private CoalescingPublisher publisher;
+
+        /**
+         * The controller given to the commands of the file.
+         */
+        private IJssController shell;
+
         public LoadCommandFileWorker(IJssController shellController, String filePath) {
+            this(shellController, filePath, Charset.defaultCharset());
+        }
+
+        public LoadCommandFileWorker(IJssController shellController, String filePath, Charset charset) {
             super(shellController);
             this.filePath = filePath;
+            this.charset = charset;
+            this.batchSize = LoadCommandFile.this.batchSize;
+            this.coalescing = LoadCommandFile.this.coalescing;
         }
 
         @Override
         protected Integer doInBackground() throws Exception {
             int workerCommandReturnStatus = AbstractThreadedJssAction.SUCCESS;
 
+            // Actions are only looked up once per file
+            dispatcher = new CommandDispatcher(getShellController());
+            publisher = coalescing ? new CoalescingPublisher(getShellController()) : null;
+            shell = publisher != null ? publisher : getShellController();
+
             // Start reading file
-            FileReader fr = null;
-            BufferedReader br = null;
+            AbstractCommandFileReader reader = null;
+            ShellOutputBuffer outputBuffer = batchSize > 1 ? new ShellOutputBuffer(shell) : null;
             try {
-                fr = new FileReader(filePath);
-                br = new BufferedReader(fr);
-
-                int lineCount = 0;
-                for (String line; (line = br.readLine()) != null;) {
-                    lineCount++;
-                    String command = line != null ? line.trim() : "";
-
-                    if (command != null && !command.isEmpty()) {
-                        // Add line to shell
-                        if (command.startsWith(MUTE_PREFIX)) {
-                            command = command.substring(MUTE_PREFIX.length());
-                        } else if (command.startsWith(COMMENT_PREFIX)) {
-                            continue;
-                        } else {
-                            getShellController().addNewLineToShell(command);
+                reader = CommandScriptCache.getDefault().open(filePath, charset);
+
+                int batchCount = 0;
+                while (reader.next()) {
+                    // Give the thread back as soon as the file is cancelled
+                    if (isStopped()) {
+                        if (outputBuffer != null) {
+                            outputBuffer.flush();
                         }
+                        publishStopCancelled(reader);
+                        workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
+                        break;
+                    }
 
-                        if (getShellController() instanceof AbstractJssController) {
-                            // Execute command without adding it to history
-                            workerCommandReturnStatus |= ((AbstractJssController) getShellController()).interpretCommand(command, false);
-                        } else {
-                            workerCommandReturnStatus |= getShellController().interpretCommand(command);
+                    if (isDirective(reader, PARALLEL_KEYWORD)) {
+                        if (outputBuffer != null) {
+                            outputBuffer.flush();
+                            batchCount = 0;
                         }
+                        workerCommandReturnStatus |= executeParallelBlock(reader);
+                        if (AbstractThreadedJssAction.SUCCESS != workerCommandReturnStatus) {
+                            break;
+                        }
+                        continue;
+                    } else if (isDirective(reader, JOIN_KEYWORD)) {
+                        // Nothing to join outside of a parallel block
+                        continue;
+                    }
+
+                    workerCommandReturnStatus |= executeCommand(reader, outputBuffer);
+
+                    if (outputBuffer != null && ++batchCount >= batchSize) {
+                        outputBuffer.flush();
+                        batchCount = 0;
                     }
 
                     // Stop reading the file if an error occurs
                     if (AbstractThreadedJssAction.SUCCESS != workerCommandReturnStatus) {
-                        this.publish(new JssActionWorkerChunk(IJssController.PublicationLevel.WARNING, "Stop reading file due to internal command file error: command \"" + command + "\" at line " + lineCount + " returned status code " + workerCommandReturnStatus));
+                        if (outputBuffer != null) {
+                            outputBuffer.flush();
+                        }
+                        if (isStopped()) {
+                            publishStopCancelled(reader);
+                        } else {
+                            publishStopReading(reader, workerCommandReturnStatus);
+                        }
                         break;
                     }
                 }
-            } catch (FileNotFoundException e) {
-                this.publish(new JssActionWorkerChunk(IJssController.PublicationLevel.ERROR, "File not found: " + filePath));
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                publishChunk(IJssController.PublicationLevel.ERROR, "File not found: " + filePath);
                 LOGGER.log(Level.SEVERE, "File not found: " + filePath, e);
                 workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
             } catch (IOException e) {
-                this.publish(new JssActionWorkerChunk(IJssController.PublicationLevel.FATAL_ERROR, "Error occured while reading file: " + e.getMessage()));
+                publishChunk(IJssController.PublicationLevel.FATAL_ERROR, "Error occured while reading file: " + e.getMessage());
                 LOGGER.log(Level.SEVERE, "Error occured while reading file.", e);
                 workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
             } finally {
-                if (br != null) {
-                    try {
-                        br.close();
-                    } catch (IOException ex) {
-                        this.publish(new JssActionWorkerChunk(IJssController.PublicationLevel.WARNING, "Error occured while closing buffered file reader: " + ex.getMessage()));
-                        LOGGER.log(Level.SEVERE, "Error occured while closing buffered file reader.", ex);
-                        workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
-                    }
+                if (outputBuffer != null) {
+                    outputBuffer.flush();
                 }
-                if (fr != null) {
+                if (publisher != null) {
+                    publisher.close();
+                }
+                if (reader != null) {
                     try {
-                        fr.close();
+                        reader.close();
                     } catch (IOException ex) {
-                        this.publish(new JssActionWorkerChunk(IJssController.PublicationLevel.WARNING, "Error occured while closing file reader: " + ex.getMessage()));
+                        publishChunk(IJssController.PublicationLevel.WARNING, "Error occured while closing file reader: " + ex.getMessage());
                         LOGGER.log(Level.SEVERE, "Error occured while closing file reader.", ex);
                         workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
                     }
@@ -225,5 +436,228 @@ public class LoadCommandFile extends AbstractThreadedJssAction {
             return workerCommandReturnStatus;
         }
 
+        private boolean isDirective(IScriptCommand command, String keyword) {
+            if (!command.isMuted()) {
+                return false;
+            }
+            String[] commandArgs = command.getArguments();
+            return commandArgs.length == 1 && keyword.equals(commandArgs[0]);
+        }
+
+        /**
+         * Publish a message of the worker, after the output of the commands.
+         *
+         * @param level   the publication level of the message
+         * @param message the message
+         */
+        @Override
+        protected void publishChunk(IJssController.PublicationLevel level, String message) {
+            if (publisher != null) {
+                publisher.flushAndWait();
+            }
+            super.publishChunk(level, message);
+        }
+
+        /**
+         * Was the execution of the file cancelled?
+         *
+         * @return {@code true} if the worker was cancelled or interrupted.
+         */
+        private boolean isStopped() {
+            return isCancelled() || Cancellation.isCurrentCancelled();
+        }
+
+        private void publishStopCancelled(IScriptCommand command) {
+            publishChunk(IJssController.PublicationLevel.WARNING, "Stop reading file: cancelled at line " + command.getLineNumber());
+        }
+
+        private void publishStopReading(IScriptCommand command, int commandReturnStatus) {
+            publishChunk(IJssController.PublicationLevel.WARNING, "Stop reading file due to internal command file error: command \"" + command.getCommand() + "\" at line " + command.getLineNumber() + " returned status code " + commandReturnStatus);
+        }
+
+        /**
+         * Execute a command of the file.
+         *
+         * @param command      the command to execute
+         * @param outputBuffer the buffer of the output of the command, or
+         *                     {@code null} to publish it directly
+         *
+         * @return the return status of the command.
+         */
+        private int executeCommand(IScriptCommand command, ShellOutputBuffer outputBuffer) {
+            IJssController target = outputBuffer != null ? outputBuffer : shell;
+
+            // Add line to shell
+            if (!command.isMuted()) {
+                target.addNewLineToShell(command.getCommand());
+            }
+
+            String[] commandArgs = command.getArguments();
+            IJssAction action = dispatcher.resolve(commandArgs);
+
+            if (outputBuffer != null && (action == null || LazyJssAction.unwrap(action) instanceof AbstractThreadedJssAction)) {
+                // Unknown and asynchronous commands are not buffered
+                outputBuffer.flush();
+                target = shell;
+            }
+
+            if (action == null && publisher != null) {
+                // The shell controller publishes directly
+                publisher.flushAndWait();
+            }
+            return dispatcher.dispatch(target, command.getCommand(), commandArgs);
+        }
+
+        /**
+         * Read the commands of a parallel block up to its join directive, or
+         * the end of the file, and execute them in parallel.
+         *
+         * @param reader the reader positioned on the parallel directive
+         *
+         * @return the return status of the commands of the block.
+         *
+         * @throws IOException if an error occurs while reading the file
+         */
+        private int executeParallelBlock(AbstractCommandFileReader reader) throws IOException {
+            int blockLineNumber = reader.getLineNumber();
+
+            final List<ScriptCommand> commands = new ArrayList<>();
+            while (reader.next()) {
+                if (isDirective(reader, JOIN_KEYWORD)) {
+                    break;
+                }
+                commands.add(new ScriptCommand(reader.getLineNumber(), reader.isMuted(), reader.getCommand(), reader.getArguments()));
+            }
+
+            int blockSize = commands.size();
+            if (blockSize == 0) {
+                return AbstractThreadedJssAction.SUCCESS;
+            }
+
+            // Unknown and threaded commands would publish straight to the shell
+            for (ScriptCommand command : commands) {
+                IJssAction action = dispatcher.resolve(command.getArguments());
+                if (action == null || LazyJssAction.unwrap(action) instanceof AbstractThreadedJssAction) {
+                    publishChunk(IJssController.PublicationLevel.ERROR, "Command \"" + command.getCommand() + "\" at line " + command.getLineNumber()
+                            + (action == null ? " not found" : " is threaded and cannot be executed") + " in parallel block at line " + blockLineNumber);
+                    return AbstractThreadedJssAction.ERROR;
+                }
+            }
+
+            final ShellOutputBuffer[] outputBuffers = new ShellOutputBuffer[blockSize];
+            // Cancellations of the running commands, guarded by themselves
+            final Cancellation[] cancellations = new Cancellation[blockSize];
+            final boolean[] blockStopped = {false};
+            List<Future<Integer>> futures = new ArrayList<>(blockSize);
+            Map<Future<Integer>, Integer> futureIndexes = new IdentityHashMap<>(blockSize);
+            CompletionService<Integer> completionService = new ExecutorCompletionService<>(ParallelExecutorHolder.EXECUTOR);
+            for (int i = 0; i < blockSize; i++) {
+                final int index = i;
+                Future<Integer> future = completionService.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        Cancellation cancellation = Cancellation.open(null);
+                        try {
+                            synchronized (cancellations) {
+                                if (blockStopped[0]) {
+                                    // Not started once the block is stopped
+                                    return AbstractThreadedJssAction.ERROR;
+                                }
+                                cancellations[index] = cancellation;
+                            }
+                            // The buffer has to be created by the thread executing the command
+                            ShellOutputBuffer outputBuffer = new ShellOutputBuffer(shell);
+                            outputBuffers[index] = outputBuffer;
+                            return executeCommand(commands.get(index), outputBuffer);
+                        } finally {
+                            cancellation.close();
+                        }
+                    }
+                });
+                futures.add(future);
+                futureIndexes.put(future, i);
+            }
+
+            // Wait for all commands, or the first one in error
+            int blockCommandReturnStatus = AbstractThreadedJssAction.SUCCESS;
+            ScriptCommand failedCommand = null;
+            int failedCommandReturnStatus = AbstractThreadedJssAction.SUCCESS;
+            try {
+                for (int i = 0; i < blockSize && failedCommand == null; i++) {
+                    Future<Integer> future = completionService.take();
+
+                    int commandReturnStatus;
+                    try {
+                        commandReturnStatus = future.get();
+                    } catch (ExecutionException e) {
+                        LOGGER.log(Level.SEVERE, "Error occured while executing command in parallel block.", e.getCause());
+                        commandReturnStatus = AbstractThreadedJssAction.ERROR;
+                    }
+
+                    blockCommandReturnStatus |= commandReturnStatus;
+                    if (AbstractThreadedJssAction.SUCCESS != commandReturnStatus) {
+                        failedCommand = commands.get(futureIndexes.get(future));
+                        failedCommandReturnStatus = commandReturnStatus;
+                    }
+                }
+            } catch (InterruptedException e) {
+                LOGGER.log(Level.WARNING, "Parallel block interrupted.", e);
+                publishChunk(IJssController.PublicationLevel.WARNING, "Parallel block at line " + blockLineNumber + " interrupted");
+                blockCommandReturnStatus |= AbstractThreadedJssAction.ERROR;
+                Thread.currentThread().interrupt();
+            } finally {
+                // Cancel the commands still running, and keep the others from starting
+                synchronized (cancellations) {
+                    blockStopped[0] = true;
+                    for (Cancellation cancellation : cancellations) {
+                        if (cancellation != null) {
+                            cancellation.cancel();
+                        }
+                    }
+                }
+                awaitAll(futures);
+            }
+
+            // Display the output of the commands, in the file order
+            for (ShellOutputBuffer outputBuffer : outputBuffers) {
+                if (outputBuffer != null) {
+                    outputBuffer.flush();
+                }
+            }
+
+            if (failedCommand != null) {
+                publishStopReading(failedCommand, failedCommandReturnStatus);
+            }
+
+            return blockCommandReturnStatus;
+        }
+
+        /**
+         * Wait for the commands of a parallel block to return, even if the
+         * current thread is interrupted.
+         *
+         * @param futures the futures of the commands
+         */
+        private void awaitAll(List<Future<Integer>> futures) {
+            boolean interrupted = false;
+            for (Future<Integer> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        // The block is stopped already
+                        LOGGER.log(Level.FINE, "Error occured while executing command in stopped parallel block.", e.getCause());
+                        break;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
     }
 }
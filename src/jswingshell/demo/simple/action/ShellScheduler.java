@@ -0,0 +1,59 @@
+package jswingshell.demo.simple.action;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler shared by the actions which need to do something after a delay.
+ *
+ * <p>
+ * A single daemon thread is used for all scheduled tasks, so a pending task
+ * does not hold any thread. Scheduled tasks must therefore be short, and hand
+ * over any long work to another thread.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public final class ShellScheduler {
+
+    private ShellScheduler() {
+    }
+
+    /**
+     * Scheduler, created on first use.
+     */
+    private static class SchedulerHolder {
+
+        private static final ScheduledThreadPoolExecutor SCHEDULER = createScheduler();
+
+        private static ScheduledThreadPoolExecutor createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "jss-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            // Do not keep cancelled tasks until their delay elapses
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+
+    }
+
+    /**
+     * Execute a task once the given delay has elapsed.
+     *
+     * @param task  the task to execute
+     * @param delay the delay before the execution of the task
+     * @param unit  the unit of the delay
+     *
+     * @return a future to cancel the task.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return SchedulerHolder.SCHEDULER.schedule(task, delay, unit);
+    }
+
+}
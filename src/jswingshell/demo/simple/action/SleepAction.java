@@ -9,6 +9,10 @@ import jswingshell.action.AbstractJssAction;
 /**
  * Action to put the current thread to sleep.
  *
+ * <p>
+ * The sleep ends early when its {@link Cancellation} is cancelled, or its
+ * thread interrupted.</p>
+ *
  * @author Mathieu Brunot
  */
 public class SleepAction extends AbstractJssAction {
@@ -29,19 +33,13 @@ public class SleepAction extends AbstractJssAction {
 
     private static final String COMMAND_BRIEF_HELP = "Puts the current thread to sleep.";
 
-    private static String commandHelp;
-
-    private static boolean commandHelpInitialized = false;
-
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
-     *
-     * @return the static command help.
+     * Builder of the static command help, cached in the {@link HelpCache}.
      */
-    public static final String getHelp(SleepAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final HelpCache.HelpBuilder<SleepAction> HELP_BUILDER = new HelpCache.HelpBuilder<SleepAction>() {
+
+        @Override
+        public String buildHelp(SleepAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -52,20 +50,31 @@ public class SleepAction extends AbstractJssAction {
             stringBuilder.append("\n").append("You can define the time for the sleep (in milliseconds) as follow:");
             stringBuilder.append("\n\t").append(commandIdsAsString).append(" [time] ");
 
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(SleepAction action) {
+        return HelpCache.getHelp(SleepAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(SleepAction.class);
     }
 
     // #########################################################################
@@ -127,9 +136,13 @@ public class SleepAction extends AbstractJssAction {
             try {
                 Thread.sleep(millis);
             } catch (InterruptedException ex) {
-                shellController.publish(IJssController.PublicationLevel.FATAL_ERROR, ex.getMessage());
-                LOGGER.log(Level.SEVERE, null, ex);
+                shellController.publish(IJssController.PublicationLevel.WARNING, "Sleep cancelled");
+                LOGGER.log(Level.FINE, "Sleep cancelled.", ex);
                 commandReturnStatus = AbstractJssAction.ERROR;
+                if (!Cancellation.isCurrentCancelled()) {
+                    // Let the owner of the thread know it was interrupted
+                    Thread.currentThread().interrupt();
+                }
             }
         } else {
             shellController.publish(IJssController.PublicationLevel.ERROR, "Sleep time cannot be negative: " + millis);
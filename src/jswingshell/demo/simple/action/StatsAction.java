@@ -0,0 +1,175 @@
+package jswingshell.demo.simple.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.metrics.CommandMetrics;
+import jswingshell.demo.simple.metrics.LatencyHistogram;
+
+/**
+ * Action to display the number of executions, errors and latencies of the
+ * commands.
+ *
+ * @author Mathieu Brunot
+ * @see CommandMetrics
+ */
+public class StatsAction extends AbstractJssAction {
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "stats";
+
+    /**
+     * Argument resetting the metrics instead of displaying them.
+     */
+    public static final String RESET_ARGUMENT = "reset";
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Displays the number of executions and the latencies of the commands.";
+
+    private static final String HEADER_FORMAT = "%-24s %10s %8s %10s %10s %10s %10s";
+
+    private static final String ROW_FORMAT = "%-24s %10d %8d %10.3f %10.3f %10.3f %10.3f";
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<StatsAction> HELP_BUILDER = new HelpCache.HelpBuilder<StatsAction>() {
+
+        @Override
+        public String buildHelp(StatsAction action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("Latencies are given in milliseconds. The workers of threaded commands are displayed on their own line.");
+            stringBuilder.append("\n\t").append(commandIdsAsString);
+            stringBuilder.append("\n").append("You can restrict the displayed commands as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [command] ...");
+            stringBuilder.append("\n").append("You can reset the statistics of all or some commands as follow:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" ").append(RESET_ARGUMENT).append(" [command] ...");
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(StatsAction action) {
+        return HelpCache.getHelp(StatsAction.class, action, HELP_BUILDER);
+    }
+
+    // #########################################################################
+    public StatsAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public StatsAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public StatsAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public StatsAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public StatsAction() {
+        super();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        if (shellController == null) {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (args != null && args.length > 1 && RESET_ARGUMENT.equals(args[1])) {
+            if (args.length == 2) {
+                CommandMetrics.resetAll();
+            } else {
+                for (CommandMetrics metrics : getMetrics(args, 2)) {
+                    metrics.reset();
+                }
+            }
+            shellController.publish(IJssController.PublicationLevel.SUCCESS, "Statistics reset.");
+        } else if (!CommandMetrics.isEnabled()) {
+            shellController.publish(IJssController.PublicationLevel.WARNING, "Statistics are disabled, see the " + CommandMetrics.ENABLED_PROPERTY + " system property.");
+        } else {
+            shellController.publish(IJssController.PublicationLevel.SUCCESS, formatStats(getMetrics(args, 1)));
+        }
+
+        return commandReturnStatus;
+    }
+
+    // #########################################################################
+    private static List<CommandMetrics> getMetrics(String[] args, int firstCommand) {
+        if (args == null || args.length <= firstCommand) {
+            return CommandMetrics.getAll();
+        }
+        List<CommandMetrics> selectedMetrics = new ArrayList<>();
+        for (CommandMetrics metrics : CommandMetrics.getAll()) {
+            for (int i = firstCommand; i < args.length; i++) {
+                if (metrics.getCommand().equals(args[i])) {
+                    selectedMetrics.add(metrics);
+                    break;
+                }
+            }
+        }
+        return selectedMetrics;
+    }
+
+    private static String formatStats(List<CommandMetrics> allMetrics) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(String.format(Locale.ROOT, HEADER_FORMAT, "command", "count", "errors", "mean", "p50", "p99", "max"));
+        for (CommandMetrics metrics : allMetrics) {
+            appendRow(stringBuilder, metrics.getCommand(), metrics.getLatency(), metrics.getErrorCount());
+            if (metrics.getWorkerCount() > 0) {
+                appendRow(stringBuilder, metrics.getCommand() + " (worker)", metrics.getWorkerLatency(), metrics.getWorkerErrorCount());
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    private static void appendRow(StringBuilder stringBuilder, String name, LatencyHistogram latency, long errorCount) {
+        stringBuilder.append("\n").append(String.format(Locale.ROOT, ROW_FORMAT, name,
+                latency.getCount(), errorCount,
+                latency.getMean() / NANOS_PER_MILLI,
+                latency.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                latency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                latency.getMax() / NANOS_PER_MILLI));
+    }
+
+}
@@ -3,7 +3,10 @@ package jswingshell.demo.simple.action;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Icon;
@@ -33,19 +36,23 @@ public class TimeAction extends AbstractJssAction {
 
     private static final String COMMAND_BRIEF_HELP = "Displays the current time and date in the shell.";
 
-    private static String commandHelp;
+    /**
+     * Maximum number of date formats kept by {@link #DATE_FORMATS}.
+     */
+    private static final int DATE_FORMATS_CACHE_SIZE = 64;
 
-    private static boolean commandHelpInitialized = false;
+    /**
+     * Date formats already used, shared by all the time actions.
+     */
+    private static final DateFormatCache DATE_FORMATS = new DateFormatCache(DATE_FORMATS_CACHE_SIZE);
 
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
-     *
-     * @return the static command help.
+     * Builder of the static command help, cached in the {@link HelpCache}.
      */
-    public static final String getHelp(TimeAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final HelpCache.HelpBuilder<TimeAction> HELP_BUILDER = new HelpCache.HelpBuilder<TimeAction>() {
+
+        @Override
+        public String buildHelp(TimeAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -82,20 +89,31 @@ public class TimeAction extends AbstractJssAction {
             stringBuilder.append("\n");
             stringBuilder.append("\n").append("If no format and language are provided, the default date format and locale will be used.");
 
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(TimeAction action) {
+        return HelpCache.getHelp(TimeAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(TimeAction.class);
     }
 
     // #########################################################################
@@ -150,8 +168,7 @@ public class TimeAction extends AbstractJssAction {
                     // If format and locale are provided
                     case 5:
                         try {
-                            Locale displayLocale = new Locale(args[2], args[3], args[4]);
-                            dateFormat = new SimpleDateFormat(args[1], displayLocale);
+                            dateFormat = DATE_FORMATS.get(args[1], args[2], args[3], args[4]);
                         } catch (IllegalArgumentException e) {
                             shellController.publish(IJssController.PublicationLevel.SUCCESS, "Error occurred while parsing date/time format and language: " + e.getMessage());
                             LOGGER.log(Level.SEVERE, "Error occurred while parsing format {1} for language {2}, country {3} and variant {4}: " + e.getMessage(), args);
@@ -160,8 +177,7 @@ public class TimeAction extends AbstractJssAction {
                         break;
                     case 4:
                         try {
-                            Locale displayLocale = new Locale(args[2], args[3]);
-                            dateFormat = new SimpleDateFormat(args[1], displayLocale);
+                            dateFormat = DATE_FORMATS.get(args[1], args[2], args[3], "");
                         } catch (IllegalArgumentException e) {
                             shellController.publish(IJssController.PublicationLevel.SUCCESS, "Error occurred while parsing date/time format and language: " + e.getMessage());
                             LOGGER.log(Level.SEVERE, "Error occurred while parsing format {1} for language {2} and country {3}: " + e.getMessage(), args);
@@ -170,8 +186,7 @@ public class TimeAction extends AbstractJssAction {
                         break;
                     case 3:
                         try {
-                            Locale displayLocale = new Locale(args[2]);
-                            dateFormat = new SimpleDateFormat(args[1], displayLocale);
+                            dateFormat = DATE_FORMATS.get(args[1], args[2], "", "");
                         } catch (IllegalArgumentException e) {
                             shellController.publish(IJssController.PublicationLevel.SUCCESS, "Error occurred while parsing date/time format and language: " + e.getMessage());
                             LOGGER.log(Level.SEVERE, "Error occurred while parsing format {1} for language {2}: " + e.getMessage(), args);
@@ -182,7 +197,7 @@ public class TimeAction extends AbstractJssAction {
                     case 2:
                     default:
                         try {
-                            dateFormat = new SimpleDateFormat(args[1]);
+                            dateFormat = DATE_FORMATS.get(args[1], null, null, null);
                         } catch (IllegalArgumentException e) {
                             shellController.publish(IJssController.PublicationLevel.SUCCESS, "Error occurred while parsing format: " + e.getMessage());
                             LOGGER.log(Level.SEVERE, "Error occurred while parsing date/time format {1}: " + e.getMessage(), args);
@@ -192,12 +207,17 @@ public class TimeAction extends AbstractJssAction {
                 }
 
             } else {
-                dateFormat = SimpleDateFormat.getInstance();
+                dateFormat = DATE_FORMATS.get(null, null, null, null);
             }
 
             // If date format was properly defined
             if (dateFormat != null) {
-                shellController.publish(IJssController.PublicationLevel.SUCCESS, dateFormat.format(currentDate));
+                String formattedDate;
+                // Date formats are shared with other threads
+                synchronized (dateFormat) {
+                    formattedDate = dateFormat.format(currentDate);
+                }
+                shellController.publish(IJssController.PublicationLevel.SUCCESS, formattedDate);
             } else {
                 commandReturnStatus = AbstractJssAction.ERROR;
             }
@@ -206,4 +226,129 @@ public class TimeAction extends AbstractJssAction {
         return commandReturnStatus;
     }
 
+    // #########################################################################
+    /**
+     * Bounded cache of date formats, keyed by pattern and language.
+     *
+     * <p>
+     * Least recently used date formats are evicted first. Date formats are not
+     * thread-safe: they must be synchronized on while formatting.</p>
+     */
+    private static final class DateFormatCache {
+
+        private final Map<DateFormatKey, DateFormat> dateFormats;
+
+        DateFormatCache(final int maxSize) {
+            this.dateFormats = new LinkedHashMap<DateFormatKey, DateFormat>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<DateFormatKey, DateFormat> eldest) {
+                    return size() > maxSize;
+                }
+
+            };
+        }
+
+        /**
+         * Get the date format of the given pattern and language.
+         *
+         * @param pattern  the date/time pattern, or {@code null} for the
+         *                 default date format
+         * @param language the language, or {@code null} for the default locale
+         * @param country  the country
+         * @param variant  the variant
+         *
+         * @return the cached date format.
+         *
+         * @throws IllegalArgumentException if the pattern is invalid
+         */
+        DateFormat get(String pattern, String language, String country, String variant) {
+            Locale defaultLocale = language == null ? Locale.getDefault(Locale.Category.FORMAT) : null;
+            DateFormatKey key = new DateFormatKey(pattern, language, country, variant, defaultLocale);
+
+            DateFormat dateFormat;
+            synchronized (dateFormats) {
+                dateFormat = dateFormats.get(key);
+            }
+            if (dateFormat == null) {
+                if (pattern == null) {
+                    dateFormat = SimpleDateFormat.getInstance();
+                } else if (language == null) {
+                    dateFormat = new SimpleDateFormat(pattern);
+                } else {
+                    dateFormat = new SimpleDateFormat(pattern, new Locale(language, country, variant));
+                }
+                synchronized (dateFormats) {
+                    DateFormat cachedDateFormat = dateFormats.get(key);
+                    if (cachedDateFormat != null) {
+                        dateFormat = cachedDateFormat;
+                    } else {
+                        dateFormats.put(key, dateFormat);
+                    }
+                }
+            }
+            return dateFormat;
+        }
+
+    }
+
+    private static final class DateFormatKey {
+
+        private final String pattern;
+
+        private final String language;
+
+        private final String country;
+
+        private final String variant;
+
+        /**
+         * The default locale, when no language is given, since it can change.
+         */
+        private final Locale defaultLocale;
+
+        private final int hashCode;
+
+        DateFormatKey(String pattern, String language, String country, String variant, Locale defaultLocale) {
+            this.pattern = pattern;
+            this.language = language;
+            this.country = country;
+            this.variant = variant;
+            this.defaultLocale = defaultLocale;
+
+            int hash = 7;
+            hash = 31 * hash + (pattern != null ? pattern.hashCode() : 0);
+            hash = 31 * hash + (language != null ? language.hashCode() : 0);
+            hash = 31 * hash + (country != null ? country.hashCode() : 0);
+            hash = 31 * hash + (variant != null ? variant.hashCode() : 0);
+            hash = 31 * hash + (defaultLocale != null ? defaultLocale.hashCode() : 0);
+            this.hashCode = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final DateFormatKey other = (DateFormatKey) obj;
+            return hashCode == other.hashCode
+                    && Objects.equals(pattern, other.pattern)
+                    && Objects.equals(language, other.language)
+                    && Objects.equals(country, other.country)
+                    && Objects.equals(variant, other.variant)
+                    && Objects.equals(defaultLocale, other.defaultLocale);
+        }
+
+    }
+
 }
@@ -0,0 +1,155 @@
+package jswingshell.demo.simple.action;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Icon;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.metrics.CommandMetrics;
+import jswingshell.demo.simple.script.CommandTokenizer;
+
+/**
+ * Action to run a command with a time limit.
+ *
+ * <p>
+ * Once the time is up, the command is cancelled along with the workers it
+ * started, even if it already returned.</p>
+ *
+ * @author Mathieu Brunot
+ * @see Cancellation
+ */
+public class TimeoutAction extends AbstractJssAction {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TimeoutAction.class.getName());
+
+    /**
+     * This action default identifier.
+     */
+    public static final String DEFAULT_IDENTIFIER = "timeout";
+
+    private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
+
+    private static final String COMMAND_BRIEF_HELP = "Runs a command with a time limit.";
+
+    /**
+     * Builder of the static command help, cached in the {@link HelpCache}.
+     */
+    private static final HelpCache.HelpBuilder<TimeoutAction> HELP_BUILDER = new HelpCache.HelpBuilder<TimeoutAction>() {
+
+        @Override
+        public String buildHelp(TimeoutAction action) {
+            StringBuilder stringBuilder = new StringBuilder();
+
+            String commandIdsAsString = action.getCommandIdentifiersAsString();
+            stringBuilder.append(action.getBriefHelp());
+            stringBuilder.append("\n");
+            stringBuilder.append("\n").append("The command is cancelled once the time (in milliseconds) is up, along with the threads it started:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" [time] [command] [arguments] ...");
+            stringBuilder.append("\n").append("For example:");
+            stringBuilder.append("\n\t").append(commandIdsAsString).append(" 500 sleep 5000");
+
+            return stringBuilder.toString();
+        }
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(TimeoutAction action) {
+        return HelpCache.getHelp(TimeoutAction.class, action, HELP_BUILDER);
+    }
+
+    // #########################################################################
+    public TimeoutAction(String name, Icon icon, IJssController shellController, String... args) {
+        super(name, icon, shellController, args);
+    }
+
+    public TimeoutAction(String name, IJssController shellController, String... args) {
+        super(name, shellController, args);
+    }
+
+    public TimeoutAction(IJssController shellController, String... args) {
+        super(shellController, args);
+    }
+
+    public TimeoutAction(IJssController shellController) {
+        super(shellController);
+    }
+
+    public TimeoutAction() {
+        super();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] getCommandIdentifiers() {
+        return IDENTIFIERS;
+    }
+
+    @Override
+    public String getBriefHelp() {
+        return COMMAND_BRIEF_HELP;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+        return getHelp(this);
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        if (shellController == null) {
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else if (args == null || args.length < 3) {
+            shellController.publish(IJssController.PublicationLevel.WARNING, getHelp(shellController));
+            commandReturnStatus = AbstractJssAction.ERROR;
+        } else {
+            long millis;
+            try {
+                millis = Long.parseLong(args[1]);
+            } catch (NumberFormatException e) {
+                shellController.publish(IJssController.PublicationLevel.ERROR, "Invalid number format: " + args[1] + " (" + e.getMessage() + ")");
+                LOGGER.log(Level.WARNING, "Invalid number format: " + args[1], e);
+                return AbstractJssAction.ERROR;
+            }
+
+            String[] commandArgs = Arrays.copyOfRange(args, 2, args.length);
+            IJssAction action = shellController.getActionForCommandIdentifier(commandArgs[0]);
+            if (millis < 0) {
+                shellController.publish(IJssController.PublicationLevel.ERROR, "Time limit cannot be negative: " + millis);
+                commandReturnStatus = AbstractJssAction.ERROR;
+            } else if (action == null) {
+                shellController.publish(IJssController.PublicationLevel.ERROR, "Command not found: " + commandArgs[0]);
+                commandReturnStatus = AbstractJssAction.ERROR;
+            } else {
+                Cancellation cancellation = Cancellation.open(shellController);
+                try {
+                    cancellation.setTimeout(millis, TimeUnit.MILLISECONDS);
+                    commandReturnStatus = CommandMetrics.run(action, shellController, commandArgs);
+                } finally {
+                    cancellation.close();
+                }
+                if (cancellation.isCancelled()) {
+                    shellController.publish(IJssController.PublicationLevel.WARNING, "Command timed out after " + millis + " ms: " + CommandTokenizer.join(commandArgs));
+                    commandReturnStatus = AbstractJssAction.ERROR;
+                }
+            }
+        }
+
+        return commandReturnStatus;
+    }
+
+}
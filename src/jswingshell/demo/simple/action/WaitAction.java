@@ -1,19 +1,24 @@
 package jswingshell.demo.simple.action;
 
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Icon;
+import javax.swing.SwingUtilities;
 import jswingshell.IJssController;
 import jswingshell.action.AbstractThreadedJssAction;
 import jswingshell.action.AbstractThreadedJssAction.AbstractJssActionWorker;
-import jswingshell.action.AbstractThreadedJssAction.JssActionWorkerChunk;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.metrics.CommandMetrics;
 
 /**
  * Action to put the current shell to sleep.
  *
  * @author Mathieu Brunot
  */
-public class WaitAction extends AbstractThreadedJssAction {
+public class WaitAction extends AbstractBackedThreadedJssAction {
 
     /**
      * Logger.
@@ -27,23 +32,23 @@ public class WaitAction extends AbstractThreadedJssAction {
      */
     public static final String DEFAULT_IDENTIFIER = "wait";
 
+    /**
+     * System property defining whether waits are scheduled by default instead
+     * of sleeping in a worker.
+     */
+    public static final String SCHEDULED_PROPERTY = "jswingshell.demo.wait.scheduled";
+
     private static final String[] IDENTIFIERS = {DEFAULT_IDENTIFIER};
 
     private static final String COMMAND_BRIEF_HELP = "Wait for a given time in a separate thread.";
 
-    private static String commandHelp;
-
-    private static boolean commandHelpInitialized = false;
-
     /**
-     * Construct the static command help.
-     *
-     * @param action the action reference
-     *
-     * @return the static command help.
+     * Builder of the static command help, cached in the {@link HelpCache}.
      */
-    public static final String getHelp(WaitAction action) {
-        if (!commandHelpInitialized && action != null) {
+    private static final HelpCache.HelpBuilder<WaitAction> HELP_BUILDER = new HelpCache.HelpBuilder<WaitAction>() {
+
+        @Override
+        public String buildHelp(WaitAction action) {
             StringBuilder stringBuilder = new StringBuilder();
 
             String commandIdsAsString = action.getCommandIdentifiersAsString();
@@ -56,22 +61,36 @@ public class WaitAction extends AbstractThreadedJssAction {
             stringBuilder.append("\n").append("This action is suited for manual use since it will wait a given time without blocking the current thread.");
             stringBuilder.append("\n").append("This action should not be called outside of the EDT.");
 
-            commandHelp = stringBuilder.toString();
-            commandHelpInitialized = true;
+            return stringBuilder.toString();
         }
-        return commandHelp;
+
+    };
+
+    /**
+     * Construct the static command help.
+     *
+     * @param action the action reference
+     *
+     * @return the static command help.
+     */
+    public static final String getHelp(WaitAction action) {
+        return HelpCache.getHelp(WaitAction.class, action, HELP_BUILDER);
     }
-    
+
     /**
      * Reset the static help to force reconstruction on next call.
-     * 
+     *
      * @since 1.4
+     * @deprecated use {@link HelpCache#invalidate(java.lang.Class)}
      */
+    @Deprecated
     public static final void resetHelp() {
-        commandHelpInitialized = false;
-        commandHelp = null;
+        HelpCache.invalidate(WaitAction.class);
     }
 
+    // #########################################################################
+    private boolean scheduled = Boolean.getBoolean(SCHEDULED_PROPERTY);
+
     // #########################################################################
     public WaitAction(String name, Icon icon, IJssController shellController, String... args) {
         super(name, icon, shellController, args);
@@ -109,10 +128,66 @@ public class WaitAction extends AbstractThreadedJssAction {
         return getHelp(this);
     }
 
+    /**
+     * Whether waits are scheduled instead of sleeping in a worker.
+     *
+     * @return {@code true} if waits are scheduled.
+     */
+    public boolean isScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Define whether waits are scheduled instead of sleeping in a worker.
+     *
+     * <p>
+     * A scheduled wait locks the command line and unlocks it from the
+     * {@link ShellScheduler} once the time is up: no thread is held while
+     * waiting. Like a worker, a scheduled wait is registered with the
+     * {@link Cancellation} of its command: cancelling it unlocks the command
+     * line right away.</p>
+     *
+     * <p>
+     * Waits of {@link HeadlessShellController headless shells} and queued
+     * waits are never scheduled.</p>
+     *
+     * @param scheduled {@code true} to schedule waits
+     */
+    public void setScheduled(boolean scheduled) {
+        this.scheduled = scheduled;
+    }
+
     @Override
-    protected AbstractJssActionWorker prepareWorker(IJssController shellController, String... args) {
-        SleepWorker worker = null;
+    public int run(IJssController shellController, String... args) {
+        if (!isScheduled() || JobManager.isQueueMode(shellController) || HeadlessShellController.isHeadless(shellController)) {
+            // Queued waits delay the next jobs instead of the command line, headless waits their caller
+            return super.run(shellController, args);
+        }
+
+        int commandReturnStatus = AbstractThreadedJssAction.SUCCESS;
+
+        final long millis = getWaitTime(shellController, args);
+        if (shellController == null) {
+            commandReturnStatus = AbstractThreadedJssAction.ERROR;
+        } else if (millis >= 0l) {
+            CommandMetrics metrics = null;
+            if (CommandMetrics.isEnabled()) {
+                metrics = CommandMetrics.get(this, args != null && args.length > 0 ? args[0] : null);
+            }
+            ScheduledWait wait = new ScheduledWait(shellController, metrics);
+            Cancellation.addWorker(shellController, wait, true);
+            shellController.lockCommandLine();
+            wait.schedule(millis);
+        } else {
+            shellController.publish(IJssController.PublicationLevel.ERROR, "Wait time cannot be negative: " + millis);
+            LOGGER.log(Level.SEVERE, "Wait time cannot be negative: {0}", millis);
+            commandReturnStatus = AbstractThreadedJssAction.ERROR;
+        }
+
+        return commandReturnStatus;
+    }
 
+    private long getWaitTime(IJssController shellController, String... args) {
         // Sleep default value
         long sleepTime = 1000;
         // Extract time from parameters
@@ -120,12 +195,20 @@ public class WaitAction extends AbstractThreadedJssAction {
             try {
                 sleepTime = Long.valueOf(args[1]);
             } catch (NumberFormatException e) {
-                shellController.publish(IJssController.PublicationLevel.WARNING, "Invalid number format: " + args[1] + " (" + e.getMessage() + ")");
+                if (shellController != null) {
+                    shellController.publish(IJssController.PublicationLevel.WARNING, "Invalid number format: " + args[1] + " (" + e.getMessage() + ")");
+                }
                 LOGGER.log(Level.WARNING, "Invalid number format: " + args[1], e);
             }
         }
+        return sleepTime;
+    }
+
+    @Override
+    protected AbstractJssActionWorker prepareWorker(IJssController shellController, String... args) {
+        SleepWorker worker = null;
 
-        final long millis = sleepTime;
+        final long millis = getWaitTime(shellController, args);
         if (millis >= 0l) {
             worker = new SleepWorker(shellController, millis);
         } else {
@@ -137,7 +220,74 @@ public class WaitAction extends AbstractThreadedJssAction {
     }
 
     // #########################################################################
-    protected class SleepWorker extends AbstractJssActionWorker {
+    /**
+     * Wait scheduled by the {@link ShellScheduler}, unlocking the command line
+     * once the time is up or the wait is cancelled.
+     */
+    private static final class ScheduledWait extends FutureTask<Integer> {
+
+        private static final Runnable NOTHING = new Runnable() {
+            @Override
+            public void run() {
+                // The wait is over once the task runs
+            }
+        };
+
+        private final IJssController shellController;
+
+        private final CommandMetrics metrics;
+
+        private final long start = System.nanoTime();
+
+        private volatile ScheduledFuture<?> scheduledFuture;
+
+        ScheduledWait(IJssController shellController, CommandMetrics metrics) {
+            super(NOTHING, AbstractThreadedJssAction.SUCCESS);
+            this.shellController = shellController;
+            this.metrics = metrics;
+        }
+
+        void schedule(long millis) {
+            ScheduledFuture<?> future = ShellScheduler.schedule(this, millis, TimeUnit.MILLISECONDS);
+            scheduledFuture = future;
+            if (isCancelled()) {
+                // Cancelled before being scheduled
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            ScheduledFuture<?> future = scheduledFuture;
+            if (cancelled && future != null) {
+                // Do not keep the task until its delay elapses
+                future.cancel(false);
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            final boolean cancelled = isCancelled();
+            if (metrics != null) {
+                metrics.recordWorker(System.nanoTime() - start, cancelled ? AbstractThreadedJssAction.ERROR : AbstractThreadedJssAction.SUCCESS);
+            }
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (cancelled) {
+                        shellController.publish(IJssController.PublicationLevel.WARNING, "Wait cancelled.");
+                    }
+                    shellController.unlockCommandLine();
+                }
+            });
+        }
+
+    }
+
+    // #########################################################################
+    protected class SleepWorker extends AbstractBackedJssActionWorker {
 
         final long millis;
 
@@ -150,11 +300,11 @@ public class WaitAction extends AbstractThreadedJssAction {
         protected Integer doInBackground() throws Exception {
             int workerCommandReturnStatus = AbstractThreadedJssAction.SUCCESS;
 
-            getShellController().lockCommandLine();
+            lockCommandLine(getShellController());
             try {
                 Thread.sleep(millis);
             } catch (InterruptedException ex) {
-                this.publish(WaitAction.this.new JssActionWorkerChunk(IJssController.PublicationLevel.WARNING, ex.getMessage()));
+                publishChunk(IJssController.PublicationLevel.WARNING, ex.getMessage());
                 LOGGER.log(Level.WARNING, "Wait action interrupted.", ex);
                 workerCommandReturnStatus = AbstractThreadedJssAction.ERROR;
             }
@@ -0,0 +1,157 @@
+package jswingshell.demo.simple.action;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingWorker;
+
+/**
+ * Backends executing the workers of threaded actions.
+ *
+ * <p>
+ * Whatever the backend, workers keep publishing their chunks and are done in
+ * the Event Dispatch Thread.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public enum WorkerBackend {
+
+    /**
+     * Workers are executed by the shared {@link SwingWorker} thread pool, which
+     * is limited to 10 threads.
+     */
+    SWING_WORKER {
+
+        @Override
+        public void execute(SwingWorker<?, ?> worker) {
+            worker.execute();
+        }
+
+    },
+    /**
+     * Workers are executed by the thread running the action, which waits for
+     * them: threaded actions run synchronously.
+     *
+     * <p>
+     * Meant for headless shells, where commands run one after the other.</p>
+     */
+    DIRECT {
+
+        @Override
+        public void execute(SwingWorker<?, ?> worker) {
+            worker.run();
+        }
+
+    },
+    /**
+     * Each worker is executed by its own virtual thread.
+     *
+     * <p>
+     * If virtual threads are not available in the running JVM, workers are
+     * executed by an unbounded pool of daemon threads.</p>
+     */
+    VIRTUAL_THREAD {
+
+        @Override
+        public void execute(SwingWorker<?, ?> worker) {
+            VirtualThreadExecutorHolder.EXECUTOR.execute(worker);
+        }
+
+    };
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(WorkerBackend.class.getName());
+
+    /**
+     * System property defining the default backend of threaded actions.
+     */
+    public static final String DEFAULT_BACKEND_PROPERTY = "jswingshell.demo.worker.backend";
+
+    private static volatile WorkerBackend defaultBackend = valueOfProperty(System.getProperty(DEFAULT_BACKEND_PROPERTY));
+
+    private static WorkerBackend valueOfProperty(String value) {
+        if (value != null) {
+            try {
+                return WorkerBackend.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Invalid worker backend: " + value, e);
+            }
+        }
+        return SWING_WORKER;
+    }
+
+    /**
+     * The backend of threaded actions which do not define their own.
+     *
+     * @return the default backend.
+     */
+    public static WorkerBackend getDefault() {
+        return defaultBackend;
+    }
+
+    /**
+     * Define the backend of threaded actions which do not define their own.
+     *
+     * @param backend the default backend, {@link #SWING_WORKER} if
+     *                {@code null}
+     */
+    public static void setDefault(WorkerBackend backend) {
+        defaultBackend = backend != null ? backend : SWING_WORKER;
+    }
+
+    /**
+     * The executor of the {@link #VIRTUAL_THREAD} backend, running each task in
+     * its own virtual thread, or in a daemon thread if virtual threads are not
+     * available.
+     *
+     * @return the executor of the virtual threads backend.
+     */
+    public static Executor getVirtualThreadExecutor() {
+        return VirtualThreadExecutorHolder.EXECUTOR;
+    }
+
+    // #########################################################################
+    /**
+     * Schedule the execution of a worker.
+     *
+     * @param worker the worker to execute
+     */
+    public abstract void execute(SwingWorker<?, ?> worker);
+
+    // #########################################################################
+    /**
+     * Executor of the {@link #VIRTUAL_THREAD} backend, created on first use.
+     */
+    private static class VirtualThreadExecutorHolder {
+
+        private static final Executor EXECUTOR = createExecutor();
+
+        private static Executor createExecutor() {
+            try {
+                // Executors#newVirtualThreadPerTaskExecutor is only available since Java 21
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                LOGGER.log(Level.CONFIG, "Virtual threads are not available, workers will be executed by daemon threads.", e);
+                return Executors.newCachedThreadPool(new ThreadFactory() {
+
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "jss-worker-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+        }
+
+    }
+
+}
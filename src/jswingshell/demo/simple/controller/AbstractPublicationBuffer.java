@@ -0,0 +1,181 @@
+package jswingshell.demo.simple.controller;
+
+import jswingshell.IJssController;
+
+/**
+ * Shell controller holding back the output published to another shell
+ * controller.
+ *
+ * <p>
+ * Messages published and lines added to the shell are held while
+ * {@link #isHolding()}, and later sent to the shell controller by the
+ * implementation, which {@link #merge(java.lang.Object, java.lang.CharSequence, int, int)
+ * merges} consecutive messages of the same
+ * {@link IJssController.PublicationLevel} into a single publication.</p>
+ *
+ * <p>
+ * Held entries are {@link #release() released} before any other call which
+ * may reach the shell, which keeps the output order, and
+ * {@link #discard() discarded} when the shell is cleared. Other calls are
+ * forwarded to the shell controller.</p>
+ *
+ * <p>
+ * The buffer is also a {@link TextPublisher}: the messages published through
+ * {@link TextPublishers} are held without any intermediate string, as far as
+ * the implementation allows.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public abstract class AbstractPublicationBuffer extends ShellControllerDecorator implements TextPublisher {
+
+    /**
+     * Marker of the lines added to the shell in the held entries.
+     */
+    protected static final Object NEW_LINE = new Object();
+
+    // Only used by the thread sending the held entries
+    private final StringBuilder mergedMessage = new StringBuilder();
+
+    private Object mergedLevel = NEW_LINE;
+
+    private boolean firstMessage = true;
+
+    protected AbstractPublicationBuffer(IJssController shellController) {
+        super(shellController);
+    }
+
+    // #########################################################################
+    /**
+     * Are the calls of the current thread held?
+     *
+     * @return {@code true} if messages published by the current thread are
+     *         held.
+     */
+    protected abstract boolean isHolding();
+
+    /**
+     * Hold a message, or a line added to the shell.
+     *
+     * @param level   the publication level of the message, or
+     *                {@link #NEW_LINE}
+     * @param message the message, which may be reused once this method
+     *                returns
+     */
+    protected abstract void hold(Object level, CharSequence message);
+
+    /**
+     * Send the held entries to the shell controller, before a call of the
+     * current thread which may reach the shell.
+     */
+    protected abstract void release();
+
+    /**
+     * Forget the held entries, before the shell is cleared.
+     */
+    protected abstract void discard();
+
+    // #########################################################################
+    /**
+     * Send a held entry to the shell controller, merged with the previous
+     * messages of the same publication level.
+     *
+     * <p>
+     * Merged messages are only published by {@link #endMerge()} or by the
+     * next entry of another publication level.</p>
+     *
+     * @param level   the publication level of the entry, or {@link #NEW_LINE}
+     * @param message the text containing the message, {@code null} if the
+     *                message is {@code null}
+     * @param start   the start of the message in the text
+     * @param end     the end of the message in the text
+     */
+    protected final void merge(Object level, CharSequence message, int start, int end) {
+        if (level != mergedLevel || level == NEW_LINE) {
+            publishMergedMessage();
+            mergedLevel = level;
+        }
+
+        if (level == NEW_LINE) {
+            getShellController().addNewLineToShell(message != null ? message.subSequence(start, end).toString() : null);
+        } else {
+            // Empty messages are merged too, as empty lines
+            if (!firstMessage) {
+                mergedMessage.append('\n');
+            }
+            firstMessage = false;
+            if (message != null) {
+                mergedMessage.append(message, start, end);
+            } else {
+                mergedMessage.append((String) null);
+            }
+        }
+    }
+
+    /**
+     * Publish the messages merged so far.
+     */
+    protected final void endMerge() {
+        publishMergedMessage();
+        mergedLevel = NEW_LINE;
+    }
+
+    private void publishMergedMessage() {
+        if (mergedLevel != NEW_LINE) {
+            TextPublishers.publish(getShellController(), (IJssController.PublicationLevel) mergedLevel, mergedMessage);
+        }
+        mergedMessage.setLength(0);
+        firstMessage = true;
+    }
+
+    // #########################################################################
+    @Override
+    public void publish(IJssController.PublicationLevel level, String message) {
+        publish(level, (CharSequence) message);
+    }
+
+    @Override
+    public void publish(IJssController.PublicationLevel level, CharSequence message) {
+        if (isHolding()) {
+            hold(level, message);
+        } else {
+            release();
+            TextPublishers.publish(getShellController(), level, message);
+        }
+    }
+
+    @Override
+    public void addNewLineToShell(String line) {
+        if (isHolding()) {
+            hold(NEW_LINE, line);
+        } else {
+            release();
+            super.addNewLineToShell(line);
+        }
+    }
+
+    @Override
+    public void clearShell() {
+        // No need to display what is going to be cleared
+        discard();
+        super.clearShell();
+    }
+
+    @Override
+    public int interpretCommand(String command) {
+        release();
+        return super.interpretCommand(command);
+    }
+
+    @Override
+    public boolean lockCommandLine() {
+        release();
+        return super.lockCommandLine();
+    }
+
+    @Override
+    public boolean unlockCommandLine() {
+        release();
+        return super.unlockCommandLine();
+    }
+
+}
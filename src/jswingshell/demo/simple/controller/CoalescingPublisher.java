@@ -0,0 +1,248 @@
+package jswingshell.demo.simple.controller;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import jswingshell.IJssController;
+import jswingshell.demo.simple.action.ShellScheduler;
+
+/**
+ * Publisher coalescing the output sent to a shell controller by background
+ * threads.
+ *
+ * <p>
+ * Messages published and lines added to the shell from threads other than the
+ * Event Dispatch Thread are queued, and sent to the shell controller from the
+ * Event Dispatch Thread at most once per {@link #getFlushDelay() flush delay}.
+ * Consecutive messages of the same {@link IJssController.PublicationLevel}
+ * are then merged into a single publication.</p>
+ *
+ * <p>
+ * The queue is bounded: when the Event Dispatch Thread falls behind,
+ * publishing threads wait for the queue to be flushed. Calls from the Event
+ * Dispatch Thread and all other calls are forwarded to the shell controller
+ * after the queue is flushed, which keeps the output order.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class CoalescingPublisher extends AbstractPublicationBuffer implements Closeable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CoalescingPublisher.class.getName());
+
+    /**
+     * System property defining the default delay between flushes, in
+     * milliseconds.
+     */
+    public static final String FLUSH_DELAY_PROPERTY = "jswingshell.demo.publisher.flushDelay";
+
+    /**
+     * Default delay between flushes, in milliseconds: about a frame.
+     */
+    public static final long DEFAULT_FLUSH_DELAY = Long.getLong(FLUSH_DELAY_PROPERTY, 16);
+
+    /**
+     * System property defining the default number of entries queued before
+     * publishing threads wait.
+     */
+    public static final String CAPACITY_PROPERTY = "jswingshell.demo.publisher.capacity";
+
+    /**
+     * Default number of entries queued before publishing threads wait.
+     */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger(CAPACITY_PROPERTY, 4096);
+
+    private final long flushDelay;
+
+    private final BlockingQueue<Entry> entries;
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Flush of the queue, run on the Event Dispatch Thread.
+     */
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled.set(false);
+            flush();
+        }
+    };
+
+    /**
+     * Hand over of the flush to the Event Dispatch Thread, run after the flush
+     * delay.
+     */
+    private final Runnable scheduledFlushTask = new Runnable() {
+        @Override
+        public void run() {
+            SwingUtilities.invokeLater(flushTask);
+        }
+    };
+
+    // Only used on the Event Dispatch Thread
+    private final List<Entry> drainedEntries = new ArrayList<>();
+
+    public CoalescingPublisher(IJssController shellController) {
+        this(shellController, DEFAULT_FLUSH_DELAY, DEFAULT_CAPACITY);
+    }
+
+    public CoalescingPublisher(IJssController shellController, long flushDelay, int capacity) {
+        super(shellController);
+        if (flushDelay < 0) {
+            throw new IllegalArgumentException("Flush delay cannot be negative");
+        }
+        this.flushDelay = flushDelay;
+        this.entries = new ArrayBlockingQueue<>(capacity);
+    }
+
+    // #########################################################################
+    /**
+     * Delay between the first queued entry and the flush of the queue.
+     *
+     * @return the flush delay, in milliseconds.
+     */
+    public long getFlushDelay() {
+        return flushDelay;
+    }
+
+    /**
+     * Number of entries waiting to be flushed.
+     *
+     * @return the number of queued entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Send all queued entries to the shell controller, and wait for it if not
+     * called from the Event Dispatch Thread.
+     */
+    public void flushAndWait() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            flush();
+        } else if (!entries.isEmpty()) {
+            try {
+                SwingUtilities.invokeAndWait(flushTask);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException e) {
+                LOGGER.log(Level.SEVERE, "Error occured while flushing published messages.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Send all queued entries to the shell controller and wait for it.
+     */
+    @Override
+    public void close() {
+        flushAndWait();
+    }
+
+    /**
+     * Send all queued entries to the shell controller, from the Event Dispatch
+     * Thread.
+     */
+    private void flush() {
+        entries.drainTo(drainedEntries);
+        if (drainedEntries.isEmpty()) {
+            return;
+        }
+
+        for (Entry entry : drainedEntries) {
+            merge(entry.level, entry.message, 0, entry.message != null ? entry.message.length() : 0);
+        }
+        endMerge();
+
+        drainedEntries.clear();
+    }
+
+    private void enqueue(Object level, String message) {
+        Entry entry = new Entry(level, message);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                scheduleFlush();
+                try {
+                    // Wait for the Event Dispatch Thread to catch up
+                    if (entries.offer(entry, flushDelay + 1, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (flushDelay > 0) {
+                ShellScheduler.schedule(scheduledFlushTask, flushDelay, TimeUnit.MILLISECONDS);
+            } else {
+                SwingUtilities.invokeLater(flushTask);
+            }
+        }
+    }
+
+    // #########################################################################
+    @Override
+    protected boolean isHolding() {
+        return !SwingUtilities.isEventDispatchThread();
+    }
+
+    @Override
+    protected void hold(Object level, CharSequence message) {
+        enqueue(level, message != null ? message.toString() : null);
+    }
+
+    @Override
+    protected void release() {
+        flushAndWait();
+    }
+
+    @Override
+    protected void discard() {
+        entries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "Coalescing " + getShellController();
+    }
+
+    // #########################################################################
+    private static final class Entry {
+
+        /**
+         * Publication level of the entry, or {@link #NEW_LINE}.
+         */
+        final Object level;
+
+        final String message;
+
+        Entry(Object level, String message) {
+            this.level = level;
+            this.message = message;
+        }
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package jswingshell.demo.simple.controller;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import jswingshell.AbstractJssController;
+import jswingshell.IJssController;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.metrics.CommandMetrics;
+
+/**
+ * Dispatcher of already split commands to the actions of a shell controller.
+ *
+ * <p>
+ * The action of each command identifier is only looked up once in the shell
+ * controller, and then directly run with the split command. A dispatcher is
+ * meant to be used for a limited time, like the execution of a shell file:
+ * actions added to or removed from the shell controller afterwards might be
+ * ignored.</p>
+ *
+ * <p>
+ * Commands whose action cannot be found are left to the shell controller,
+ * without adding them to its history.</p>
+ *
+ * <p>
+ * Dispatched commands are recorded in their {@link CommandMetrics}.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandDispatcher {
+
+    private final IJssController shellController;
+
+    private final ConcurrentMap<String, IJssAction> actions = new ConcurrentHashMap<>();
+
+    public CommandDispatcher(IJssController shellController) {
+        if (shellController == null) {
+            throw new IllegalArgumentException("Shell controller cannot be null");
+        }
+        this.shellController = shellController;
+    }
+
+    // #########################################################################
+    /**
+     * The shell controller whose actions are dispatched.
+     *
+     * @return the shell controller of this dispatcher.
+     */
+    public IJssController getShellController() {
+        return shellController;
+    }
+
+    /**
+     * Find the action of a split command.
+     *
+     * @param commandArgs the command identifier followed by its arguments
+     *
+     * @return the action of the command, or {@code null} if none was found.
+     */
+    public IJssAction resolve(String... commandArgs) {
+        if (commandArgs == null || commandArgs.length == 0 || commandArgs[0] == null) {
+            return null;
+        }
+
+        String commandIdentifier = commandArgs[0];
+        IJssAction action = actions.get(commandIdentifier);
+        if (action == null) {
+            action = shellController.getActionForCommandIdentifier(commandIdentifier);
+            if (action != null) {
+                actions.putIfAbsent(commandIdentifier, action);
+            }
+        }
+        return action;
+    }
+
+    /**
+     * Execute a command.
+     *
+     * @param target      the controller given to the action of the command
+     * @param command     the command
+     * @param commandArgs the command identifier followed by its arguments
+     *
+     * @return the return status of the command.
+     */
+    public int dispatch(IJssController target, String command, String... commandArgs) {
+        IJssAction action = resolve(commandArgs);
+        if (action == null) {
+            return interpret(command);
+        }
+        return CommandMetrics.run(action, target, commandArgs);
+    }
+
+    /**
+     * Let the shell controller interpret a command, without adding it to its
+     * history.
+     *
+     * @param command the command
+     *
+     * @return the return status of the command.
+     */
+    public int interpret(String command) {
+        if (shellController instanceof AbstractJssController) {
+            // Execute command without adding it to history
+            return ((AbstractJssController) shellController).interpretCommand(command, false);
+        } else {
+            return shellController.interpretCommand(command);
+        }
+    }
+
+}
@@ -0,0 +1,418 @@
+package jswingshell.demo.simple.controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import jswingshell.IJssController;
+import jswingshell.IJssModel;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.history.CommandHistory;
+import jswingshell.demo.simple.metrics.CommandMetrics;
+import jswingshell.demo.simple.script.CommandTokenizer;
+
+/**
+ * Shell controller without any view, reading its commands from a stream and
+ * writing its output to print streams.
+ *
+ * <p>
+ * Successful and informative messages are written to the output stream, other
+ * messages to the error stream, prefixed by their
+ * {@link IJssController.PublicationLevel}. Commands are split with the
+ * {@link CommandTokenizer}, like the commands of shell files, and recorded in
+ * their {@link CommandMetrics}.</p>
+ *
+ * <p>
+ * The controller is a {@link TextPublisher}: the messages published through
+ * {@link TextPublishers} are encoded to the streams without any intermediate
+ * string.</p>
+ *
+ * <p>
+ * The controller has no view: actions are added to its model, or with
+ * {@link #add(jswingshell.action.IJssAction)}, clearing the shell does nothing
+ * and its command line is never locked.</p>
+ *
+ * <p>
+ * Threaded actions run from a headless shell wait for their workers: a
+ * command returns once all its output was written.</p>
+ *
+ * <p>
+ * Commands read from an interactive console are recorded in the
+ * {@link #setHistory(jswingshell.demo.simple.history.CommandHistory) command
+ * history}, if any.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class HeadlessShellController implements IJssController, TextPublisher, VersionedActions {
+
+    /**
+     * Prompt written before reading commands from an interactive console.
+     */
+    public static final String PROMPT = "> ";
+
+    /**
+     * Prefixes of the messages written to the error stream, by publication
+     * level.
+     */
+    private static final String[] ERROR_PREFIXES;
+
+    static {
+        IJssController.PublicationLevel[] levels = IJssController.PublicationLevel.values();
+        ERROR_PREFIXES = new String[levels.length];
+        for (IJssController.PublicationLevel level : levels) {
+            ERROR_PREFIXES[level.ordinal()] = "[" + level.name() + "] ";
+        }
+    }
+
+    /**
+     * Is a shell controller headless, or a decorator standing for a headless
+     * controller?
+     *
+     * @param shellController a shell controller
+     *
+     * @return {@code true} if the shell controller is a
+     *         {@link HeadlessShellController}.
+     */
+    public static boolean isHeadless(IJssController shellController) {
+        return ShellControllerDecorator.unwrap(shellController) instanceof HeadlessShellController;
+    }
+
+    // #########################################################################
+    private final PrintStream out;
+
+    private final PrintStream err;
+
+    private final TextOutput outText;
+
+    private final TextOutput errText;
+
+    private final ConcurrentMap<String, IJssAction> actions = new ConcurrentHashMap<>();
+
+    private final List<IJssAction> availableActions = new CopyOnWriteArrayList<>();
+
+    private final IJssModel model = new HeadlessShellModel();
+
+    private final AtomicLong actionsVersion = new AtomicLong();
+
+    private volatile CommandHistory history;
+
+    public HeadlessShellController(PrintStream out, PrintStream err) {
+        this(out, err, Charset.defaultCharset());
+    }
+
+    /**
+     * Construct a headless shell controller.
+     *
+     * @param out     the stream of the successful messages
+     * @param err     the stream of the other messages
+     * @param charset the charset of the streams
+     */
+    public HeadlessShellController(PrintStream out, PrintStream err, Charset charset) {
+        if (out == null || err == null) {
+            throw new IllegalArgumentException("Output streams cannot be null");
+        }
+        if (charset == null) {
+            throw new IllegalArgumentException("Charset cannot be null");
+        }
+        this.out = out;
+        this.err = err;
+        this.outText = new TextOutput(out, charset);
+        this.errText = err == out ? outText : new TextOutput(err, charset);
+    }
+
+    // #########################################################################
+    /**
+     * The history recording the commands read from an interactive console.
+     *
+     * @return the command history of the shell, {@code null} if commands are
+     *         not recorded.
+     */
+    public CommandHistory getHistory() {
+        return history;
+    }
+
+    public void setHistory(CommandHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Add an action to the shell.
+     *
+     * @param action the action to add
+     *
+     * @return {@code true} if the action was added.
+     */
+    public boolean add(IJssAction action) {
+        if (action == null || availableActions.contains(action)) {
+            return false;
+        }
+        availableActions.add(action);
+        String[] commandIdentifiers = action.getCommandIdentifiers();
+        if (commandIdentifiers != null) {
+            for (String commandIdentifier : commandIdentifiers) {
+                if (commandIdentifier != null) {
+                    actions.put(commandIdentifier, action);
+                }
+            }
+        }
+        actionsVersion.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Remove an action from the shell.
+     *
+     * @param action the action to remove
+     *
+     * @return {@code true} if the action was removed.
+     */
+    public boolean remove(IJssAction action) {
+        if (action == null || !availableActions.remove(action)) {
+            return false;
+        }
+        String[] commandIdentifiers = action.getCommandIdentifiers();
+        if (commandIdentifiers != null) {
+            for (String commandIdentifier : commandIdentifiers) {
+                if (commandIdentifier != null) {
+                    actions.remove(commandIdentifier, action);
+                }
+            }
+        }
+        actionsVersion.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public IJssAction getActionForCommandIdentifier(String commandIdentifier) {
+        return commandIdentifier != null ? actions.get(commandIdentifier) : null;
+    }
+
+    @Override
+    public Collection<IJssAction> getAvailableActions() {
+        return Collections.unmodifiableList(new ArrayList<>(availableActions));
+    }
+
+    @Override
+    public long getActionsVersion() {
+        return actionsVersion.get();
+    }
+
+    @Override
+    public IJssModel getModel() {
+        return model;
+    }
+
+    /**
+     * A headless shell has no view.
+     *
+     * @return {@code null}.
+     */
+    @Override
+    public Object getView() {
+        return null;
+    }
+
+    // #########################################################################
+    /**
+     * Publish a message.
+     *
+     * <p>
+     * Successful and informative messages are written to the output stream,
+     * other messages to the error stream.</p>
+     *
+     * @param level   the publication level of the message
+     * @param message the message
+     */
+    @Override
+    public void publish(IJssController.PublicationLevel level, String message) {
+        if (isOutput(level)) {
+            out.println(message);
+        } else {
+            err.println(ERROR_PREFIXES[level.ordinal()] + message);
+        }
+    }
+
+    @Override
+    public void publish(IJssController.PublicationLevel level, CharSequence message) {
+        if (message == null || message instanceof String) {
+            publish(level, (String) message);
+        } else if (isOutput(level)) {
+            outText.println(null, message);
+        } else {
+            errText.println(ERROR_PREFIXES[level.ordinal()], message);
+        }
+    }
+
+    private static boolean isOutput(IJssController.PublicationLevel level) {
+        return level == null || level == IJssController.PublicationLevel.SUCCESS || level == IJssController.PublicationLevel.INFO;
+    }
+
+    /**
+     * Execute a command.
+     *
+     * @param command the command
+     *
+     * @return the return status of the command.
+     */
+    @Override
+    public int interpretCommand(String command) {
+        String[] commandArgs = CommandTokenizer.split(command);
+        if (commandArgs.length == 0) {
+            return AbstractJssAction.SUCCESS;
+        }
+
+        IJssAction action = getActionForCommandIdentifier(commandArgs[0]);
+        if (action == null) {
+            publish(IJssController.PublicationLevel.ERROR, "Command not found: " + commandArgs[0]);
+            return AbstractJssAction.ERROR;
+        }
+        return CommandMetrics.run(action, this, commandArgs);
+    }
+
+    /**
+     * Execute the commands read from a stream, one per line, until its end.
+     *
+     * @param reader      the reader of the commands
+     * @param interactive {@code true} to write a prompt before reading each
+     *                    command
+     *
+     * @return the return status of the last command.
+     *
+     * @throws IOException if the commands cannot be read
+     */
+    public int run(BufferedReader reader, boolean interactive) throws IOException {
+        int commandReturnStatus = AbstractJssAction.SUCCESS;
+
+        String command;
+        while (true) {
+            if (interactive) {
+                out.print(PROMPT);
+                out.flush();
+            }
+            command = reader.readLine();
+            if (command == null) {
+                break;
+            }
+            CommandHistory commandHistory = history;
+            if (interactive && commandHistory != null) {
+                commandHistory.add(command);
+            }
+            commandReturnStatus = interpretCommand(command);
+        }
+        out.flush();
+
+        return commandReturnStatus;
+    }
+
+    @Override
+    public void addNewLineToShell(String line) {
+        out.println(PROMPT + line);
+    }
+
+    /**
+     * Nothing to clear without a view.
+     */
+    @Override
+    public void clearShell() {
+        // No view to clear
+    }
+
+    /**
+     * The command line of a headless shell is never locked.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean lockCommandLine() {
+        return false;
+    }
+
+    /**
+     * The command line of a headless shell is never locked.
+     *
+     * @return {@code false}.
+     */
+    @Override
+    public boolean unlockCommandLine() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Headless shell controller";
+    }
+
+    // #########################################################################
+    /**
+     * Model of the headless shell, adding actions to the shell.
+     */
+    private final class HeadlessShellModel implements IJssModel {
+
+        @Override
+        public boolean add(IJssAction action) {
+            return HeadlessShellController.this.add(action);
+        }
+
+        @Override
+        public boolean remove(IJssAction action) {
+            return HeadlessShellController.this.remove(action);
+        }
+
+    }
+
+    // #########################################################################
+    /**
+     * Stream of the shell, writing character sequences without copying them
+     * to strings.
+     */
+    private static final class TextOutput {
+
+        private static final String LINE_SEPARATOR = System.lineSeparator();
+
+        private final PrintStream stream;
+
+        private final Writer writer;
+
+        // Guarded by the stream, like the stream itself
+        private final char[] chars = new char[256];
+
+        TextOutput(PrintStream stream, Charset charset) {
+            this.stream = stream;
+            this.writer = new OutputStreamWriter(stream, charset);
+        }
+
+        void println(String prefix, CharSequence message) {
+            synchronized (stream) {
+                try {
+                    if (prefix != null) {
+                        writer.write(prefix);
+                    }
+                    for (int start = 0, length = message.length(); start < length; start += chars.length) {
+                        int count = Math.min(chars.length, length - start);
+                        for (int i = 0; i < count; i++) {
+                            chars[i] = message.charAt(start + i);
+                        }
+                        writer.write(chars, 0, count);
+                    }
+                    writer.write(LINE_SEPARATOR);
+                    writer.flush();
+                } catch (IOException e) {
+                    // Print streams never throw, they record their errors
+                }
+            }
+        }
+
+    }
+
+}
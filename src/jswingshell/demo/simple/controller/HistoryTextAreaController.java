@@ -0,0 +1,163 @@
+package jswingshell.demo.simple.controller;
+
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.history.CommandHistory;
+import jswingshell.demo.simple.metrics.CommandMetrics;
+import jswingshell.demo.simple.script.CommandTokenizer;
+import jswingshell.gui.JssTextAreaController;
+
+/**
+ * Text area shell controller recording the typed commands in a persistent
+ * {@link CommandHistory}.
+ *
+ * <p>
+ * Only the commands added to the shell history are recorded: commands of shell
+ * files, executed without history, are not.</p>
+ *
+ * <p>
+ * Typed command lines are interpreted by the library, which keeps them in its
+ * own history, but the action it looks up for a line runs the action of the
+ * command recorded in its {@link CommandMetrics}. Lines with double quotes or
+ * backslashes are split by the {@link CommandTokenizer}, like the commands of
+ * shell files and headless shells, other lines, split the same way by the
+ * library, are run with its arguments.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class HistoryTextAreaController extends JssTextAreaController {
+
+    /**
+     * Command waiting for the library to look its action up, on the thread
+     * interpreting it.
+     */
+    private final ThreadLocal<DispatchedCommand> pendingCommand = new ThreadLocal<>();
+
+    private final CommandHistory history;
+
+    /**
+     * Construct a shell controller.
+     *
+     * @param welcomeMessage the message displayed when the shell starts
+     * @param history        the history recording the typed commands, none
+     *                       are recorded if {@code null}
+     */
+    public HistoryTextAreaController(String welcomeMessage, CommandHistory history) {
+        super(welcomeMessage);
+        this.history = history;
+    }
+
+    // #########################################################################
+    /**
+     * The history recording the typed commands.
+     *
+     * @return the command history of the shell, {@code null} if commands are
+     *         not recorded.
+     */
+    public CommandHistory getHistory() {
+        return history;
+    }
+
+    @Override
+    public int interpretCommand(String command) {
+        // Consecutive duplicates are ignored by the history, if this call ends up in the one below
+        if (history != null) {
+            history.add(command);
+        }
+        return super.interpretCommand(command);
+    }
+
+    @Override
+    public int interpretCommand(String command, boolean addToHistory) {
+        if (addToHistory && history != null) {
+            history.add(command);
+        }
+        String[] commandArgs = command != null ? CommandTokenizer.split(command) : null;
+        IJssAction action = commandArgs != null && commandArgs.length > 0 ? super.getActionForCommandIdentifier(commandArgs[0]) : null;
+        if (action != null) {
+            boolean tokenized = command.indexOf('"') >= 0 || command.indexOf('\\') >= 0;
+            // The library records the line, and runs the action returned below
+            pendingCommand.set(new DispatchedCommand(action, commandArgs[0], tokenized ? commandArgs : null));
+            try {
+                return super.interpretCommand(command, addToHistory);
+            } finally {
+                pendingCommand.remove();
+            }
+        }
+        // Unknown commands are reported by the library
+        return super.interpretCommand(command, addToHistory);
+    }
+
+    /**
+     * The action of a command identifier.
+     *
+     * @param commandIdentifier the command identifier
+     *
+     * @return the action running the command being interpreted, if the
+     *         identifier is the one of that command, the action of the
+     *         identifier otherwise.
+     */
+    @Override
+    public IJssAction getActionForCommandIdentifier(String commandIdentifier) {
+        DispatchedCommand command = pendingCommand.get();
+        if (command != null && commandIdentifier != null) {
+            String[] commandIdentifiers = CommandTokenizer.split(commandIdentifier);
+            if (commandIdentifiers.length > 0 && command.commandIdentifier.equals(commandIdentifiers[0])) {
+                pendingCommand.remove();
+                return command;
+            }
+        }
+        return super.getActionForCommandIdentifier(commandIdentifier);
+    }
+
+    // #########################################################################
+    /**
+     * Action running the action of a typed command, recorded in its metrics.
+     */
+    private static final class DispatchedCommand extends AbstractJssAction {
+
+        private final IJssAction action;
+
+        private final String commandIdentifier;
+
+        /**
+         * Arguments split by the tokenizer, {@code null} to run the action
+         * with the arguments split by the library.
+         */
+        private final String[] args;
+
+        DispatchedCommand(IJssAction action, String commandIdentifier, String[] args) {
+            this.action = action;
+            this.commandIdentifier = commandIdentifier;
+            this.args = args;
+        }
+
+        @Override
+        public String[] getCommandIdentifiers() {
+            return action.getCommandIdentifiers();
+        }
+
+        @Override
+        public String getBriefHelp() {
+            return action.getBriefHelp();
+        }
+
+        @Override
+        public String getHelp() {
+            return action.getHelp();
+        }
+
+        @Override
+        public String getHelp(IJssController shellController) {
+            return action.getHelp(shellController);
+        }
+
+        @Override
+        public int run(IJssController shellController, String... libraryArgs) {
+            return CommandMetrics.run(action, shellController, args != null ? args : libraryArgs);
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package jswingshell.demo.simple.controller;
+
+import java.util.Collection;
+import jswingshell.IJssController;
+import jswingshell.IJssModel;
+import jswingshell.action.IJssAction;
+
+/**
+ * Shell controller standing for another shell controller.
+ *
+ * <p>
+ * Every call is forwarded to the decorated shell controller: decorators only
+ * override the methods whose behaviour they change.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public abstract class ShellControllerDecorator implements IJssController {
+
+    /**
+     * The shell controller a controller stands for, through any number of
+     * decorators.
+     *
+     * <p>
+     * State attached to a shell, like its jobs, is attached to the controller
+     * returned by this method, whatever decorator an action was given.</p>
+     *
+     * @param shellController a shell controller
+     *
+     * @return the last shell controller the decorators stand for, or
+     *         {@code shellController} itself if it is not a decorator.
+     */
+    public static IJssController unwrap(IJssController shellController) {
+        IJssController underlyingController = shellController;
+        while (underlyingController instanceof ShellControllerDecorator) {
+            underlyingController = ((ShellControllerDecorator) underlyingController).getShellController();
+        }
+        return underlyingController;
+    }
+
+    // #########################################################################
+    private final IJssController shellController;
+
+    protected ShellControllerDecorator(IJssController shellController) {
+        if (shellController == null) {
+            throw new IllegalArgumentException("Shell controller cannot be null");
+        }
+        this.shellController = shellController;
+    }
+
+    // #########################################################################
+    /**
+     * The shell controller the decorator stands for.
+     *
+     * @return the decorated shell controller.
+     */
+    public IJssController getShellController() {
+        return shellController;
+    }
+
+    @Override
+    public IJssModel getModel() {
+        return shellController.getModel();
+    }
+
+    @Override
+    public Object getView() {
+        return shellController.getView();
+    }
+
+    @Override
+    public void clearShell() {
+        shellController.clearShell();
+    }
+
+    @Override
+    public int interpretCommand(String command) {
+        return shellController.interpretCommand(command);
+    }
+
+    @Override
+    public Collection<IJssAction> getAvailableActions() {
+        return shellController.getAvailableActions();
+    }
+
+    @Override
+    public IJssAction getActionForCommandIdentifier(String commandIdentifier) {
+        return shellController.getActionForCommandIdentifier(commandIdentifier);
+    }
+
+    @Override
+    public void publish(IJssController.PublicationLevel level, String message) {
+        shellController.publish(level, message);
+    }
+
+    @Override
+    public boolean lockCommandLine() {
+        return shellController.lockCommandLine();
+    }
+
+    @Override
+    public boolean unlockCommandLine() {
+        return shellController.unlockCommandLine();
+    }
+
+    @Override
+    public void addNewLineToShell(String line) {
+        shellController.addNewLineToShell(line);
+    }
+
+}
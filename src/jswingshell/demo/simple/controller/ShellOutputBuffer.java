@@ -0,0 +1,135 @@
+package jswingshell.demo.simple.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import jswingshell.IJssController;
+
+/**
+ * Buffer of the output published to a shell controller.
+ *
+ * <p>
+ * The buffer keeps every message published and every line added to the shell
+ * by the thread which created it, until {@link #flush()} is called.
+ * Consecutive messages of the same {@link IJssController.PublicationLevel}
+ * are then merged into a single publication to the shell.</p>
+ *
+ * <p>
+ * The buffer is also a {@link TextPublisher}: the messages published through
+ * {@link TextPublishers} are copied to the buffer, without any intermediate
+ * string.</p>
+ *
+ * <p>
+ * Calls made from other threads, like the ones of threaded actions workers,
+ * and all other calls are directly forwarded to the shell controller.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ShellOutputBuffer extends AbstractPublicationBuffer {
+
+    private final Thread owner;
+
+    /**
+     * Publication levels of the buffered entries, or {@link #NEW_LINE}.
+     */
+    private final List<Object> levels = new ArrayList<>();
+
+    /**
+     * Text of all the buffered entries, one after the other.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * End of each buffered entry in the {@link #text}.
+     */
+    private int[] ends = new int[16];
+
+    /**
+     * Buffered entries whose message is {@code null}.
+     */
+    private final BitSet nullMessages = new BitSet();
+
+    public ShellOutputBuffer(IJssController shellController) {
+        super(shellController);
+        this.owner = Thread.currentThread();
+    }
+
+    // #########################################################################
+    /**
+     * Number of entries waiting to be flushed.
+     *
+     * @return the number of buffered entries.
+     */
+    public int size() {
+        return levels.size();
+    }
+
+    /**
+     * Send all buffered entries to the shell controller.
+     */
+    public void flush() {
+        if (levels.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0, n = levels.size(); i < n; i++) {
+            int start = i > 0 ? ends[i - 1] : 0;
+            merge(levels.get(i), nullMessages.get(i) ? null : text, start, ends[i]);
+        }
+        endMerge();
+
+        clear();
+    }
+
+    private void add(Object level, CharSequence message) {
+        int index = levels.size();
+        if (index == ends.length) {
+            ends = Arrays.copyOf(ends, index * 2);
+        }
+        levels.add(level);
+        if (message != null) {
+            text.append(message);
+        } else {
+            nullMessages.set(index);
+        }
+        ends[index] = text.length();
+    }
+
+    private void clear() {
+        levels.clear();
+        text.setLength(0);
+        nullMessages.clear();
+    }
+
+    // #########################################################################
+    @Override
+    protected boolean isHolding() {
+        return Thread.currentThread() == owner;
+    }
+
+    @Override
+    protected void hold(Object level, CharSequence message) {
+        add(level, message);
+    }
+
+    @Override
+    protected void release() {
+        if (isHolding()) {
+            flush();
+        }
+    }
+
+    @Override
+    protected void discard() {
+        if (isHolding()) {
+            clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Buffered " + getShellController();
+    }
+
+}
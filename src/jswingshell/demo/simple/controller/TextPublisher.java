@@ -0,0 +1,30 @@
+package jswingshell.demo.simple.controller;
+
+import jswingshell.IJssController;
+
+/**
+ * Receiver of messages which do not need to be materialized as strings.
+ *
+ * <p>
+ * Shell controllers can implement it so that actions building their output in
+ * a reusable buffer publish it without copying it to a new string.</p>
+ *
+ * @author Mathieu Brunot
+ * @see TextPublishers#publish(jswingshell.IJssController,
+ * jswingshell.IJssController.PublicationLevel, java.lang.CharSequence)
+ */
+public interface TextPublisher {
+
+    /**
+     * Publish a message.
+     *
+     * <p>
+     * The message may be reused by the caller once this method returns:
+     * anything kept must be copied.</p>
+     *
+     * @param level   the publication level of the message
+     * @param message the message
+     */
+    void publish(IJssController.PublicationLevel level, CharSequence message);
+
+}
@@ -0,0 +1,50 @@
+package jswingshell.demo.simple.controller;
+
+import jswingshell.IJssController;
+
+/**
+ * Publication of messages to the {@link TextPublisher} of shell controllers.
+ *
+ * <p>
+ * The headless shell controller and the publication buffers are text
+ * publishers: publishing to them does not allocate anything. Other shell
+ * controllers are given a copy of the message.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public final class TextPublishers {
+
+    private TextPublishers() {
+    }
+
+    /**
+     * Publish a message to a shell controller, without copying it if the
+     * controller has a {@link TextPublisher}.
+     *
+     * @param shellController the shell controller
+     * @param level           the publication level of the message
+     * @param message         the message, which may be reused once this
+     *                        method returns
+     */
+    public static void publish(IJssController shellController, IJssController.PublicationLevel level, CharSequence message) {
+        TextPublisher textPublisher = getTextPublisher(shellController);
+        if (textPublisher != null) {
+            textPublisher.publish(level, message);
+        } else {
+            shellController.publish(level, message != null ? message.toString() : null);
+        }
+    }
+
+    /**
+     * The text publisher of a shell controller.
+     *
+     * @param shellController the shell controller
+     *
+     * @return the controller itself if it is a {@link TextPublisher},
+     *         {@code null} otherwise.
+     */
+    public static TextPublisher getTextPublisher(IJssController shellController) {
+        return shellController instanceof TextPublisher ? (TextPublisher) shellController : null;
+    }
+
+}
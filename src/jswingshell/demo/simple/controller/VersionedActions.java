@@ -0,0 +1,23 @@
+package jswingshell.demo.simple.controller;
+
+/**
+ * Shell controller counting the changes of its actions.
+ *
+ * <p>
+ * Shell controllers can implement it so that what is derived from their
+ * actions, like the index of the {@code help} command, is only rebuilt once
+ * actions were added or removed, without scanning them.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public interface VersionedActions {
+
+    /**
+     * Version of the actions of the shell.
+     *
+     * @return a number changing whenever an action is added to or removed from
+     *         the shell.
+     */
+    long getActionsVersion();
+
+}
@@ -0,0 +1,67 @@
+package jswingshell.demo.simple.gui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+import javax.swing.text.JTextComponent;
+import jswingshell.IJssController;
+import jswingshell.demo.simple.action.Cancellation;
+
+/**
+ * Keyboard shortcut cancelling the commands running in a shell.
+ *
+ * <p>
+ * Like in a terminal, {@code Ctrl+C} copies the selected text if there is one,
+ * and otherwise cancels the running commands and workers of the shell.</p>
+ *
+ * @author Mathieu Brunot
+ * @see Cancellation#cancelAll(jswingshell.IJssController)
+ */
+public class CancelShortcut extends AbstractAction {
+
+    /**
+     * Key stroke of the shortcut.
+     */
+    public static final KeyStroke KEY_STROKE = KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK);
+
+    private static final String ACTION_KEY = "jss-cancel";
+
+    /**
+     * Bind the shortcut to the view of a shell.
+     *
+     * @param textComponent   the view of the shell
+     * @param shellController the shell whose commands to cancel
+     */
+    public static void install(JTextComponent textComponent, IJssController shellController) {
+        textComponent.getInputMap(JComponent.WHEN_FOCUSED).put(KEY_STROKE, ACTION_KEY);
+        textComponent.getActionMap().put(ACTION_KEY, new CancelShortcut(textComponent, shellController));
+    }
+
+    // #########################################################################
+    private final JTextComponent textComponent;
+
+    private final IJssController shellController;
+
+    private CancelShortcut(JTextComponent textComponent, IJssController shellController) {
+        super("Cancel");
+        this.textComponent = textComponent;
+        this.shellController = shellController;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if (textComponent.getSelectionStart() != textComponent.getSelectionEnd()) {
+            textComponent.copy();
+            return;
+        }
+
+        int cancelledCount = Cancellation.cancelAll(shellController);
+        if (cancelledCount > 0) {
+            shellController.publish(IJssController.PublicationLevel.WARNING, "^C " + cancelledCount + " command(s) cancelled");
+        }
+    }
+
+}
@@ -0,0 +1,272 @@
+package jswingshell.demo.simple.gui;
+
+import java.awt.BorderLayout;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import jswingshell.demo.simple.history.CommandHistory;
+
+/**
+ * Keyboard shortcut searching the command history.
+ *
+ * <p>
+ * Like the reverse search of terminals, {@code Ctrl+R} opens a search field
+ * displaying the most recent command containing the typed text. Pressing
+ * {@code Ctrl+R} again displays the previous matching command, {@code Enter}
+ * inserts the displayed command in the command line and {@code Escape} closes
+ * the search.</p>
+ *
+ * <p>
+ * The history is searched by a worker, never by the Event Dispatch Thread:
+ * typing goes on while a large history is indexed or scanned. Searches
+ * requested while another one runs are coalesced, only the last one is
+ * done.</p>
+ *
+ * @author Mathieu Brunot
+ * @see CommandHistory#search(java.lang.String, long)
+ */
+public class HistorySearchShortcut extends AbstractAction {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(HistorySearchShortcut.class.getName());
+
+    /**
+     * Key stroke of the shortcut.
+     */
+    public static final KeyStroke KEY_STROKE = KeyStroke.getKeyStroke(KeyEvent.VK_R, InputEvent.CTRL_DOWN_MASK);
+
+    private static final KeyStroke ENTER = KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0);
+
+    private static final KeyStroke ESCAPE = KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0);
+
+    private static final String ACTION_KEY = "jss-history-search";
+
+    private static final String PREVIOUS_ACTION_KEY = "jss-history-search-previous";
+
+    private static final String ACCEPT_ACTION_KEY = "jss-history-search-accept";
+
+    private static final String CLOSE_ACTION_KEY = "jss-history-search-close";
+
+    /**
+     * Bind the shortcut to the view of a shell.
+     *
+     * @param textComponent the view of the shell
+     * @param history       the history to search
+     */
+    public static void install(JTextComponent textComponent, CommandHistory history) {
+        textComponent.getInputMap(JComponent.WHEN_FOCUSED).put(KEY_STROKE, ACTION_KEY);
+        textComponent.getActionMap().put(ACTION_KEY, new HistorySearchShortcut(textComponent, history));
+    }
+
+    // #########################################################################
+    private final JTextComponent textComponent;
+
+    private final CommandHistory history;
+
+    private HistorySearchShortcut(JTextComponent textComponent, CommandHistory history) {
+        super("Search history");
+        this.textComponent = textComponent;
+        this.history = history;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        new SearchDialog().open();
+    }
+
+    // #########################################################################
+    /**
+     * Search field and the command it found.
+     */
+    private final class SearchDialog {
+
+        private final JDialog dialog;
+
+        private final JTextField searchField = new JTextField(30);
+
+        private final JLabel matchLabel = new JLabel(" ");
+
+        private long matchIndex = -1;
+
+        private String match;
+
+        /**
+         * Search being done, if any.
+         */
+        private SearchWorker runningSearch;
+
+        /**
+         * Search requested while another one runs, if any.
+         */
+        private SearchWorker pendingSearch;
+
+        SearchDialog() {
+            Window window = SwingUtilities.getWindowAncestor(textComponent);
+            dialog = new JDialog(window, "(reverse-i-search)");
+            dialog.setModalityType(JDialog.ModalityType.DOCUMENT_MODAL);
+            dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+            matchLabel.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+            dialog.getContentPane().add(searchField, BorderLayout.NORTH);
+            dialog.getContentPane().add(matchLabel, BorderLayout.CENTER);
+
+            searchField.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    search(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    search(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                    // Attributes only
+                }
+            });
+
+            searchField.getInputMap(JComponent.WHEN_FOCUSED).put(KEY_STROKE, PREVIOUS_ACTION_KEY);
+            searchField.getActionMap().put(PREVIOUS_ACTION_KEY, new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    if (matchIndex > 0) {
+                        search(matchIndex);
+                    }
+                }
+            });
+            searchField.getInputMap(JComponent.WHEN_FOCUSED).put(ENTER, ACCEPT_ACTION_KEY);
+            searchField.getActionMap().put(ACCEPT_ACTION_KEY, new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    dialog.dispose();
+                    if (match != null) {
+                        textComponent.setCaretPosition(textComponent.getDocument().getLength());
+                        textComponent.replaceSelection(match);
+                    }
+                    textComponent.requestFocusInWindow();
+                }
+            });
+            dialog.getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(ESCAPE, CLOSE_ACTION_KEY);
+            dialog.getRootPane().getActionMap().put(CLOSE_ACTION_KEY, new AbstractAction() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    dialog.dispose();
+                    textComponent.requestFocusInWindow();
+                }
+            });
+        }
+
+        void open() {
+            dialog.pack();
+            dialog.setLocationRelativeTo(textComponent);
+            dialog.setVisible(true);
+        }
+
+        /**
+         * Search the most recent command before the given index containing
+         * the searched text, and display it once found.
+         *
+         * @param before the index before which to search,
+         *               {@link Long#MAX_VALUE} to search the whole history
+         */
+        void search(long before) {
+            pendingSearch = new SearchWorker(searchField.getText(), before);
+            if (runningSearch == null) {
+                startPendingSearch();
+            }
+        }
+
+        private void startPendingSearch() {
+            runningSearch = pendingSearch;
+            pendingSearch = null;
+            runningSearch.execute();
+        }
+
+        /**
+         * Display the result of a search, unless another search was requested
+         * meanwhile.
+         */
+        void searchDone(SearchWorker search, long index, String command) {
+            runningSearch = null;
+            if (pendingSearch != null) {
+                // Outdated result
+                startPendingSearch();
+                return;
+            }
+
+            if (index >= 0) {
+                matchIndex = index;
+                match = command;
+                matchLabel.setText(match);
+            } else if (search.before == Long.MAX_VALUE) {
+                matchIndex = -1;
+                match = null;
+                matchLabel.setText(search.text.isEmpty() ? " " : "No matching command");
+            }
+        }
+
+        /**
+         * Worker searching the history.
+         */
+        private final class SearchWorker extends SwingWorker<String, Void> {
+
+            final String text;
+
+            final long before;
+
+            private volatile long index = -1;
+
+            SearchWorker(String text, long before) {
+                this.text = text;
+                this.before = before;
+            }
+
+            @Override
+            protected String doInBackground() throws Exception {
+                long matchingIndex = history.search(text, before);
+                if (matchingIndex < 0) {
+                    return null;
+                }
+                String command = history.get(matchingIndex);
+                index = matchingIndex;
+                return command;
+            }
+
+            @Override
+            protected void done() {
+                String command = null;
+                try {
+                    command = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Cannot search command history", e);
+                }
+                searchDone(this, command != null ? index : -1, command);
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package jswingshell.demo.simple.gui;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Ring buffer of line lengths, from the oldest line to the newest.
+ *
+ * <p>
+ * Lines are added at the end and removed from the start without moving the
+ * other ones. The buffer only grows when more lines than its capacity are
+ * kept at the same time.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public final class LineRingBuffer {
+
+    private int[] lengths;
+
+    /**
+     * Index of the oldest line.
+     */
+    private int head;
+
+    private int size;
+
+    private long totalLength;
+
+    public LineRingBuffer(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Initial capacity must be positive");
+        }
+        this.lengths = new int[initialCapacity];
+    }
+
+    // #########################################################################
+    /**
+     * Number of lines in the buffer.
+     *
+     * @return the number of lines.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sum of the lengths of the lines in the buffer.
+     *
+     * @return the total length of the lines.
+     */
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    /**
+     * Add a line after the newest one.
+     *
+     * @param length the length of the line
+     */
+    public void add(int length) {
+        if (size == lengths.length) {
+            int[] newLengths = new int[2 * lengths.length];
+            int firstPart = Math.min(size, lengths.length - head);
+            System.arraycopy(lengths, head, newLengths, 0, firstPart);
+            System.arraycopy(lengths, 0, newLengths, firstPart, size - firstPart);
+            lengths = newLengths;
+            head = 0;
+        }
+        lengths[(head + size) % lengths.length] = length;
+        size++;
+        totalLength += length;
+    }
+
+    /**
+     * Remove the oldest line.
+     *
+     * @return the length of the removed line.
+     *
+     * @throws NoSuchElementException if the buffer is empty
+     */
+    public int removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int length = lengths[head];
+        head = (head + 1) % lengths.length;
+        size--;
+        totalLength -= length;
+        return length;
+    }
+
+    /**
+     * Remove all the lines, keeping the capacity of the buffer.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        totalLength = 0;
+    }
+
+}
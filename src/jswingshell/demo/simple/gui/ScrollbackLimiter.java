@@ -0,0 +1,486 @@
+package jswingshell.demo.simple.gui;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.EventListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.DocumentFilter;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.Segment;
+
+/**
+ * Limit of the scrollback of a shell view.
+ *
+ * <p>
+ * The lengths of the lines of the view's document are kept in a
+ * {@link LineRingBuffer}, maintained from the document events. Once the
+ * document has more lines or characters than allowed, its oldest lines are
+ * removed in place, down to seven eighths of the limits, so that their
+ * removal is not repeated for every new line.</p>
+ *
+ * <p>
+ * Only whole lines before the last one are removed: the command line is never
+ * trimmed.</p>
+ *
+ * <p>
+ * The state of the limiter is confined to the Event Dispatch Thread, where
+ * the document is trimmed and the {@link ScrollbackListener listeners} are
+ * notified. Changes of the document made from other threads are not counted
+ * in place: the lines of the document are counted again from the Event
+ * Dispatch Thread instead. The limiter never holds a lock while calling the
+ * document, which cannot deadlock with the threads writing to it.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ScrollbackLimiter implements DocumentListener {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ScrollbackLimiter.class.getName());
+
+    /**
+     * System property defining the default maximum number of lines of the
+     * scrollback.
+     */
+    public static final String MAX_LINES_PROPERTY = "jswingshell.demo.scrollback.maxLines";
+
+    /**
+     * Default maximum number of lines of the scrollback.
+     */
+    public static final int DEFAULT_MAX_LINES = Integer.getInteger(MAX_LINES_PROPERTY, 10000);
+
+    /**
+     * System property defining the default maximum number of characters of
+     * the scrollback.
+     */
+    public static final String MAX_SIZE_PROPERTY = "jswingshell.demo.scrollback.maxSize";
+
+    /**
+     * Default maximum number of characters of the scrollback: 1M characters,
+     * 2MB of text.
+     */
+    public static final int DEFAULT_MAX_SIZE = Integer.getInteger(MAX_SIZE_PROPERTY, 1024 * 1024);
+
+    /**
+     * Client property of the text components under the limiter.
+     */
+    private static final String CLIENT_PROPERTY = ScrollbackLimiter.class.getName();
+
+    private static final String DOCUMENT_PROPERTY = "document";
+
+    /**
+     * Listener of the changes of a limited scrollback, notified on the Event
+     * Dispatch Thread.
+     */
+    public interface ScrollbackListener extends EventListener {
+
+        /**
+         * Lines were removed from the start of the scrollback.
+         *
+         * @param lines the text of the removed lines, each one ending with a
+         *              new line
+         */
+        void linesTrimmed(String lines);
+
+        /**
+         * The scrollback was cleared.
+         */
+        void scrollbackCleared();
+
+    }
+
+    /**
+     * Limit the scrollback of a text component.
+     *
+     * @param textComponent the text component
+     * @param maxLines      the maximum number of lines, 0 for no limit
+     * @param maxSize       the maximum number of characters, 0 for no limit
+     *
+     * @return the scrollback limiter of the text component.
+     */
+    public static ScrollbackLimiter install(JTextComponent textComponent, int maxLines, int maxSize) {
+        ScrollbackLimiter limiter = getInstalled(textComponent);
+        if (limiter != null) {
+            limiter.uninstall();
+        }
+        limiter = new ScrollbackLimiter(textComponent, maxLines, maxSize);
+        textComponent.putClientProperty(CLIENT_PROPERTY, limiter);
+        textComponent.addPropertyChangeListener(DOCUMENT_PROPERTY, limiter.documentChangeListener);
+        limiter.attach(textComponent.getDocument());
+        return limiter;
+    }
+
+    private static void invokeOnEventDispatchThread(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+        } else {
+            SwingUtilities.invokeLater(task);
+        }
+    }
+
+    /**
+     * Get the scrollback limiter of a text component.
+     *
+     * @param textComponent the text component
+     *
+     * @return the scrollback limiter of the text component, or {@code null} if
+     *         its scrollback is not limited.
+     */
+    public static ScrollbackLimiter getInstalled(JTextComponent textComponent) {
+        Object limiter = textComponent.getClientProperty(CLIENT_PROPERTY);
+        return limiter instanceof ScrollbackLimiter ? (ScrollbackLimiter) limiter : null;
+    }
+
+    // #########################################################################
+    private final JTextComponent textComponent;
+
+    private final int maxLines;
+
+    private final int maxSize;
+
+    /**
+     * Lengths of the complete lines of the document, new lines included.
+     */
+    private final LineRingBuffer lines;
+
+    /**
+     * Length of the last line of the document.
+     */
+    private int lastLineLength;
+
+    private final Segment segment = new Segment();
+
+    private volatile Document document;
+
+    private final List<ScrollbackListener> listeners = new CopyOnWriteArrayList<>();
+
+    private boolean trimming;
+
+    private boolean trimScheduled;
+
+    /**
+     * Is the document counted again on the Event Dispatch Thread?
+     */
+    private final AtomicBoolean resetScheduled = new AtomicBoolean();
+
+    /**
+     * Was the document cleared from another thread since the last reset?
+     */
+    private volatile boolean clearedPending;
+
+    private final Runnable trimTask = new Runnable() {
+        @Override
+        public void run() {
+            trim();
+        }
+    };
+
+    private final Runnable resetTask = new Runnable() {
+        @Override
+        public void run() {
+            resetScheduled.set(false);
+            if (clearedPending) {
+                clearedPending = false;
+                fireScrollbackCleared();
+            }
+            count();
+        }
+    };
+
+    private final PropertyChangeListener documentChangeListener = new PropertyChangeListener() {
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            attach(textComponent.getDocument());
+        }
+    };
+
+    protected ScrollbackLimiter(JTextComponent textComponent, int maxLines, int maxSize) {
+        if (textComponent == null) {
+            throw new IllegalArgumentException("Text component cannot be null");
+        }
+        if (maxLines < 0 || maxSize < 0) {
+            throw new IllegalArgumentException("Scrollback limits cannot be negative");
+        }
+        this.textComponent = textComponent;
+        this.maxLines = maxLines;
+        this.maxSize = maxSize;
+        this.lines = new LineRingBuffer(maxLines > 0 ? maxLines + 1 : 1024);
+    }
+
+    // #########################################################################
+    /**
+     * Maximum number of lines of the scrollback.
+     *
+     * @return the maximum number of lines, 0 for no limit.
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Maximum number of characters of the scrollback.
+     *
+     * @return the maximum number of characters, 0 for no limit.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Number of lines of the scrollback, the last line included, from the
+     * Event Dispatch Thread.
+     *
+     * @return the number of lines.
+     */
+    public int getLineCount() {
+        return lines.size() + 1;
+    }
+
+    public void addScrollbackListener(ScrollbackListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeScrollbackListener(ScrollbackListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stop limiting the scrollback of the text component.
+     */
+    public void uninstall() {
+        textComponent.removePropertyChangeListener(DOCUMENT_PROPERTY, documentChangeListener);
+        if (textComponent.getClientProperty(CLIENT_PROPERTY) == this) {
+            textComponent.putClientProperty(CLIENT_PROPERTY, null);
+        }
+        attach(null);
+    }
+
+    /**
+     * Count the lines of the document again, from the Event Dispatch Thread.
+     *
+     * <p>
+     * This is cheap once the document has been cleared. It can be called from
+     * any thread: the lines are then counted later.</p>
+     */
+    public void reset() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            count();
+        } else {
+            scheduleReset(false);
+        }
+    }
+
+    private void attach(final Document newDocument) {
+        Document oldDocument = document;
+        if (oldDocument != null) {
+            oldDocument.removeDocumentListener(this);
+        }
+        document = newDocument;
+        if (newDocument != null) {
+            newDocument.addDocumentListener(this);
+        }
+        invokeOnEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                count();
+            }
+        });
+    }
+
+    private void scheduleReset(boolean cleared) {
+        if (cleared) {
+            clearedPending = true;
+        }
+        if (resetScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(resetTask);
+        }
+    }
+
+    private void fireScrollbackCleared() {
+        for (ScrollbackListener listener : listeners) {
+            listener.scrollbackCleared();
+        }
+    }
+
+    // #########################################################################
+    /**
+     * Count all the lines of the document, from the Event Dispatch Thread.
+     */
+    private void count() {
+        lines.clear();
+        lastLineLength = 0;
+        final Document countedDocument = document;
+        if (countedDocument == null) {
+            return;
+        }
+
+        countedDocument.render(new Runnable() {
+            @Override
+            public void run() {
+                count(countedDocument, 0, countedDocument.getLength());
+            }
+        });
+        checkLimits();
+    }
+
+    /**
+     * Add the lines of a part of the document, starting at the beginning of
+     * the last line.
+     */
+    private void count(Document document, int offset, int length) {
+        int lineStart = offset - lastLineLength;
+        segment.setPartialReturn(true);
+        try {
+            int end = offset + length;
+            int position = offset;
+            while (position < end) {
+                document.getText(position, end - position, segment);
+                for (int i = 0; i < segment.count; i++) {
+                    if (segment.array[segment.offset + i] == '\n') {
+                        int lineEnd = position + i + 1;
+                        lines.add(lineEnd - lineStart);
+                        lineStart = lineEnd;
+                    }
+                }
+                position += segment.count;
+            }
+        } catch (BadLocationException e) {
+            LOGGER.log(Level.SEVERE, "Error occured while counting scrollback lines.", e);
+        }
+        lastLineLength = document.getLength() - lineStart;
+    }
+
+    private void checkLimits() {
+        if (isOverLimits(0, 0) && !trimScheduled) {
+            trimScheduled = true;
+            // Documents cannot be modified while notifying their listeners
+            SwingUtilities.invokeLater(trimTask);
+        }
+    }
+
+    private boolean isOverLimits(int lineSlack, int sizeSlack) {
+        return (maxLines > 0 && lines.size() + 1 > maxLines - lineSlack)
+                || (maxSize > 0 && lines.getTotalLength() + lastLineLength > maxSize - sizeSlack);
+    }
+
+    /**
+     * Remove the oldest lines of the document, down to seven eighths of the
+     * limits, from the Event Dispatch Thread.
+     */
+    private void trim() {
+        trimScheduled = false;
+        Document document = this.document;
+        if (document == null || resetScheduled.get() || !isOverLimits(0, 0)) {
+            // Lines are not known until they are counted again
+            return;
+        }
+
+        int expectedLength = document.getLength();
+        int removedLength = 0;
+        while (lines.size() > 0 && isOverLimits(maxLines / 8, maxSize / 8)) {
+            removedLength += lines.removeFirst();
+        }
+        expectedLength -= removedLength;
+
+        String trimmedLines = null;
+        boolean removed = false;
+        trimming = true;
+        try {
+            if (!listeners.isEmpty()) {
+                trimmedLines = document.getText(0, removedLength);
+            }
+            if (document instanceof AbstractDocument) {
+                // Shell views usually prevent the edition of their output
+                AbstractDocument abstractDocument = (AbstractDocument) document;
+                DocumentFilter documentFilter = abstractDocument.getDocumentFilter();
+                abstractDocument.setDocumentFilter(null);
+                try {
+                    abstractDocument.remove(0, removedLength);
+                } finally {
+                    abstractDocument.setDocumentFilter(documentFilter);
+                }
+            } else {
+                document.remove(0, removedLength);
+            }
+            removed = true;
+        } catch (BadLocationException e) {
+            LOGGER.log(Level.SEVERE, "Error occured while trimming scrollback.", e);
+        } finally {
+            trimming = false;
+        }
+
+        if (document.getLength() != expectedLength) {
+            // Changed from another thread meanwhile, the removed lines are still the oldest ones
+            count();
+        }
+        if (removed && trimmedLines != null) {
+            for (ScrollbackListener listener : listeners) {
+                listener.linesTrimmed(trimmedLines);
+            }
+        }
+    }
+
+    // #########################################################################
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        if (!SwingUtilities.isEventDispatchThread() || resetScheduled.get()) {
+            // The lines are counted again on the Event Dispatch Thread
+            scheduleReset(false);
+            return;
+        }
+
+        Document document = e.getDocument();
+        int lastLineStart = document.getLength() - e.getLength() - lastLineLength;
+        if (e.getOffset() < lastLineStart) {
+            // Inserted before the last line
+            count();
+            return;
+        }
+        // Count from the beginning of the last line up to the inserted text
+        lastLineLength = e.getOffset() - lastLineStart;
+        count(document, e.getOffset(), e.getLength());
+        checkLimits();
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        Document document = e.getDocument();
+        if (!SwingUtilities.isEventDispatchThread() || resetScheduled.get()) {
+            // The lines are counted again on the Event Dispatch Thread
+            scheduleReset(document.getLength() == 0);
+            return;
+        }
+
+        if (trimming) {
+            // Lines already removed from the ring buffer
+            return;
+        }
+        if (document.getLength() == 0) {
+            lines.clear();
+            lastLineLength = 0;
+            fireScrollbackCleared();
+        } else if (e.getOffset() >= document.getLength() + e.getLength() - lastLineLength) {
+            // Removed from the last line
+            lastLineLength -= e.getLength();
+        } else {
+            count();
+        }
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Attributes changes do not change lines
+    }
+
+}
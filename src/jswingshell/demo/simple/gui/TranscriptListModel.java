@@ -0,0 +1,170 @@
+package jswingshell.demo.simple.gui;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+/**
+ * List model of the lines of a shell transcript.
+ *
+ * <p>
+ * Lines are stored in fixed size chunks, so that getting a line takes a
+ * constant time whatever the size of the transcript, and adding lines never
+ * copies the previous ones. Once the transcript has more lines than allowed,
+ * its oldest chunks are dropped.</p>
+ *
+ * <p>
+ * Like any list model, it must only be used from the Event Dispatch
+ * Thread.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class TranscriptListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of lines of a chunk.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    private final int maxLines;
+
+    private final List<String[]> chunks = new ArrayList<>();
+
+    /**
+     * Chunks dropped from the transcript, kept for new lines.
+     */
+    private final ArrayDeque<String[]> freeChunks = new ArrayDeque<>();
+
+    private int size;
+
+    /**
+     * Size of the transcript last announced to the listeners.
+     */
+    private int announcedSize;
+
+    private int maxLineLength;
+
+    /**
+     * @param maxLines the maximum number of lines of the transcript, 0 for no
+     *                 limit
+     */
+    public TranscriptListModel(int maxLines) {
+        if (maxLines < 0) {
+            throw new IllegalArgumentException("Maximum number of lines cannot be negative");
+        }
+        this.maxLines = maxLines;
+    }
+
+    // #########################################################################
+    /**
+     * Maximum number of lines of the transcript.
+     *
+     * @return the maximum number of lines, 0 for no limit.
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Length of the longest line added to the transcript.
+     *
+     * @return the length of the longest line.
+     */
+    public int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return chunks.get(index / CHUNK_SIZE)[index % CHUNK_SIZE];
+    }
+
+    /**
+     * Add the lines of a text at the end of the transcript.
+     *
+     * @param text the lines to add, separated by new lines; a final new line
+     *             does not start an empty line
+     */
+    public void addLines(String text) {
+        int lineStart = 0;
+        for (int lineEnd = text.indexOf('\n'); lineEnd >= 0; lineEnd = text.indexOf('\n', lineStart)) {
+            add(text.substring(lineStart, lineEnd));
+            lineStart = lineEnd + 1;
+        }
+        if (lineStart < text.length()) {
+            add(text.substring(lineStart));
+        }
+
+        int droppedLines = 0;
+        while (maxLines > 0 && size - CHUNK_SIZE >= maxLines && chunks.size() > 1) {
+            droppedLines += dropFirstChunk();
+        }
+
+        // Dropped lines may include lines added above, the listeners never knew
+        int removedLines = Math.min(droppedLines, announcedSize);
+        int keptLines = announcedSize - removedLines;
+        announcedSize = size;
+        if (removedLines > 0) {
+            fireIntervalRemoved(this, 0, removedLines - 1);
+        }
+        if (size > keptLines) {
+            fireIntervalAdded(this, keptLines, size - 1);
+        }
+    }
+
+    /**
+     * Remove all the lines of the transcript.
+     */
+    public void clear() {
+        int removedLines = announcedSize;
+        for (String[] chunk : chunks) {
+            recycle(chunk);
+        }
+        chunks.clear();
+        size = 0;
+        maxLineLength = 0;
+        announcedSize = 0;
+        if (removedLines > 0) {
+            fireIntervalRemoved(this, 0, removedLines - 1);
+        }
+    }
+
+    private void add(String line) {
+        int lineIndex = size;
+        if (lineIndex / CHUNK_SIZE == chunks.size()) {
+            String[] chunk = freeChunks.poll();
+            chunks.add(chunk != null ? chunk : new String[CHUNK_SIZE]);
+        }
+        chunks.get(lineIndex / CHUNK_SIZE)[lineIndex % CHUNK_SIZE] = line;
+        size++;
+        if (line.length() > maxLineLength) {
+            maxLineLength = line.length();
+        }
+    }
+
+    private int dropFirstChunk() {
+        recycle(chunks.remove(0));
+        size -= CHUNK_SIZE;
+        return CHUNK_SIZE;
+    }
+
+    private void recycle(String[] chunk) {
+        Arrays.fill(chunk, null);
+        if (freeChunks.size() < 2) {
+            freeChunks.push(chunk);
+        }
+    }
+
+}
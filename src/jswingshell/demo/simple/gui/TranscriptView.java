@@ -0,0 +1,166 @@
+package jswingshell.demo.simple.gui;
+
+import java.awt.BorderLayout;
+import java.awt.FontMetrics;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.text.JTextComponent;
+
+/**
+ * View of a shell for huge transcripts.
+ *
+ * <p>
+ * The shell view only keeps its most recent lines: older lines are moved to a
+ * {@link TranscriptListModel}, displayed by a list above it. The list only
+ * renders its visible lines, all of the same size, so scrolling takes the same
+ * time whatever the size of the transcript.</p>
+ *
+ * <p>
+ * The transcript is only updated from the Event Dispatch Thread, where the
+ * scrollback limiter of the shell view notifies it.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class TranscriptView extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * System property defining the default number of lines kept in the shell
+     * view.
+     */
+    public static final String SHELL_LINES_PROPERTY = "jswingshell.demo.transcript.shellLines";
+
+    /**
+     * Default number of lines kept in the shell view.
+     */
+    public static final int DEFAULT_SHELL_LINES = Integer.getInteger(SHELL_LINES_PROPERTY, 500);
+
+    /**
+     * System property defining the default maximum number of lines of the
+     * transcript.
+     */
+    public static final String MAX_LINES_PROPERTY = "jswingshell.demo.transcript.maxLines";
+
+    /**
+     * Default maximum number of lines of the transcript.
+     */
+    public static final int DEFAULT_MAX_LINES = Integer.getInteger(MAX_LINES_PROPERTY, 2000000);
+
+    private final JTextComponent shellView;
+
+    private final TranscriptListModel transcriptModel;
+
+    private final JList<String> transcriptList;
+
+    private final JScrollPane transcriptScrollPane;
+
+    private final ScrollbackLimiter scrollbackLimiter;
+
+    public TranscriptView(JTextComponent shellView) {
+        this(shellView, DEFAULT_SHELL_LINES, DEFAULT_MAX_LINES);
+    }
+
+    public TranscriptView(JTextComponent shellView, int shellLines, int maxLines) {
+        super(new BorderLayout());
+        if (shellView == null) {
+            throw new IllegalArgumentException("Shell view cannot be null");
+        }
+        this.shellView = shellView;
+        this.transcriptModel = new TranscriptListModel(maxLines);
+
+        transcriptList = new JList<>(transcriptModel);
+        transcriptList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        transcriptList.setFont(shellView.getFont());
+        transcriptList.setBackground(shellView.getBackground());
+        transcriptList.setForeground(shellView.getForeground());
+        // Fixed sizes, otherwise the list measures all its lines
+        FontMetrics fontMetrics = transcriptList.getFontMetrics(transcriptList.getFont());
+        transcriptList.setFixedCellHeight(fontMetrics.getHeight());
+        transcriptList.setFixedCellWidth(1);
+
+        transcriptScrollPane = new JScrollPane(transcriptList);
+        JScrollPane shellScrollPane = new JScrollPane(shellView);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, transcriptScrollPane, shellScrollPane);
+        splitPane.setResizeWeight(0.75);
+        splitPane.setContinuousLayout(true);
+        add(splitPane, BorderLayout.CENTER);
+
+        scrollbackLimiter = ScrollbackLimiter.install(shellView, shellLines, 0);
+        scrollbackLimiter.addScrollbackListener(new ScrollbackLimiter.ScrollbackListener() {
+            @Override
+            public void linesTrimmed(String lines) {
+                addLines(lines);
+            }
+
+            @Override
+            public void scrollbackCleared() {
+                clear();
+            }
+        });
+    }
+
+    // #########################################################################
+    public JTextComponent getShellView() {
+        return shellView;
+    }
+
+    public TranscriptListModel getTranscriptModel() {
+        return transcriptModel;
+    }
+
+    /**
+     * The limiter of the shell view, moving its oldest lines to the
+     * transcript.
+     *
+     * @return the scrollback limiter of the shell view.
+     */
+    public ScrollbackLimiter getScrollbackLimiter() {
+        return scrollbackLimiter;
+    }
+
+    /**
+     * Remove all the lines of the transcript, from the Event Dispatch Thread.
+     *
+     * <p>
+     * Called from another thread, the lines are removed later.</p>
+     */
+    public void clear() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    clear();
+                }
+            });
+            return;
+        }
+        transcriptModel.clear();
+        transcriptList.setFixedCellWidth(1);
+    }
+
+    private void addLines(String lines) {
+        JScrollBar verticalScrollBar = transcriptScrollPane.getVerticalScrollBar();
+        boolean atBottom = verticalScrollBar.getValue() + verticalScrollBar.getVisibleAmount() >= verticalScrollBar.getMaximum();
+
+        int maxLineLength = transcriptModel.getMaxLineLength();
+        transcriptModel.addLines(lines);
+        if (transcriptModel.getMaxLineLength() > maxLineLength) {
+            // Shell views use monospaced fonts
+            FontMetrics fontMetrics = transcriptList.getFontMetrics(transcriptList.getFont());
+            transcriptList.setFixedCellWidth(fontMetrics.charWidth('m') * (transcriptModel.getMaxLineLength() + 1));
+        }
+
+        // Follow the output unless the user scrolled up
+        if (atBottom && transcriptModel.getSize() > 0) {
+            transcriptList.ensureIndexIsVisible(transcriptModel.getSize() - 1);
+        }
+    }
+
+}
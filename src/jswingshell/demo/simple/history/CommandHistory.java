@@ -0,0 +1,622 @@
+package jswingshell.demo.simple.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persistent history of the commands typed in the shells.
+ *
+ * <p>
+ * Commands are appended, one per line, to memory-mapped segment files of a
+ * directory. Once the current segment is full, a new one is started and the
+ * oldest segments are deleted, so that the history never uses more than
+ * {@code segmentSize * maxSegments} bytes.</p>
+ *
+ * <p>
+ * Opening a history only maps its last segment, whatever the number of
+ * commands: the other segments are mapped, and the position of their commands
+ * indexed, on their first recall or search. Searches compare the UTF-8 bytes of
+ * the commands, without decoding them.</p>
+ *
+ * <p>
+ * A history directory is only written by one process at a time: if another
+ * process already uses it, the history is opened in
+ * {@link #isReadOnly() read-only} mode and new commands are ignored.</p>
+ *
+ * <p>
+ * Consecutive duplicates and empty commands are not recorded.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandHistory implements Closeable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CommandHistory.class.getName());
+
+    /**
+     * System property disabling the {@link #getDefault() default history} when
+     * set to {@code false}.
+     */
+    public static final String ENABLED_PROPERTY = "jswingshell.demo.history";
+
+    /**
+     * System property defining the directory of the default history.
+     */
+    public static final String DIRECTORY_PROPERTY = "jswingshell.demo.history.dir";
+
+    /**
+     * System property defining the size of the segments of the default
+     * history, in bytes.
+     */
+    public static final String SEGMENT_SIZE_PROPERTY = "jswingshell.demo.history.segmentSize";
+
+    /**
+     * System property defining the number of segments kept by the default
+     * history.
+     */
+    public static final String SEGMENTS_PROPERTY = "jswingshell.demo.history.segments";
+
+    /**
+     * Default size of the segments: 8 MB.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * Default number of kept segments.
+     */
+    public static final int DEFAULT_SEGMENTS = 8;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String SEGMENT_PREFIX = "history-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String LOCK_FILE = "history.lock";
+
+    private static final byte END_OF_COMMAND = '\n';
+
+    private static CommandHistory defaultHistory;
+
+    private static boolean defaultHistoryOpened;
+
+    /**
+     * The history shared by the whole application, opened on first use and
+     * closed when the application exits.
+     *
+     * @return the default history, or {@code null} if it is disabled or
+     *         cannot be opened.
+     */
+    public static synchronized CommandHistory getDefault() {
+        if (!defaultHistoryOpened) {
+            defaultHistoryOpened = true;
+            if (!"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY))) {
+                String directory = System.getProperty(DIRECTORY_PROPERTY);
+                Path directoryPath = directory != null ? Paths.get(directory) : Paths.get(System.getProperty("user.home"), ".jswingshell", "history");
+                try {
+                    defaultHistory = new CommandHistory(directoryPath,
+                            Integer.getInteger(SEGMENT_SIZE_PROPERTY, DEFAULT_SEGMENT_SIZE),
+                            Integer.getInteger(SEGMENTS_PROPERTY, DEFAULT_SEGMENTS));
+                    Runtime.getRuntime().addShutdownHook(new Thread("jss-history-close") {
+                        @Override
+                        public void run() {
+                            defaultHistory.close();
+                        }
+                    });
+                } catch (IOException | IllegalArgumentException e) {
+                    LOGGER.log(Level.WARNING, "Cannot open command history: " + directoryPath, e);
+                }
+            }
+        }
+        return defaultHistory;
+    }
+
+    // #########################################################################
+    /**
+     * A segment file of the history.
+     */
+    private static final class Segment {
+
+        final long number;
+
+        final Path path;
+
+        /**
+         * Mapped content of the segment, {@code null} until first needed.
+         */
+        MappedByteBuffer buffer;
+
+        /**
+         * Channel of the segment being written, {@code null} otherwise.
+         */
+        FileChannel channel;
+
+        /**
+         * End of the last command of the segment.
+         */
+        int end;
+
+        /**
+         * End of each command of the segment, {@code null} until first needed.
+         */
+        int[] ends;
+
+        int count;
+
+        Segment(long number, Path path) {
+            this.number = number;
+            this.path = path;
+        }
+
+        void map() throws IOException {
+            if (buffer == null) {
+                try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(readChannel.size(), Integer.MAX_VALUE));
+                }
+                end = findEnd(buffer, false);
+            }
+        }
+
+        void index() throws IOException {
+            if (ends == null) {
+                map();
+                int[] commandEnds = new int[16];
+                int commandCount = 0;
+                for (int i = 0; i < end; i++) {
+                    if (buffer.get(i) == END_OF_COMMAND) {
+                        if (commandCount == commandEnds.length) {
+                            commandEnds = Arrays.copyOf(commandEnds, commandCount * 2);
+                        }
+                        commandEnds[commandCount++] = i + 1;
+                    }
+                }
+                ends = commandEnds;
+                count = commandCount;
+            }
+        }
+
+        void append(byte[] command) {
+            buffer.position(end);
+            buffer.put(command);
+            buffer.put(END_OF_COMMAND);
+            end = buffer.position();
+            if (ends != null) {
+                if (count == ends.length) {
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                ends[count++] = end;
+            }
+        }
+
+        int start(int index) {
+            return index > 0 ? ends[index - 1] : 0;
+        }
+
+        String get(int index) {
+            return decode(start(index), ends[index] - 1);
+        }
+
+        /**
+         * The last command of the segment, found without indexing it.
+         */
+        String last() {
+            if (end == 0) {
+                return null;
+            }
+            int start = end - 1;
+            while (start > 0 && buffer.get(start - 1) != END_OF_COMMAND) {
+                start--;
+            }
+            return decode(start, end - 1);
+        }
+
+        String decode(int start, int stop) {
+            ByteBuffer command = buffer.duplicate();
+            command.limit(stop);
+            command.position(start);
+            return UTF_8.decode(command).toString();
+        }
+
+        boolean contains(int index, byte[] query) {
+            int last = ends[index] - 1 - query.length;
+            for (int i = start(index); i <= last; i++) {
+                int j = 0;
+                while (j < query.length && buffer.get(i + j) == query[j]) {
+                    j++;
+                }
+                if (j == query.length) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void close() {
+            if (channel != null) {
+                try {
+                    buffer.force();
+                    // Drop the unused end of the segment, ignored if the file is still mapped
+                    channel.truncate(end);
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Cannot truncate history segment: " + path, e);
+                } finally {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Cannot close history segment: " + path, e);
+                    }
+                    channel = null;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Find the end of the last complete command of a segment.
+     *
+     * <p>
+     * Commands never contain a null byte, and the unused end of a segment is
+     * filled with null bytes: the end of the written bytes is found by
+     * dichotomy. Bytes following the last end of command were interrupted
+     * while being written, they are erased if the buffer is writable.</p>
+     */
+    private static int findEnd(MappedByteBuffer buffer, boolean erase) {
+        int low = 0;
+        int high = buffer.limit();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.get(middle) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int end = low;
+        while (end > 0 && buffer.get(end - 1) != END_OF_COMMAND) {
+            end--;
+        }
+        if (erase) {
+            for (int i = end; i < low; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        return end;
+    }
+
+    // #########################################################################
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    /**
+     * Segments of the history, from the oldest to the most recent one.
+     */
+    private final List<Segment> segments = new ArrayList<>();
+
+    private FileChannel lockChannel;
+
+    private FileLock lock;
+
+    private String lastCommand;
+
+    private boolean closed;
+
+    /**
+     * Open a history.
+     *
+     * @param directory   the directory of the segment files, created if needed
+     * @param segmentSize the size of the segment files, in bytes
+     * @param maxSegments the number of segment files to keep
+     *
+     * @throws IOException if the history cannot be opened
+     */
+    public CommandHistory(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("History directory cannot be null");
+        }
+        if (segmentSize <= 0 || maxSegments <= 0) {
+            throw new IllegalArgumentException("Segment size and number of segments must be positive: " + segmentSize + ", " + maxSegments);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : paths) {
+                String fileName = path.getFileName().toString();
+                try {
+                    segments.add(new Segment(Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length())), path));
+                } catch (NumberFormatException e) {
+                    LOGGER.log(Level.FINE, "Ignored history file: " + path, e);
+                }
+            }
+        }
+        Collections.sort(segments, new Comparator<Segment>() {
+            @Override
+            public int compare(Segment segment1, Segment segment2) {
+                return Long.compare(segment1.number, segment2.number);
+            }
+        });
+
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            LOGGER.log(Level.INFO, "Command history already used by another shell, opened read-only: {0}", directory);
+            lockChannel.close();
+            lockChannel = null;
+        } else if (segments.isEmpty()) {
+            startSegment(1);
+        } else {
+            openSegment(segments.get(segments.size() - 1));
+            deleteOldSegments();
+        }
+    }
+
+    // #########################################################################
+    /**
+     * The directory of the segment files.
+     *
+     * @return the directory of the history.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Whether new commands are ignored, because another process writes the
+     * history or because it is closed.
+     *
+     * @return {@code true} if new commands are ignored.
+     */
+    public synchronized boolean isReadOnly() {
+        return lock == null || closed;
+    }
+
+    /**
+     * Record a command.
+     *
+     * <p>
+     * Line breaks are replaced by spaces, empty commands and commands equal to
+     * the previous one are ignored.</p>
+     *
+     * @param command the command
+     *
+     * @return {@code true} if the command was recorded.
+     */
+    public synchronized boolean add(String command) {
+        if (isReadOnly() || command == null || command.trim().isEmpty()) {
+            return false;
+        }
+        String sanitizedCommand = command.replace('\n', ' ').replace('\r', ' ').replace('\0', ' ');
+        if (sanitizedCommand.equals(getLastCommand())) {
+            return false;
+        }
+
+        byte[] bytes = sanitizedCommand.getBytes(UTF_8);
+        if (bytes.length + 1 > segmentSize) {
+            LOGGER.log(Level.WARNING, "Command too long to be recorded in history: {0} bytes", bytes.length);
+            return false;
+        }
+        try {
+            Segment segment = segments.get(segments.size() - 1);
+            if (segment.end + bytes.length + 1 > segment.buffer.limit()) {
+                segment.close();
+                segment = startSegment(segment.number + 1);
+                deleteOldSegments();
+            }
+            segment.append(bytes);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot record command in history: " + directory, e);
+            return false;
+        }
+        lastCommand = sanitizedCommand;
+        return true;
+    }
+
+    /**
+     * The number of recorded commands.
+     *
+     * @return the number of commands in the history.
+     */
+    public synchronized long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            if (index(segment)) {
+                size += segment.count;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A recorded command.
+     *
+     * @param index the index of the command, from 0 for the oldest one to
+     *              {@code size() - 1} for the most recent one
+     *
+     * @return the command.
+     *
+     * @throws IndexOutOfBoundsException if there is no such command
+     */
+    public synchronized String get(long index) {
+        if (index >= 0) {
+            long segmentStart = 0;
+            for (Segment segment : segments) {
+                if (index(segment)) {
+                    if (index < segmentStart + segment.count) {
+                        return segment.get((int) (index - segmentStart));
+                    }
+                    segmentStart += segment.count;
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("No command at index " + index);
+    }
+
+    /**
+     * Search the most recent command containing a text, like the reverse
+     * search of terminals.
+     *
+     * @param text   the searched text
+     * @param before the index before which to search, {@code size()} to
+     *               search the whole history
+     *
+     * @return the index of the most recent command before {@code before}
+     *         containing the text, or {@code -1} if there is none.
+     */
+    public synchronized long search(String text, long before) {
+        if (text == null || text.isEmpty()) {
+            return -1;
+        }
+        byte[] query = text.getBytes(UTF_8);
+
+        long segmentEnd = size();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment segment = segments.get(i);
+            if (!index(segment)) {
+                continue;
+            }
+            long segmentStart = segmentEnd - segment.count;
+            for (int j = (int) (Math.min(before, segmentEnd) - segmentStart) - 1; j >= 0; j--) {
+                if (segment.contains(j, query)) {
+                    return segmentStart + j;
+                }
+            }
+            segmentEnd = segmentStart;
+        }
+        return -1;
+    }
+
+    /**
+     * Delete all the recorded commands.
+     */
+    public synchronized void clear() {
+        if (isReadOnly()) {
+            return;
+        }
+        Segment lastSegment = segments.get(segments.size() - 1);
+        lastSegment.close();
+        try {
+            startSegment(lastSegment.number + 1);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot clear command history: " + directory, e);
+            return;
+        }
+        while (segments.size() > 1) {
+            deleteSegment(segments.remove(0));
+        }
+        lastCommand = null;
+    }
+
+    /**
+     * Close the history: its last segment is truncated to its commands and no
+     * command is recorded anymore.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (lock != null) {
+            segments.get(segments.size() - 1).close();
+            try {
+                lock.release();
+                lockChannel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Cannot release command history: " + directory, e);
+            }
+        }
+    }
+
+    // #########################################################################
+    private String getLastCommand() {
+        if (lastCommand == null) {
+            for (int i = segments.size() - 1; i >= 0 && lastCommand == null; i--) {
+                Segment segment = segments.get(i);
+                try {
+                    segment.map();
+                    lastCommand = segment.last();
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Cannot read history segment: " + segment.path, e);
+                }
+            }
+        }
+        return lastCommand;
+    }
+
+    /**
+     * Index the commands of a segment.
+     *
+     * @return {@code false} if the segment cannot be read.
+     */
+    private boolean index(Segment segment) {
+        try {
+            segment.index();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot read history segment: " + segment.path, e);
+            return false;
+        }
+    }
+
+    private void openSegment(Segment segment) throws IOException {
+        segment.channel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.buffer = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(Math.min(segment.channel.size(), Integer.MAX_VALUE), segmentSize));
+        segment.end = findEnd(segment.buffer, true);
+    }
+
+    private Segment startSegment(long number) throws IOException {
+        Segment segment = new Segment(number, directory.resolve(String.format(Locale.ROOT, "%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX)));
+        segment.channel = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.buffer = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.ends = new int[16];
+        segments.add(segment);
+        return segment;
+    }
+
+    private void deleteOldSegments() {
+        while (segments.size() > maxSegments) {
+            deleteSegment(segments.remove(0));
+        }
+    }
+
+    private static void deleteSegment(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot delete history segment: " + segment.path, e);
+        }
+    }
+
+}
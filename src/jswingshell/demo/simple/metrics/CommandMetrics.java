@@ -0,0 +1,318 @@
+package jswingshell.demo.simple.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jswingshell.IJssController;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+
+/**
+ * Number of executions, errors and latencies of a command and of its workers.
+ *
+ * <p>
+ * Metrics are created on the first execution of their command, and then
+ * registered as a {@link CommandMetricsMXBean}. Actions are identified by their
+ * first command identifier, so all the aliases of an action share the same
+ * metrics.</p>
+ *
+ * <p>
+ * Recording the execution of a command does not allocate anything once its
+ * metrics exist, so metrics can be kept on; they can still be disabled with the
+ * {@value #ENABLED_PROPERTY} system property or
+ * {@link #setEnabled(boolean)}.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandMetrics implements CommandMetricsMXBean {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CommandMetrics.class.getName());
+
+    /**
+     * System property enabling the metrics of commands ({@code true} by
+     * default).
+     */
+    public static final String ENABLED_PROPERTY = "jswingshell.demo.metrics";
+
+    /**
+     * Domain of the names of the registered metrics.
+     */
+    public static final String JMX_DOMAIN = "jswingshell.demo.simple";
+
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+
+    private static final ConcurrentMap<String, CommandMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private static final Comparator<CommandMetrics> COMMAND_COMPARATOR = new Comparator<CommandMetrics>() {
+        @Override
+        public int compare(CommandMetrics o1, CommandMetrics o2) {
+            return o1.getCommand().compareTo(o2.getCommand());
+        }
+    };
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // #########################################################################
+    /**
+     * Are the executions of commands recorded?
+     *
+     * @return {@code true} if metrics are enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the recording of the executions of commands.
+     *
+     * @param enabled {@code true} to enable metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        CommandMetrics.enabled = enabled;
+    }
+
+    /**
+     * The metrics of a command, created if needed.
+     *
+     * @param command the command identifier
+     *
+     * @return the metrics of the command.
+     */
+    public static CommandMetrics get(String command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null");
+        }
+        CommandMetrics metrics = METRICS.get(command);
+        if (metrics == null) {
+            CommandMetrics newMetrics = new CommandMetrics(command);
+            metrics = METRICS.putIfAbsent(command, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+                metrics.register();
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * The metrics of an action, created if needed.
+     *
+     * @param action            the action
+     * @param commandIdentifier the identifier the action was run with, used if
+     *                          the action has no identifier
+     *
+     * @return the metrics of the action.
+     */
+    public static CommandMetrics get(IJssAction action, String commandIdentifier) {
+        String[] commandIdentifiers = action.getCommandIdentifiers();
+        if (commandIdentifiers != null && commandIdentifiers.length > 0 && commandIdentifiers[0] != null) {
+            return get(commandIdentifiers[0]);
+        }
+        return get(commandIdentifier != null ? commandIdentifier : action.getClass().getSimpleName());
+    }
+
+    /**
+     * All the existing metrics.
+     *
+     * @return the metrics of all the executed commands, sorted by command
+     *         identifier.
+     */
+    public static List<CommandMetrics> getAll() {
+        List<CommandMetrics> allMetrics = new ArrayList<>(METRICS.values());
+        Collections.sort(allMetrics, COMMAND_COMPARATOR);
+        return allMetrics;
+    }
+
+    /**
+     * Forget the executions of all the commands.
+     */
+    public static void resetAll() {
+        for (CommandMetrics metrics : METRICS.values()) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Run an action, recording its execution if metrics are enabled.
+     *
+     * @param action          the action to run
+     * @param shellController the shell controller given to the action
+     * @param args            the command identifier followed by its arguments
+     *
+     * @return the return status of the action.
+     */
+    public static int run(IJssAction action, IJssController shellController, String... args) {
+        if (!enabled) {
+            return action.run(shellController, args);
+        }
+
+        CommandMetrics metrics = get(action, args != null && args.length > 0 ? args[0] : null);
+        int commandReturnStatus = AbstractJssAction.ERROR;
+        long start = System.nanoTime();
+        try {
+            commandReturnStatus = action.run(shellController, args);
+        } finally {
+            metrics.recordCommand(System.nanoTime() - start, commandReturnStatus);
+        }
+        return commandReturnStatus;
+    }
+
+    // #########################################################################
+    private final String command;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final AtomicLong errorCount = new AtomicLong();
+
+    private final LatencyHistogram workerLatency = new LatencyHistogram();
+
+    private final AtomicLong workerErrorCount = new AtomicLong();
+
+    private CommandMetrics(String command) {
+        this.command = command;
+    }
+
+    private void register() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            mBeanServer.registerMBean(this, new ObjectName(JMX_DOMAIN + ":type=CommandMetrics,name=" + ObjectName.quote(command)));
+        } catch (JMException | SecurityException e) {
+            LOGGER.log(Level.WARNING, "Metrics of command cannot be registered: " + command, e);
+        }
+    }
+
+    // #########################################################################
+    /**
+     * Record an execution of the command.
+     *
+     * @param nanos               the latency of the execution, in nanoseconds
+     * @param commandReturnStatus the return status of the execution
+     */
+    public void recordCommand(long nanos, int commandReturnStatus) {
+        latency.record(nanos);
+        if (commandReturnStatus != AbstractJssAction.SUCCESS) {
+            errorCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Record a worker of the command which is done.
+     *
+     * @param nanos              the time between the execution of the worker
+     *                           and its end, in nanoseconds
+     * @param workerReturnStatus the return status of the worker
+     */
+    public void recordWorker(long nanos, int workerReturnStatus) {
+        workerLatency.record(nanos);
+        if (workerReturnStatus != AbstractJssAction.SUCCESS) {
+            workerErrorCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Latencies of the executions of the command.
+     *
+     * @return the histogram of the command latencies.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Latencies of the workers of the command.
+     *
+     * @return the histogram of the worker latencies.
+     */
+    public LatencyHistogram getWorkerLatency() {
+        return workerLatency;
+    }
+
+    // #########################################################################
+    @Override
+    public String getCommand() {
+        return command;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    @Override
+    public double getMeanLatency() {
+        return latency.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMedianLatency() {
+        return latency.getValueAtPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get99thPercentileLatency() {
+        return latency.getValueAtPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxLatency() {
+        return latency.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getWorkerCount() {
+        return workerLatency.getCount();
+    }
+
+    @Override
+    public long getWorkerErrorCount() {
+        return workerErrorCount.get();
+    }
+
+    @Override
+    public double getWorkerMeanLatency() {
+        return workerLatency.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getWorkerMedianLatency() {
+        return workerLatency.getValueAtPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getWorker99thPercentileLatency() {
+        return workerLatency.getValueAtPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getWorkerMaxLatency() {
+        return workerLatency.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errorCount.set(0);
+        workerLatency.reset();
+        workerErrorCount.set(0);
+    }
+
+}
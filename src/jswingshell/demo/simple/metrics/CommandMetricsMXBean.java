@@ -0,0 +1,62 @@
+package jswingshell.demo.simple.metrics;
+
+/**
+ * Management interface of the metrics of a command, registered in the
+ * platform MBean server as
+ * {@code jswingshell.demo.simple:type=CommandMetrics,name=<command>}.
+ *
+ * <p>
+ * Latencies are given in milliseconds.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public interface CommandMetricsMXBean {
+
+    /**
+     * @return the command identifier of the metrics.
+     */
+    String getCommand();
+
+    /**
+     * @return the number of executions of the command.
+     */
+    long getCount();
+
+    /**
+     * @return the number of executions of the command which failed.
+     */
+    long getErrorCount();
+
+    double getMeanLatency();
+
+    double getMedianLatency();
+
+    double get99thPercentileLatency();
+
+    double getMaxLatency();
+
+    /**
+     * @return the number of workers of the command which are done.
+     */
+    long getWorkerCount();
+
+    /**
+     * @return the number of workers of the command which failed or were
+     *         cancelled.
+     */
+    long getWorkerErrorCount();
+
+    double getWorkerMeanLatency();
+
+    double getWorkerMedianLatency();
+
+    double getWorker99thPercentileLatency();
+
+    double getWorkerMaxLatency();
+
+    /**
+     * Forget the executions of the command.
+     */
+    void reset();
+
+}
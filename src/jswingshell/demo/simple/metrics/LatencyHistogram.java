@@ -0,0 +1,146 @@
+package jswingshell.demo.simple.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies, in nanoseconds.
+ *
+ * <p>
+ * Like HdrHistogram, values are counted in buckets whose width doubles with
+ * each power of two, each bucket being split in {@value #SUB_BUCKET_COUNT}
+ * sub-buckets: values are known with a precision better than 2%, whatever
+ * their magnitude, in a fixed array of counts.</p>
+ *
+ * <p>
+ * Recording a value is thread-safe, lock-free and does not allocate anything,
+ * so it can be done for every command. Reading the histogram while values are
+ * recorded gives an approximate, but consistent enough, view of it.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /**
+     * Number of sub-buckets of the first bucket.
+     */
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    /**
+     * Number of counts needed to cover all the positive {@code long} values.
+     */
+    private static final int COUNTS_LENGTH = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong totalValue = new AtomicLong();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    // #########################################################################
+    /**
+     * Record a latency.
+     *
+     * @param nanos the latency, in nanoseconds; negative values are recorded
+     *              as 0
+     */
+    public void record(long nanos) {
+        long value = nanos > 0 ? nanos : 0;
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Forget all the recorded latencies.
+     */
+    public void reset() {
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    // #########################################################################
+    /**
+     * Number of recorded latencies.
+     *
+     * @return the number of recorded latencies.
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Highest recorded latency.
+     *
+     * @return the highest latency, in nanoseconds, or 0 if none was recorded.
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Mean of the recorded latencies.
+     *
+     * @return the mean latency, in nanoseconds, or 0 if none was recorded.
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count > 0 ? (double) totalValue.get() / count : 0;
+    }
+
+    /**
+     * Latency below or equal to which the given percentage of the recorded
+     * latencies are.
+     *
+     * @param percentile the percentage of latencies, between 0 and 100
+     *
+     * @return the latency at the given percentile, in nanoseconds, or 0 if none
+     *         was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+
+        double ratio = Math.min(Math.max(percentile, 0), 100) / 100;
+        long countAtPercentile = Math.max(1, (long) Math.ceil(ratio * count));
+        long runningCount = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            runningCount += counts.get(i);
+            if (runningCount >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // #########################################################################
+    static int indexOf(long value) {
+        int bucket = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        int subBucket = (int) (value >>> bucket);
+        return (bucket << (SUB_BUCKET_BITS - 1)) + subBucket;
+    }
+
+    static long highestEquivalentValue(int index) {
+        int bucket = Math.max(0, (index >> (SUB_BUCKET_BITS - 1)) - 1);
+        long subBucket = index - (bucket << (SUB_BUCKET_BITS - 1));
+        return ((subBucket + 1) << bucket) - 1;
+    }
+
+}
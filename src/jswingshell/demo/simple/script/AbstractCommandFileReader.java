@@ -0,0 +1,113 @@
+package jswingshell.demo.simple.script;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Sequential reader of the commands of a shell file.
+ *
+ * <p>
+ * A command file reader only stops on lines which should be executed: empty
+ * lines and comments are skipped, and the mute prefix is already removed from
+ * the command returned by {@link #getCommand()}. The reader itself is the
+ * current command.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public abstract class AbstractCommandFileReader implements IScriptCommand, Closeable {
+
+    /**
+     * Prefix for start of lines to indicate that a command should not display
+     * itself before execution.
+     */
+    public static final String MUTE_PREFIX = "@";
+
+    /**
+     * Prefix for start of lines to indicate a comment.
+     */
+    public static final String COMMENT_PREFIX = "//";
+
+    /**
+     * Characters which must be encoded as single ASCII bytes for a charset to
+     * be scanned directly on its bytes.
+     */
+    private static final String ASCII_PROBE = "\n\r\t /@";
+
+    private static final byte[] ASCII_PROBE_BYTES = {'\n', '\r', '\t', ' ', '/', '@'};
+
+    /**
+     * Open a command file reader for the given file.
+     *
+     * <p>
+     * Compiled shell files are read by a {@link BinaryCommandFileReader},
+     * whatever the given charset. Files encoded with a charset compatible with
+     * ASCII (UTF-8, ISO-8859-*, ...) are memory-mapped and scanned on their
+     * bytes, other files are read through a buffered character reader.</p>
+     *
+     * @param filePath the path of the file to read
+     * @param charset  the charset of the file
+     *
+     * @return a command file reader positioned before the first command.
+     *
+     * @throws FileNotFoundException if the file does not exist or is not a
+     *                               regular file
+     * @throws IOException           if the file cannot be opened
+     */
+    public static AbstractCommandFileReader open(String filePath, Charset charset) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(filePath);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (BinaryCommandFileReader.isCompiled(channel)) {
+                return new BinaryCommandFileReader(path);
+            }
+        }
+
+        if (isAsciiCompatible(charset)) {
+            return new MappedCommandFileReader(path, charset);
+        } else {
+            return new BufferedCommandFileReader(path, charset);
+        }
+    }
+
+    /**
+     * Check whether line breaks, white spaces and command prefixes can be
+     * searched directly on the bytes of the given charset.
+     *
+     * @param charset the charset to check
+     *
+     * @return {@code true} if the charset encodes these characters as their
+     *         ASCII bytes.
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        return charset != null && charset.canEncode()
+                && Arrays.equals(ASCII_PROBE_BYTES, ASCII_PROBE.getBytes(charset));
+    }
+
+    // #########################################################################
+    /**
+     * Move to the next command of the file.
+     *
+     * @return {@code true} if a command was found, {@code false} at the end of
+     *         the file.
+     *
+     * @throws IOException if an error occurs while reading the file
+     */
+    public abstract boolean next() throws IOException;
+
+    @Override
+    public String[] getArguments() {
+        return CommandTokenizer.split(getCommand());
+    }
+
+}
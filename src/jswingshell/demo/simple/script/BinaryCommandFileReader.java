@@ -0,0 +1,244 @@
+package jswingshell.demo.simple.script;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Command file reader of compiled shell files.
+ *
+ * <p>
+ * A compiled shell file is made of:</p>
+ * <ul>
+ * <li>the {@link #MAGIC} bytes and the format {@link #VERSION},</li>
+ * <li>the position of the identifiers table, as a long,</li>
+ * <li>the commands, each one made of:
+ * <ul>
+ * <li>its flags ({@link #MUTED_FLAG}, {@link #TEXT_FLAG}),</li>
+ * <li>its line number,</li>
+ * <li>the index of its identifier in the identifiers table plus one, or 0 for
+ * an empty command,</li>
+ * <li>its number of arguments, then its length-prefixed arguments,</li>
+ * <li>the length-prefixed original command, for the commands displayed before
+ * their execution,</li>
+ * </ul></li>
+ * <li>the identifiers table: the number of identifiers, then the
+ * length-prefixed identifiers.</li>
+ * </ul>
+ * <p>
+ * All numbers but the position of the identifiers table are written as
+ * variable length integers, and all strings are encoded in UTF-8.</p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @see CommandScriptCompiler
+ */
+public class BinaryCommandFileReader extends AbstractCommandFileReader {
+
+    /**
+     * First bytes of a compiled shell file.
+     */
+    static final byte[] MAGIC = {'J', 'S', 'S', 'B'};
+
+    /**
+     * Version of the compiled shell files format.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Size of the header: magic bytes, version and position of the
+     * identifiers table.
+     */
+    static final int HEADER_SIZE = MAGIC.length + 1 + 8;
+
+    /**
+     * Flag of the commands which should not display themselves before their
+     * execution.
+     */
+    static final int MUTED_FLAG = 1;
+
+    /**
+     * Flag of the commands whose original command follows their arguments.
+     */
+    static final int TEXT_FLAG = 2;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String[] NO_ARGUMENTS = new String[0];
+
+    /**
+     * Check whether the given file starts with the compiled shell file magic
+     * bytes.
+     *
+     * @param channel the channel of the file
+     *
+     * @return {@code true} if the file is a compiled shell file.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isCompiled(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+            // Read until the buffer is full or the end of the file
+        }
+        return !magic.hasRemaining() && Arrays.equals(MAGIC, magic.array());
+    }
+
+    // #########################################################################
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int commandsEnd;
+
+    private final String[] identifiers;
+
+    private byte[] stringBytes = new byte[256];
+
+    private int lineNumber;
+
+    private boolean muted;
+
+    private String[] arguments;
+
+    private String command;
+
+    public BinaryCommandFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Compiled shell file is too big: " + path);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException("Not a compiled shell file: " + path);
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compiled shell file version " + version + ": " + path);
+            }
+            long identifiersPosition = buffer.getLong();
+            if (identifiersPosition < HEADER_SIZE || identifiersPosition > size) {
+                throw new IOException("Corrupted compiled shell file: " + path);
+            }
+            this.commandsEnd = (int) identifiersPosition;
+
+            // Read the identifiers table, then go back to the commands
+            buffer.position(commandsEnd);
+            this.identifiers = new String[readVarInt()];
+            for (int i = 0; i < identifiers.length; i++) {
+                identifiers[i] = readString().intern();
+            }
+            buffer.position(HEADER_SIZE);
+        } catch (BufferUnderflowException e) {
+            channel.close();
+            throw new IOException("Corrupted compiled shell file: " + path, e);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // #########################################################################
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted compiled shell file: invalid number");
+    }
+
+    private String readString() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupted compiled shell file: invalid string length " + length);
+        }
+        if (stringBytes.length < length) {
+            stringBytes = new byte[Math.max(length, 2 * stringBytes.length)];
+        }
+        buffer.get(stringBytes, 0, length);
+        return new String(stringBytes, 0, length, UTF_8);
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        command = null;
+        arguments = null;
+
+        if (buffer.position() >= commandsEnd) {
+            return false;
+        }
+
+        try {
+            int flags = readVarInt();
+            lineNumber = readVarInt();
+            muted = (flags & MUTED_FLAG) != 0;
+
+            int identifierIndex = readVarInt() - 1;
+            int argumentCount = readVarInt();
+            if (identifierIndex < 0) {
+                arguments = NO_ARGUMENTS;
+            } else if (identifierIndex < identifiers.length && argumentCount >= 0) {
+                arguments = new String[argumentCount + 1];
+                arguments[0] = identifiers[identifierIndex];
+                for (int i = 1; i <= argumentCount; i++) {
+                    arguments[i] = readString();
+                }
+            } else {
+                throw new IOException("Corrupted compiled shell file at line " + lineNumber);
+            }
+
+            if ((flags & TEXT_FLAG) != 0) {
+                command = readString();
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupted compiled shell file: unexpected end of file", e);
+        }
+
+        return true;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean isMuted() {
+        return muted;
+    }
+
+    @Override
+    public String getCommand() {
+        if (command == null && arguments != null) {
+            // Muted commands are not displayed, the original command is not kept
+            command = CommandTokenizer.join(arguments);
+        }
+        return command;
+    }
+
+    @Override
+    public String[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,78 @@
+package jswingshell.demo.simple.script;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command file reader based on a {@link BufferedReader}.
+ *
+ * <p>
+ * Used for charsets which cannot be scanned on their bytes, like UTF-16.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class BufferedCommandFileReader extends AbstractCommandFileReader {
+
+    private final BufferedReader reader;
+
+    private int lineNumber;
+
+    private boolean muted;
+
+    private String command;
+
+    public BufferedCommandFileReader(Path path, Charset charset) throws IOException {
+        this.reader = Files.newBufferedReader(path, charset);
+    }
+
+    // #########################################################################
+    @Override
+    public boolean next() throws IOException {
+        for (String line; (line = reader.readLine()) != null;) {
+            lineNumber++;
+            String trimmed = line.trim();
+
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+
+            if (trimmed.startsWith(MUTE_PREFIX)) {
+                muted = true;
+                command = trimmed.substring(MUTE_PREFIX.length());
+            } else if (trimmed.startsWith(COMMENT_PREFIX)) {
+                continue;
+            } else {
+                muted = false;
+                command = trimmed;
+            }
+            return true;
+        }
+
+        command = null;
+        return false;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean isMuted() {
+        return muted;
+    }
+
+    @Override
+    public String getCommand() {
+        return command;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+}
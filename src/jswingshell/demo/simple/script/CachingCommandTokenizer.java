@@ -0,0 +1,142 @@
+package jswingshell.demo.simple.script;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tokenizer keeping the tokens of the most recently split command lines.
+ *
+ * <p>
+ * Shell files loops and repeated interactive commands split the same lines
+ * again and again: the tokens of the last command lines are cached, and the
+ * least recently used ones are evicted once the cache is full. Cached tokens
+ * are copied before being returned, since actions may modify their
+ * arguments.</p>
+ *
+ * <p>
+ * Command lines longer than {@link #MAX_CACHED_LENGTH} characters are never
+ * cached.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class CachingCommandTokenizer implements ICommandTokenizer {
+
+    /**
+     * Default number of cached command lines.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Length of the longest cached command lines.
+     */
+    public static final int MAX_CACHED_LENGTH = 1024;
+
+    private final ICommandTokenizer tokenizer;
+
+    private final Map<String, String[]> tokens;
+
+    private long hitCount;
+
+    private long missCount;
+
+    /**
+     * Construct a caching tokenizer with the {@link #DEFAULT_CAPACITY}.
+     *
+     * @param tokenizer the tokenizer splitting the command lines
+     */
+    public CachingCommandTokenizer(ICommandTokenizer tokenizer) {
+        this(tokenizer, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct a caching tokenizer.
+     *
+     * @param tokenizer the tokenizer splitting the command lines
+     * @param capacity  the maximum number of cached command lines
+     */
+    public CachingCommandTokenizer(ICommandTokenizer tokenizer, final int capacity) {
+        if (tokenizer == null) {
+            throw new IllegalArgumentException("Tokenizer cannot be null");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.tokenizer = tokenizer;
+        this.tokens = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+                return size() > capacity;
+            }
+
+        };
+    }
+
+    // #########################################################################
+    /**
+     * The tokenizer splitting the command lines which are not cached.
+     *
+     * @return the cached tokenizer.
+     */
+    public ICommandTokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * The number of command lines whose tokens were found in the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of command lines split by the cached tokenizer.
+     *
+     * @return the number of cache misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Remove all the cached command lines.
+     */
+    public synchronized void clear() {
+        tokens.clear();
+    }
+
+    // #########################################################################
+    @Override
+    public String[] tokenize(String commandLine) {
+        if (commandLine == null || commandLine.isEmpty() || commandLine.length() > MAX_CACHED_LENGTH) {
+            return tokenizer.tokenize(commandLine);
+        }
+
+        String[] cachedTokens;
+        synchronized (this) {
+            cachedTokens = tokens.get(commandLine);
+            if (cachedTokens != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+        if (cachedTokens == null) {
+            cachedTokens = tokenizer.tokenize(commandLine);
+            synchronized (this) {
+                tokens.put(commandLine, cachedTokens);
+            }
+        }
+        return cachedTokens.clone();
+    }
+
+    @Override
+    public String join(String... tokens) {
+        return tokenizer.join(tokens);
+    }
+
+}
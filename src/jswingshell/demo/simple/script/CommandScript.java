@@ -0,0 +1,56 @@
+package jswingshell.demo.simple.script;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parsed commands of a shell file.
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandScript {
+
+    private final List<ScriptCommand> commands;
+
+    private final long estimatedSize;
+
+    public CommandScript(List<ScriptCommand> commands) {
+        this.commands = Collections.unmodifiableList(new ArrayList<>(commands));
+
+        long size = 64 + 8L * commands.size();
+        for (ScriptCommand command : commands) {
+            size += command.getEstimatedSize();
+        }
+        this.estimatedSize = size;
+    }
+
+    // #########################################################################
+    /**
+     * The commands of the shell file, in the file order.
+     *
+     * @return the commands of the shell file.
+     */
+    public List<ScriptCommand> getCommands() {
+        return commands;
+    }
+
+    /**
+     * Rough estimation of the memory used by this script.
+     *
+     * @return the estimated size of this script, in bytes.
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Open a reader over the commands of this script.
+     *
+     * @return a command file reader positioned before the first command.
+     */
+    public AbstractCommandFileReader openReader() {
+        return new CommandScriptReader(this);
+    }
+
+}
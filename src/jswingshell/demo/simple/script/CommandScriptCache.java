@@ -0,0 +1,299 @@
+package jswingshell.demo.simple.script;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of parsed shell files.
+ *
+ * <p>
+ * Parsed scripts are identified by the path, last modification time and size
+ * of their file, by the charset used to read them, and by the
+ * {@linkplain CommandTokenizer#getDefault() default tokenizer} splitting their
+ * commands: changing the tokenizer makes the files be parsed again. The least
+ * recently used scripts are evicted once the estimated size of the cache
+ * exceeds its maximum size.</p>
+ *
+ * <p>
+ * A script is only cached once it has been read up to its end.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandScriptCache {
+
+    /**
+     * System property defining the maximum size of the default cache, in
+     * bytes.
+     */
+    public static final String MAX_SIZE_PROPERTY = "jswingshell.demo.scriptCache.maxSize";
+
+    /**
+     * Default maximum size of the default cache: 32 MB.
+     */
+    public static final long DEFAULT_MAX_SIZE = 32L * 1024 * 1024;
+
+    private static final CommandScriptCache DEFAULT_CACHE = new CommandScriptCache(Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+
+    /**
+     * The cache shared by the whole application.
+     *
+     * @return the default cache.
+     */
+    public static CommandScriptCache getDefault() {
+        return DEFAULT_CACHE;
+    }
+
+    // #########################################################################
+    private final long maxSize;
+
+    private final Map<ScriptKey, CommandScript> scripts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    /**
+     * Construct a cache.
+     *
+     * @param maxSize the maximum estimated size of the cached scripts, in
+     *                bytes, the cache is disabled if lower or equal to 0
+     */
+    public CommandScriptCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // #########################################################################
+    /**
+     * Open a command file reader for the given file, from the cache if the
+     * file was already parsed and did not change since.
+     *
+     * @param filePath the path of the file to read
+     * @param charset  the charset of the file
+     *
+     * @return a command file reader positioned before the first command.
+     *
+     * @throws FileNotFoundException if the file is not a regular file
+     * @throws IOException           if the file cannot be opened
+     *
+     * @see AbstractCommandFileReader#open(java.lang.String,
+     * java.nio.charset.Charset)
+     */
+    public AbstractCommandFileReader open(String filePath, Charset charset) throws IOException {
+        if (maxSize <= 0) {
+            return AbstractCommandFileReader.open(filePath, charset);
+        }
+
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new FileNotFoundException(filePath);
+        }
+
+        ScriptKey key = new ScriptKey(path, attributes.lastModifiedTime().toMillis(), attributes.size(), charset, CommandTokenizer.getDefault());
+        CommandScript script = get(key);
+        if (script != null) {
+            return script.openReader();
+        }
+
+        return new RecordingCommandFileReader(key, AbstractCommandFileReader.open(filePath, charset));
+    }
+
+    private synchronized CommandScript get(ScriptKey key) {
+        return scripts.get(key);
+    }
+
+    private synchronized void put(ScriptKey key, CommandScript script) {
+        if (script.getEstimatedSize() > maxSize) {
+            return;
+        }
+
+        // Previous versions of the file will not be used anymore
+        for (Iterator<Map.Entry<ScriptKey, CommandScript>> it = scripts.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<ScriptKey, CommandScript> entry = it.next();
+            if (entry.getKey().path.equals(key.path)) {
+                size -= entry.getValue().getEstimatedSize();
+                it.remove();
+            }
+        }
+
+        scripts.put(key, script);
+        size += script.getEstimatedSize();
+
+        // Evict the least recently used scripts
+        for (Iterator<CommandScript> it = scripts.values().iterator(); size > maxSize && it.hasNext();) {
+            size -= it.next().getEstimatedSize();
+            it.remove();
+        }
+    }
+
+    /**
+     * Remove all scripts from the cache.
+     */
+    public synchronized void clear() {
+        scripts.clear();
+        size = 0;
+    }
+
+    /**
+     * Number of scripts in the cache.
+     *
+     * @return the number of cached scripts.
+     */
+    public synchronized int getScriptCount() {
+        return scripts.size();
+    }
+
+    /**
+     * Estimated size of the cached scripts.
+     *
+     * @return the estimated size of the cached scripts, in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Maximum estimated size of the cached scripts.
+     *
+     * @return the maximum size of the cache, in bytes.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    // #########################################################################
+    private static final class ScriptKey {
+
+        final Path path;
+
+        final long lastModifiedTime;
+
+        final long fileSize;
+
+        final Charset charset;
+
+        final ICommandTokenizer tokenizer;
+
+        ScriptKey(Path path, long lastModifiedTime, long fileSize, Charset charset, ICommandTokenizer tokenizer) {
+            this.path = path;
+            this.lastModifiedTime = lastModifiedTime;
+            this.fileSize = fileSize;
+            this.charset = charset;
+            this.tokenizer = tokenizer;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = path.hashCode();
+            hash = 31 * hash + (int) (lastModifiedTime ^ (lastModifiedTime >>> 32));
+            hash = 31 * hash + (int) (fileSize ^ (fileSize >>> 32));
+            hash = 31 * hash + charset.hashCode();
+            hash = 31 * hash + System.identityHashCode(tokenizer);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ScriptKey)) {
+                return false;
+            }
+            ScriptKey other = (ScriptKey) obj;
+            return lastModifiedTime == other.lastModifiedTime
+                    && fileSize == other.fileSize
+                    && path.equals(other.path)
+                    && charset.equals(other.charset)
+                    // Tokenizers do not define their equality
+                    && tokenizer == other.tokenizer;
+        }
+
+    }
+
+    /**
+     * Command file reader keeping the commands read, to cache the script once
+     * the end of the file is reached.
+     */
+    private final class RecordingCommandFileReader extends AbstractCommandFileReader {
+
+        private final ScriptKey key;
+
+        private final AbstractCommandFileReader reader;
+
+        private List<ScriptCommand> commands = new ArrayList<>();
+
+        private long recordedSize;
+
+        private ScriptCommand current;
+
+        private boolean complete;
+
+        RecordingCommandFileReader(ScriptKey key, AbstractCommandFileReader reader) {
+            this.key = key;
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (!reader.next()) {
+                current = null;
+                complete = true;
+                return false;
+            }
+
+            // Muted commands are not displayed, their text is only joined if requested
+            boolean muted = reader.isMuted();
+            current = new ScriptCommand(reader.getLineNumber(), muted, muted ? null : reader.getCommand(), reader.getArguments());
+            if (commands != null) {
+                recordedSize += current.getEstimatedSize();
+                if (recordedSize > maxSize) {
+                    // Too big to be cached, stop recording
+                    commands = null;
+                } else {
+                    commands.add(current);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return reader.getLineNumber();
+        }
+
+        @Override
+        public boolean isMuted() {
+            return reader.isMuted();
+        }
+
+        @Override
+        public String getCommand() {
+            return current != null ? current.getCommand() : null;
+        }
+
+        @Override
+        public String[] getArguments() {
+            return current != null ? current.getArguments() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+            if (complete && commands != null) {
+                put(key, new CommandScript(commands));
+            }
+            commands = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package jswingshell.demo.simple.script;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiler of shell files into their binary form, read by
+ * {@link BinaryCommandFileReader}.
+ *
+ * @author Mathieu Brunot
+ */
+public final class CommandScriptCompiler {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private CommandScriptCompiler() {
+    }
+
+    /**
+     * Compile a shell file.
+     *
+     * @param sourcePath the path of the shell file to compile
+     * @param charset    the charset of the shell file
+     * @param targetPath the path of the compiled shell file
+     *
+     * @return the number of compiled commands.
+     *
+     * @throws IOException if the shell file cannot be read or the compiled
+     *                     file cannot be written
+     */
+    public static int compile(Path sourcePath, Charset charset, Path targetPath) throws IOException {
+        int commandCount = 0;
+
+        try (AbstractCommandFileReader reader = AbstractCommandFileReader.open(sourcePath.toString(), charset);
+                FileChannel channel = FileChannel.open(targetPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            // Header, the position of the identifiers table is only known at the end
+            output.write(BinaryCommandFileReader.MAGIC);
+            output.writeByte(BinaryCommandFileReader.VERSION);
+            output.writeLong(0);
+
+            Map<String, Integer> identifierIndexes = new HashMap<>();
+            List<String> identifiers = new ArrayList<>();
+            while (reader.next()) {
+                String[] arguments = reader.getArguments();
+
+                int flags = 0;
+                if (reader.isMuted()) {
+                    flags |= BinaryCommandFileReader.MUTED_FLAG;
+                } else {
+                    flags |= BinaryCommandFileReader.TEXT_FLAG;
+                }
+                writeVarInt(output, flags);
+                writeVarInt(output, reader.getLineNumber());
+
+                if (arguments.length == 0) {
+                    writeVarInt(output, 0);
+                    writeVarInt(output, 0);
+                } else {
+                    Integer identifierIndex = identifierIndexes.get(arguments[0]);
+                    if (identifierIndex == null) {
+                        identifierIndex = identifiers.size();
+                        identifierIndexes.put(arguments[0], identifierIndex);
+                        identifiers.add(arguments[0]);
+                    }
+                    writeVarInt(output, identifierIndex + 1);
+                    writeVarInt(output, arguments.length - 1);
+                    for (int i = 1; i < arguments.length; i++) {
+                        writeString(output, arguments[i]);
+                    }
+                }
+
+                if ((flags & BinaryCommandFileReader.TEXT_FLAG) != 0) {
+                    writeString(output, reader.getCommand());
+                }
+                commandCount++;
+            }
+
+            // Identifiers table
+            output.flush();
+            long identifiersPosition = channel.position();
+            writeVarInt(output, identifiers.size());
+            for (String identifier : identifiers) {
+                writeString(output, identifier);
+            }
+            output.flush();
+
+            ByteBuffer position = ByteBuffer.allocate(8);
+            position.putLong(identifiersPosition).flip();
+            channel.write(position, BinaryCommandFileReader.MAGIC.length + 1);
+        }
+
+        return commandCount;
+    }
+
+    private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+}
@@ -0,0 +1,59 @@
+package jswingshell.demo.simple.script;
+
+import java.util.List;
+
+/**
+ * Command file reader over an already parsed {@link CommandScript}.
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandScriptReader extends AbstractCommandFileReader {
+
+    private final List<ScriptCommand> commands;
+
+    private int index = -1;
+
+    private ScriptCommand current;
+
+    public CommandScriptReader(CommandScript script) {
+        this.commands = script.getCommands();
+    }
+
+    // #########################################################################
+    @Override
+    public boolean next() {
+        if (index + 1 < commands.size()) {
+            current = commands.get(++index);
+            return true;
+        }
+        index = commands.size();
+        current = null;
+        return false;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return current != null ? current.getLineNumber() : 0;
+    }
+
+    @Override
+    public boolean isMuted() {
+        return current != null && current.isMuted();
+    }
+
+    @Override
+    public String getCommand() {
+        return current != null ? current.getCommand() : null;
+    }
+
+    @Override
+    public String[] getArguments() {
+        return current != null ? current.getArguments() : null;
+    }
+
+    @Override
+    public void close() {
+        current = null;
+    }
+
+}
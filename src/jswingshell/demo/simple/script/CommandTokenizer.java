@@ -0,0 +1,95 @@
+package jswingshell.demo.simple.script;
+
+/**
+ * Split a command line into its command identifier and arguments.
+ *
+ * <p>
+ * Command lines are split by the {@link #getDefault() default tokenizer},
+ * shared by the shell files, the headless shells, the shell window and the
+ * compiler. By default, it is a {@link QuotingCommandTokenizer}, with escapes
+ * if the {@value #ESCAPES_PROPERTY} system property is {@code true}, whose
+ * results are cached by a {@link CachingCommandTokenizer}:</p>
+ * <pre>
+ * echo "            Hello world!"
+ * time "EEE, MMM d, ''yy" en us
+ * </pre>
+ *
+ * @author Mathieu Brunot
+ */
+public final class CommandTokenizer {
+
+    /**
+     * System property defining the number of command lines cached by the
+     * default tokenizer, the cache is disabled if lower or equal to 0.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "jswingshell.demo.tokenizer.cacheSize";
+
+    /**
+     * System property enabling the backslash escapes of the default tokenizer
+     * ({@code false} by default).
+     *
+     * @see QuotingCommandTokenizer#isEscapes()
+     */
+    public static final String ESCAPES_PROPERTY = "jswingshell.demo.tokenizer.escapes";
+
+    private static volatile ICommandTokenizer defaultTokenizer = createDefault(Boolean.getBoolean(ESCAPES_PROPERTY), Integer.getInteger(CACHE_SIZE_PROPERTY, CachingCommandTokenizer.DEFAULT_CAPACITY));
+
+    private static ICommandTokenizer createDefault(boolean escapes, int cacheSize) {
+        ICommandTokenizer tokenizer = new QuotingCommandTokenizer(escapes);
+        return cacheSize > 0 ? new CachingCommandTokenizer(tokenizer, cacheSize) : tokenizer;
+    }
+
+    private CommandTokenizer() {
+    }
+
+    /**
+     * The tokenizer shared by the whole application.
+     *
+     * @return the default tokenizer.
+     */
+    public static ICommandTokenizer getDefault() {
+        return defaultTokenizer;
+    }
+
+    /**
+     * Replace the tokenizer shared by the whole application.
+     *
+     * @param tokenizer the new default tokenizer
+     */
+    public static void setDefault(ICommandTokenizer tokenizer) {
+        if (tokenizer == null) {
+            throw new IllegalArgumentException("Tokenizer cannot be null");
+        }
+        defaultTokenizer = tokenizer;
+    }
+
+    // #########################################################################
+    /**
+     * Split the given command line with the default tokenizer.
+     *
+     * @param commandLine the command line to split
+     *
+     * @return the command identifier followed by its arguments, or an empty
+     *         array if the command line is empty.
+     *
+     * @see ICommandTokenizer#tokenize(java.lang.String)
+     */
+    public static String[] split(String commandLine) {
+        return defaultTokenizer.tokenize(commandLine);
+    }
+
+    /**
+     * Join a command identifier and its arguments into a command line, which
+     * gives them back once {@link #split(java.lang.String) split}.
+     *
+     * @param tokens the command identifier followed by its arguments
+     *
+     * @return the command line.
+     *
+     * @see ICommandTokenizer#join(java.lang.String...)
+     */
+    public static String join(String... tokens) {
+        return defaultTokenizer.join(tokens);
+    }
+
+}
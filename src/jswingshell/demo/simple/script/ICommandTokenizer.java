@@ -0,0 +1,39 @@
+package jswingshell.demo.simple.script;
+
+/**
+ * Split command lines into their command identifier and arguments, and join
+ * them back.
+ *
+ * <p>
+ * Implementations must be thread safe: a single tokenizer is shared by the
+ * shell files, the headless shells and the compiler, see
+ * {@link CommandTokenizer#getDefault()}.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public interface ICommandTokenizer {
+
+    /**
+     * Split a command line.
+     *
+     * <p>
+     * The returned array belongs to the caller, who may modify it.</p>
+     *
+     * @param commandLine the command line to split
+     *
+     * @return the command identifier followed by its arguments, or an empty
+     *         array if the command line is empty.
+     */
+    String[] tokenize(String commandLine);
+
+    /**
+     * Join a command identifier and its arguments into a command line, which
+     * gives them back once {@link #tokenize(java.lang.String) tokenized}.
+     *
+     * @param tokens the command identifier followed by its arguments
+     *
+     * @return the command line.
+     */
+    String join(String... tokens);
+
+}
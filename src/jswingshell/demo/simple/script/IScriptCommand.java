@@ -0,0 +1,41 @@
+package jswingshell.demo.simple.script;
+
+/**
+ * A command of a shell file.
+ *
+ * @author Mathieu Brunot
+ */
+public interface IScriptCommand {
+
+    /**
+     * Line number of the command in its file, starting at 1.
+     *
+     * @return the line number of the command.
+     */
+    int getLineNumber();
+
+    /**
+     * Whether the command should not be displayed before its execution.
+     *
+     * @return {@code true} if the command is muted.
+     */
+    boolean isMuted();
+
+    /**
+     * The command, trimmed and without its mute prefix.
+     *
+     * @return the command.
+     */
+    String getCommand();
+
+    /**
+     * The command identifier followed by its arguments.
+     *
+     * <p>
+     * The returned array must not be modified.</p>
+     *
+     * @return the command identifier followed by its arguments.
+     */
+    String[] getArguments();
+
+}
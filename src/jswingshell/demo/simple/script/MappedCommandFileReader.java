@@ -0,0 +1,220 @@
+package jswingshell.demo.simple.script;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming command file reader based on a memory-mapped file.
+ *
+ * <p>
+ * The file is mapped by windows of {@link #DEFAULT_WINDOW_SIZE} bytes and line
+ * breaks, white spaces and prefixes are searched directly on the mapped bytes.
+ * A {@link String} is only built for the lines which will be executed, and
+ * only when {@link #getCommand()} is called.</p>
+ *
+ * <p>
+ * The charset of the file must be compatible with ASCII, see
+ * {@link AbstractCommandFileReader#isAsciiCompatible(java.nio.charset.Charset)}.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class MappedCommandFileReader extends AbstractCommandFileReader {
+
+    /**
+     * Default size of the mapped windows of the file.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte LINE_FEED = '\n';
+
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private static final byte MUTE_BYTE = (byte) MUTE_PREFIX.charAt(0);
+
+    private static final byte COMMENT_BYTE = (byte) COMMENT_PREFIX.charAt(0);
+
+    private final FileChannel channel;
+
+    private final Charset charset;
+
+    private final long fileSize;
+
+    private int windowSize;
+
+    private MappedByteBuffer window;
+
+    /**
+     * Position of the current window in the file.
+     */
+    private long windowStart;
+
+    /**
+     * Position of the next line in the current window.
+     */
+    private int position;
+
+    private int lineNumber;
+
+    private int commandStart;
+
+    private int commandEnd;
+
+    private boolean muted;
+
+    private String command;
+
+    private byte[] commandBytes = new byte[256];
+
+    public MappedCommandFileReader(Path path, Charset charset) throws IOException {
+        this(path, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedCommandFileReader(Path path, Charset charset, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.charset = charset;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    // #########################################################################
+    private void map(long start) throws IOException {
+        windowStart = start;
+        position = 0;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+    }
+
+    private boolean isLastWindow() {
+        return windowStart + window.limit() >= fileSize;
+    }
+
+    /**
+     * Search the end of the line starting at the current position, mapping
+     * the next window of the file if the line is not complete.
+     *
+     * @return the position of the line terminator in the current window, or
+     *         the window limit for the last line of the file.
+     *
+     * @throws IOException if the next window cannot be mapped
+     */
+    private int findLineEnd() throws IOException {
+        while (true) {
+            int limit = window.limit();
+            for (int i = position; i < limit; i++) {
+                byte b = window.get(i);
+                if (b == LINE_FEED) {
+                    return i;
+                } else if (b == CARRIAGE_RETURN) {
+                    // Need the next byte to know whether it is a "\r\n"
+                    if (i + 1 < limit || isLastWindow()) {
+                        return i;
+                    }
+                    break;
+                }
+            }
+
+            if (isLastWindow()) {
+                return limit;
+            }
+
+            if (position == 0) {
+                // The line does not fit in a whole window
+                if (windowSize == Integer.MAX_VALUE) {
+                    throw new IOException("Line " + (lineNumber + 1) + " is too long to be mapped");
+                }
+                windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+            }
+            map(windowStart + position);
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        command = null;
+
+        while (position < window.limit() || !isLastWindow()) {
+            int lineEnd = findLineEnd();
+            // Mapping may have moved the line to the start of a new window
+            int lineStart = position;
+
+            // Skip the line terminator
+            position = lineEnd;
+            if (position < window.limit()) {
+                if (window.get(position) == CARRIAGE_RETURN
+                        && position + 1 < window.limit() && window.get(position + 1) == LINE_FEED) {
+                    position++;
+                }
+                position++;
+            }
+            lineNumber++;
+
+            // Trim the line the same way as String#trim
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && (window.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (window.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+
+            if (start == end) {
+                continue;
+            }
+
+            if (window.get(start) == MUTE_BYTE) {
+                muted = true;
+                start++;
+            } else if (end - start >= 2 && window.get(start) == COMMENT_BYTE && window.get(start + 1) == COMMENT_BYTE) {
+                continue;
+            } else {
+                muted = false;
+            }
+
+            commandStart = start;
+            commandEnd = end;
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean isMuted() {
+        return muted;
+    }
+
+    @Override
+    public String getCommand() {
+        if (command == null) {
+            int length = commandEnd - commandStart;
+            if (commandBytes.length < length) {
+                commandBytes = new byte[Math.max(length, 2 * commandBytes.length)];
+            }
+            for (int i = 0; i < length; i++) {
+                commandBytes[i] = window.get(commandStart + i);
+            }
+            command = new String(commandBytes, 0, length, charset);
+        }
+        return command;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+}
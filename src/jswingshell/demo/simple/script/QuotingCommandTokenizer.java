@@ -0,0 +1,215 @@
+package jswingshell.demo.simple.script;
+
+import java.util.Arrays;
+
+/**
+ * Tokenizer splitting command lines on white spaces, with quotes and
+ * optionally escapes.
+ *
+ * <p>
+ * Arguments are separated by white spaces, unless they are surrounded by
+ * double quotes:</p>
+ * <pre>
+ * echo "            Hello world!"
+ * time "EEE, MMM d, ''yy" en us
+ * </pre>
+ *
+ * <p>
+ * With escapes enabled, a backslash also escapes the double quote, backslash
+ * or white space following it; any other backslash is kept as is, so that most
+ * file paths need no escaping:</p>
+ * <pre>
+ * echo "He said \"hello\"" and\ left
+ * load C:\scripts\demo.shell
+ * </pre>
+ * <p>
+ * Escapes change the meaning of existing command lines, like
+ * {@code load "C:\scripts\"} or {@code echo a\ b}, they are therefore
+ * disabled by default. Without escapes, a double quote cannot be part of an
+ * argument: arguments containing one are not given back by
+ * {@link #tokenize(java.lang.String) tokenizing} their
+ * {@link #join(java.lang.String...) joined} command line.</p>
+ *
+ * <p>
+ * Command lines without any quote nor backslash, the most common ones, are
+ * split without any intermediate buffer.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class QuotingCommandTokenizer implements ICommandTokenizer {
+
+    private static final char QUOTE = '"';
+
+    private static final char ESCAPE = '\\';
+
+    private static final String[] EMPTY = new String[0];
+
+    private static final int INITIAL_TOKEN_COUNT = 8;
+
+    // #########################################################################
+    private final boolean escapes;
+
+    /**
+     * Construct a tokenizer without escapes.
+     */
+    public QuotingCommandTokenizer() {
+        this(false);
+    }
+
+    /**
+     * Construct a tokenizer.
+     *
+     * @param escapes {@code true} to let backslashes escape double quotes,
+     *                backslashes and white spaces
+     */
+    public QuotingCommandTokenizer(boolean escapes) {
+        this.escapes = escapes;
+    }
+
+    // #########################################################################
+    /**
+     * Do backslashes escape double quotes, backslashes and white spaces?
+     *
+     * @return {@code true} if escapes are enabled.
+     */
+    public boolean isEscapes() {
+        return escapes;
+    }
+
+    @Override
+    public String[] tokenize(String commandLine) {
+        if (commandLine == null || commandLine.isEmpty()) {
+            return EMPTY;
+        }
+
+        int tokenCount = 0;
+        boolean inToken = false;
+        for (int i = 0, n = commandLine.length(); i < n; i++) {
+            char c = commandLine.charAt(i);
+            if (c == QUOTE || (escapes && c == ESCAPE)) {
+                return tokenizeQuoted(commandLine);
+            } else if (Character.isWhitespace(c)) {
+                inToken = false;
+            } else if (!inToken) {
+                tokenCount++;
+                inToken = true;
+            }
+        }
+
+        String[] tokens = new String[tokenCount];
+        int tokenIndex = 0;
+        int tokenStart = -1;
+        for (int i = 0, n = commandLine.length(); i < n; i++) {
+            if (Character.isWhitespace(commandLine.charAt(i))) {
+                if (tokenStart >= 0) {
+                    tokens[tokenIndex++] = commandLine.substring(tokenStart, i);
+                    tokenStart = -1;
+                }
+            } else if (tokenStart < 0) {
+                tokenStart = i;
+            }
+        }
+        if (tokenStart >= 0) {
+            tokens[tokenIndex] = commandLine.substring(tokenStart);
+        }
+        return tokens;
+    }
+
+    private String[] tokenizeQuoted(String commandLine) {
+        String[] tokens = new String[INITIAL_TOKEN_COUNT];
+        int tokenCount = 0;
+        StringBuilder token = new StringBuilder(commandLine.length());
+        boolean inToken = false;
+        boolean quoted = false;
+
+        for (int i = 0, n = commandLine.length(); i < n; i++) {
+            char c = commandLine.charAt(i);
+            if (escapes && c == ESCAPE && i + 1 < n && isEscapable(commandLine.charAt(i + 1))) {
+                token.append(commandLine.charAt(++i));
+                inToken = true;
+            } else if (c == QUOTE) {
+                quoted = !quoted;
+                inToken = true;
+            } else if (!quoted && Character.isWhitespace(c)) {
+                if (inToken) {
+                    if (tokenCount == tokens.length) {
+                        tokens = Arrays.copyOf(tokens, tokenCount * 2);
+                    }
+                    tokens[tokenCount++] = token.toString();
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            if (tokenCount == tokens.length) {
+                tokens = Arrays.copyOf(tokens, tokenCount + 1);
+            }
+            tokens[tokenCount++] = token.toString();
+        }
+
+        return tokenCount == tokens.length ? tokens : Arrays.copyOf(tokens, tokenCount);
+    }
+
+    @Override
+    public String join(String... tokens) {
+        if (tokens == null || tokens.length == 0) {
+            return "";
+        }
+
+        StringBuilder commandLine = new StringBuilder();
+        for (int i = 0, n = tokens.length; i < n; i++) {
+            if (i > 0) {
+                commandLine.append(' ');
+            }
+            String token = tokens[i];
+            if (token.isEmpty() || needsQuotes(token)) {
+                appendQuoted(commandLine, token);
+            } else {
+                commandLine.append(token);
+            }
+        }
+        return commandLine.toString();
+    }
+
+    // #########################################################################
+    private static boolean isEscapable(char c) {
+        return c == QUOTE || c == ESCAPE || Character.isWhitespace(c);
+    }
+
+    private boolean needsQuotes(String token) {
+        for (int i = 0, n = token.length(); i < n; i++) {
+            char c = token.charAt(i);
+            if (c == QUOTE || Character.isWhitespace(c)) {
+                return true;
+            } else if (escapes && c == ESCAPE && (i + 1 == n || isEscapable(token.charAt(i + 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendQuoted(StringBuilder commandLine, String token) {
+        commandLine.append(QUOTE);
+        if (!escapes) {
+            // Double quotes of the token are lost
+            commandLine.append(token).append(QUOTE);
+            return;
+        }
+        for (int i = 0, n = token.length(); i < n; i++) {
+            char c = token.charAt(i);
+            if (c == QUOTE) {
+                commandLine.append(ESCAPE);
+            } else if (c == ESCAPE && (i + 1 == n || isEscapable(token.charAt(i + 1)))) {
+                // Followed by the closing quote or an escapable character
+                commandLine.append(ESCAPE);
+            }
+            commandLine.append(c);
+        }
+        commandLine.append(QUOTE);
+    }
+
+}
@@ -0,0 +1,106 @@
+package jswingshell.demo.simple.script;
+
+/**
+ * A command of a shell file.
+ *
+ * @author Mathieu Brunot
+ */
+public class ScriptCommand implements IScriptCommand {
+
+    private final int lineNumber;
+
+    private final boolean muted;
+
+    private final String command;
+
+    private volatile String[] arguments;
+
+    public ScriptCommand(int lineNumber, boolean muted, String command) {
+        this(lineNumber, muted, command, null);
+    }
+
+    /**
+     * Construct a command whose arguments are already split.
+     *
+     * @param lineNumber the line number of the command in its file
+     * @param muted      whether the command is not displayed before its
+     *                   execution
+     * @param command    the command, or {@code null} to join the arguments
+     *                   only if the command is requested
+     * @param arguments  the command identifier followed by its arguments, or
+     *                   {@code null} to split the command only if the
+     *                   arguments are requested
+     */
+    public ScriptCommand(int lineNumber, boolean muted, String command, String[] arguments) {
+        if (command == null && arguments == null) {
+            throw new IllegalArgumentException("Command and arguments cannot be both null");
+        }
+        this.lineNumber = lineNumber;
+        this.muted = muted;
+        this.command = command;
+        this.arguments = arguments;
+    }
+
+    // #########################################################################
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean isMuted() {
+        return muted;
+    }
+
+    @Override
+    public String getCommand() {
+        // Commands without text are muted ones, seldom displayed: the joined text is not kept
+        return command != null ? command : CommandTokenizer.join(arguments);
+    }
+
+    @Override
+    public String[] getArguments() {
+        String[] commandArguments = arguments;
+        if (commandArguments == null) {
+            // Splitting always gives the same result, no need to lock
+            commandArguments = CommandTokenizer.split(command);
+            arguments = commandArguments;
+        }
+        return commandArguments;
+    }
+
+    /**
+     * Rough estimation of the memory used by this command, including its
+     * split arguments.
+     *
+     * <p>
+     * Arguments not split yet are assumed to be as long as the command, so
+     * that the estimation does not change once they are.</p>
+     *
+     * @return the estimated size of this command, in bytes.
+     */
+    public long getEstimatedSize() {
+        // Object header and references, then each string with its header
+        long size = 32;
+        String[] commandArguments = arguments;
+        if (commandArguments != null) {
+            size += 16 + 4L * commandArguments.length;
+            for (String argument : commandArguments) {
+                size += 40 + 2L * argument.length();
+            }
+        }
+        if (command != null) {
+            size += 40 + 2L * command.length();
+            if (commandArguments == null) {
+                size += 56 + 2L * command.length();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return lineNumber + ": " + (muted ? AbstractCommandFileReader.MUTE_PREFIX : "") + getCommand();
+    }
+
+}
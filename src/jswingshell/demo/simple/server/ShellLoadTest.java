@@ -0,0 +1,176 @@
+package jswingshell.demo.simple.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of a {@link ShellServer}.
+ *
+ * <p>
+ * Opens sessions which all send the same command a number of times, each one
+ * waiting for the response to the previous command, and reports the number of
+ * sessions which completed, the number of commands per second and the latency
+ * percentiles of the commands.</p>
+ *
+ * <p>
+ * The response framing is checked along the way: the same command must get
+ * the same response, output and return status, every time. Responses which
+ * differ from the first one of their session, like output written after the
+ * end of the response to the previous command, are reported as mismatched,
+ * and the load test then exits with status 1, as when sessions fail. Commands
+ * whose output changes between two calls are not suited to this check.</p>
+ *
+ * <pre>
+ * java -cp ... jswingshell.demo.simple.server.ShellLoadTest [port] [sessions] [commands] [command]
+ * java -cp ... jswingshell.demo.simple.server.ShellLoadTest 4455 500 1000 "time yyyy-MM-dd"
+ * java -cp ... jswingshell.demo.simple.server.ShellLoadTest 4455 50 200 "loadCommandFile missing.shell"
+ * </pre>
+ *
+ * @author Mathieu Brunot
+ */
+public class ShellLoadTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String DEFAULT_COMMAND = "echo Hello world!";
+
+    /**
+     * @param args the port of the server, the number of sessions, the number
+     *             of commands per session and the command to send
+     *
+     * @throws InterruptedException if interrupted while waiting for the
+     *                              sessions
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : ShellServer.DEFAULT_PORT;
+        final int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        final int commands = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        final String command = args.length > 3 ? args[3] : DEFAULT_COMMAND;
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+
+        final long[][] latencies = new long[sessions][];
+        final AtomicInteger failedSessions = new AtomicInteger();
+        final AtomicInteger mismatchedResponses = new AtomicInteger();
+        final CountDownLatch connected = new CountDownLatch(sessions);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(sessions);
+
+        for (int i = 0; i < sessions; i++) {
+            final int session = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    boolean sessionConnected = false;
+                    try (Socket socket = new Socket()) {
+                        socket.setTcpNoDelay(true);
+                        socket.connect(address);
+                        sessionConnected = true;
+                        connected.countDown();
+                        start.await();
+                        latencies[session] = runSession(socket, command, commands, mismatchedResponses);
+                    } catch (IOException | InterruptedException e) {
+                        failedSessions.incrementAndGet();
+                        System.err.println("Session " + session + " failed: " + e);
+                    } finally {
+                        if (!sessionConnected) {
+                            // The other sessions do not wait for this one
+                            connected.countDown();
+                        }
+                        done.countDown();
+                    }
+                }
+            }, "jss-load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        connected.await();
+        long startTime = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedTime = System.nanoTime() - startTime;
+
+        // Merge the latencies of all the sessions
+        int commandCount = 0;
+        for (long[] sessionLatencies : latencies) {
+            commandCount += sessionLatencies != null ? sessionLatencies.length : 0;
+        }
+        long[] allLatencies = new long[commandCount];
+        int position = 0;
+        for (long[] sessionLatencies : latencies) {
+            if (sessionLatencies != null) {
+                System.arraycopy(sessionLatencies, 0, allLatencies, position, sessionLatencies.length);
+                position += sessionLatencies.length;
+            }
+        }
+        Arrays.sort(allLatencies);
+
+        System.out.println("Command:            " + command);
+        System.out.println("Sessions:           " + (sessions - failedSessions.get()) + "/" + sessions);
+        System.out.println("Commands:           " + commandCount);
+        System.out.printf("Commands/s:         %.0f%n", commandCount / (elapsedTime / 1e9));
+        System.out.printf("Latency p50 (ms):   %.3f%n", percentile(allLatencies, 0.50) / 1e6);
+        System.out.printf("Latency p99 (ms):   %.3f%n", percentile(allLatencies, 0.99) / 1e6);
+        System.out.printf("Latency max (ms):   %.3f%n", percentile(allLatencies, 1.0) / 1e6);
+        System.out.println("Mismatched:         " + mismatchedResponses.get());
+
+        if (failedSessions.get() > 0 || mismatchedResponses.get() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static long[] runSession(Socket socket, String command, int commands, AtomicInteger mismatchedResponses) throws IOException {
+        long[] latencies = new long[commands];
+        OutputStream output = socket.getOutputStream();
+        BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+        byte[] commandLine = (command + "\n").getBytes(UTF_8);
+
+        // Lines of the first response, and of the current one, end of response included
+        List<String> firstResponse = null;
+        List<String> response = new ArrayList<>();
+        for (int i = 0; i < commands; i++) {
+            long commandStart = System.nanoTime();
+            output.write(commandLine);
+            output.flush();
+
+            response.clear();
+            String line;
+            do {
+                line = input.readLine();
+                if (line == null) {
+                    throw new IOException("Session closed by the server");
+                }
+                response.add(line);
+            } while (line.isEmpty() || line.charAt(0) != ShellServer.END_OF_RESPONSE);
+            latencies[i] = System.nanoTime() - commandStart;
+
+            if (firstResponse == null) {
+                firstResponse = new ArrayList<>(response);
+            } else if (!firstResponse.equals(response)) {
+                mismatchedResponses.incrementAndGet();
+            }
+        }
+
+        return latencies;
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(index, sortedValues.length - 1))];
+    }
+
+}
@@ -0,0 +1,310 @@
+package jswingshell.demo.simple.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jswingshell.demo.simple.JssHeadlessDemo;
+import jswingshell.demo.simple.action.ExitAction;
+import jswingshell.demo.simple.action.HistoryAction;
+import jswingshell.demo.simple.action.WorkerBackend;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+
+/**
+ * Server giving access to headless shells over local TCP connections.
+ *
+ * <p>
+ * Each connection is a session with its own shell. The client sends command
+ * lines in UTF-8; the server answers each one with the output of the command,
+ * followed by a line made of {@link #END_OF_RESPONSE} and the return status of
+ * the command:</p>
+ * <pre>
+ * &gt; echo Hello world!
+ * &lt; Hello world!
+ * &lt; \u00000
+ * </pre>
+ *
+ * <p>
+ * A single selector thread accepts the connections and reads and writes all
+ * the sessions. The commands of a session are executed one after the other,
+ * each session in its own virtual thread, or in a pooled daemon thread if
+ * virtual threads are not available.</p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ShellServer implements Closeable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ShellServer.class.getName());
+
+    /**
+     * Default port of the server.
+     */
+    public static final int DEFAULT_PORT = 4455;
+
+    /**
+     * First character of the line ending the response to a command, followed
+     * by the return status of the command.
+     */
+    public static final char END_OF_RESPONSE = '\u0000';
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Selector selector;
+
+    private final Executor executor;
+
+    /**
+     * Sessions with new output to write.
+     */
+    private final Queue<ShellSession> writeRequests = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    private final Thread selectorThread;
+
+    private volatile boolean closed;
+
+    /**
+     * Start a server on the loopback interface.
+     *
+     * @param port the port of the server, 0 for any free port
+     *
+     * @throws IOException if the server cannot be started
+     */
+    public ShellServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), WorkerBackend.getVirtualThreadExecutor());
+    }
+
+    /**
+     * Start a server.
+     *
+     * @param address  the address of the server
+     * @param executor the executor of the commands of the sessions
+     *
+     * @throws IOException if the server cannot be started
+     */
+    public ShellServer(InetSocketAddress address, Executor executor) throws IOException {
+        this.executor = executor;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address, 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+
+        selectorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                select();
+            }
+        }, "jss-server-selector");
+        selectorThread.start();
+    }
+
+    // #########################################################################
+    /**
+     * The address the server listens to.
+     *
+     * @return the address of the server.
+     *
+     * @throws IOException if the server is closed
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Number of sessions currently opened.
+     *
+     * @return the number of sessions.
+     */
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Create the shell of a new session.
+     *
+     * <p>
+     * Sessions have the actions of the demonstration, except the one exiting
+     * the application and the one displaying the command history of the
+     * user.</p>
+     *
+     * @param out     the output stream of the session
+     * @param charset the charset of the output stream
+     *
+     * @return the shell of the session.
+     */
+    protected HeadlessShellController createShell(PrintStream out, Charset charset) {
+        HeadlessShellController shell = JssHeadlessDemo.createShell(out, out, charset);
+        shell.remove(shell.getActionForCommandIdentifier(ExitAction.DEFAULT_IDENTIFIER));
+        shell.remove(shell.getActionForCommandIdentifier(HistoryAction.DEFAULT_IDENTIFIER));
+        return shell;
+    }
+
+    /**
+     * Stop the server and close all its sessions.
+     *
+     * @throws IOException if the server cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        // The selector thread closes the sessions, then the selector
+        closed = true;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ask the selector thread to write the output of a session.
+     *
+     * @param session the session with new output
+     */
+    void requestWrite(ShellSession session) {
+        writeRequests.add(session);
+        selector.wakeup();
+    }
+
+    // #########################################################################
+    private void select() {
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        try {
+            while (!closed) {
+                selector.select();
+
+                ShellSession writingSession;
+                while ((writingSession = writeRequests.poll()) != null) {
+                    SelectionKey key = writingSession.getChannel().keyFor(selector);
+                    if (key != null && key.isValid()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    ShellSession session = (ShellSession) key.attachment();
+                    try {
+                        if (key.isReadable() && !session.read(readBuffer)) {
+                            closeSession(key, session);
+                            continue;
+                        }
+                        if (key.isWritable() && session.write()) {
+                            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                        }
+                        // Stop reading commands while the client does not read their output
+                        if (session.getPendingOutput() > ShellSession.MAX_PENDING_OUTPUT) {
+                            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                        } else {
+                            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                        }
+                    } catch (IOException e) {
+                        LOGGER.log(Level.FINE, "Session closed on error.", e);
+                        closeSession(key, session);
+                    }
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            // Server closed
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error occured in shell server.", e);
+        } finally {
+            for (SelectionKey key : selectorKeys()) {
+                if (key.attachment() instanceof ShellSession) {
+                    closeSession(key, (ShellSession) key.attachment());
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Error occured while closing selector.", e);
+            }
+        }
+    }
+
+    private Iterable<SelectionKey> selectorKeys() {
+        try {
+            return selector.keys();
+        } catch (ClosedSelectorException e) {
+            return Collections.emptySet();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            ShellSession session = new ShellSession(this, channel, executor);
+            channel.register(selector, SelectionKey.OP_READ, session);
+            sessionCount.incrementAndGet();
+        }
+    }
+
+    private void closeSession(SelectionKey key, ShellSession session) {
+        key.cancel();
+        // Its key may still be registered once the session was closed
+        if (session.close()) {
+            sessionCount.decrementAndGet();
+        }
+    }
+
+    // #########################################################################
+    /**
+     * Start a shell server.
+     *
+     * @param args the port of the server, {@value #DEFAULT_PORT} by default
+     *
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        // No window, and threaded actions run in the thread of their session
+        System.setProperty("java.awt.headless", "true");
+        WorkerBackend.setDefault(WorkerBackend.DIRECT);
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ShellServer server = new ShellServer(port);
+        System.out.println("Shell server listening on " + server.getAddress());
+    }
+
+}
@@ -0,0 +1,218 @@
+package jswingshell.demo.simple.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.action.JobManager;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+
+/**
+ * Session of a client of the {@link ShellServer}, with its own shell.
+ *
+ * <p>
+ * Commands of a session are executed one after the other, by the executor of
+ * the server, while the selector thread of the server reads and writes the
+ * channel of the session. The end of the response to a command is only written
+ * once the command returned, which a {@link HeadlessShellController headless
+ * shell} guarantees to be after all its output, threaded actions
+ * included.</p>
+ *
+ * @author Mathieu Brunot
+ */
+class ShellSession {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ShellSession.class.getName());
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Size of the output waiting to be written above which the commands of the
+     * client are no longer read.
+     */
+    static final int MAX_PENDING_OUTPUT = 1024 * 1024;
+
+    private final ShellServer server;
+
+    private final SocketChannel channel;
+
+    private final Executor executor;
+
+    private final HeadlessShellController shell;
+
+    /**
+     * Output of the shell, waiting to be written, guarded by {@link #out}.
+     */
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private final PrintStream out;
+
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(0);
+
+    /**
+     * Bytes of the command line being read.
+     */
+    private final ByteArrayOutputStream commandLine = new ByteArrayOutputStream(128);
+
+    private final Queue<String> commands = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    private final Runnable commandsTask = new Runnable() {
+        @Override
+        public void run() {
+            executeCommands();
+        }
+    };
+
+    ShellSession(ShellServer server, SocketChannel channel, Executor executor) {
+        this.server = server;
+        this.channel = channel;
+        this.executor = executor;
+        try {
+            this.out = new PrintStream(output, false, UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        this.shell = server.createShell(out, UTF_8);
+    }
+
+    // #########################################################################
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close the session.
+     *
+     * @return {@code false} if the session was already closed.
+     */
+    synchronized boolean close() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        commands.clear();
+        JobManager.release(shell);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Error occured while closing session.", e);
+        }
+        return true;
+    }
+
+    /**
+     * Read the available command lines, from the selector thread.
+     *
+     * @param buffer the buffer to read with
+     *
+     * @return {@code false} if the client closed the session.
+     *
+     * @throws IOException if the channel cannot be read
+     */
+    boolean read(ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        int count = channel.read(buffer);
+        if (count < 0) {
+            return false;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                String command = new String(commandLine.toByteArray(), UTF_8);
+                commandLine.reset();
+                submit(command.endsWith("\r") ? command.substring(0, command.length() - 1) : command);
+            } else {
+                commandLine.write(b);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the pending output, from the selector thread.
+     *
+     * @return {@code true} if all the output was written.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    boolean write() throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            synchronized (out) {
+                writeBuffer = ByteBuffer.wrap(output.toByteArray());
+                output.reset();
+            }
+        }
+        channel.write(writeBuffer);
+        return !writeBuffer.hasRemaining() && getPendingOutput() == 0;
+    }
+
+    /**
+     * Size of the output waiting to be written.
+     *
+     * @return the size of the pending output, in bytes.
+     */
+    int getPendingOutput() {
+        synchronized (out) {
+            return writeBuffer.remaining() + output.size();
+        }
+    }
+
+    // #########################################################################
+    private void submit(String command) {
+        commands.add(command);
+        if (running.compareAndSet(false, true)) {
+            executor.execute(commandsTask);
+        }
+    }
+
+    private void executeCommands() {
+        while (true) {
+            String command;
+            while (!closed && (command = commands.poll()) != null) {
+                int commandReturnStatus;
+                try {
+                    commandReturnStatus = shell.interpretCommand(command);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Error occured while executing command: " + command, e);
+                    commandReturnStatus = AbstractJssAction.ERROR;
+                }
+                synchronized (out) {
+                    out.print(ShellServer.END_OF_RESPONSE);
+                    out.print(commandReturnStatus);
+                    out.print('\n');
+                    out.flush();
+                }
+                server.requestWrite(this);
+            }
+
+            running.set(false);
+            // A command may have been submitted after the last poll
+            if (closed || commands.isEmpty() || !running.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package jswingshell.demo.simple.action;
+
+import java.util.Arrays;
+import java.util.Collections;
+import jswingshell.action.IJssAction;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.controller.ShellOutputBuffer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ActionIndex}, and of its use by {@link HelpAction}.
+ *
+ * @author Mathieu Brunot
+ */
+public class ActionIndexTest {
+
+    @Test
+    public void testPrefixQueries() {
+        ActionIndex actionIndex = new ActionIndex();
+        EchoAction echoAction = new EchoAction();
+        SleepAction sleepAction = new SleepAction();
+        TimeAction timeAction = new TimeAction();
+        assertTrue(actionIndex.add(echoAction));
+        assertTrue(actionIndex.add(sleepAction));
+        assertTrue(actionIndex.add(timeAction));
+        assertFalse(actionIndex.add(echoAction));
+
+        assertEquals(Arrays.<IJssAction>asList(sleepAction), actionIndex.getActions("sl"));
+        assertEquals(Collections.<IJssAction>emptyList(), actionIndex.getActions("x"));
+
+        assertTrue(actionIndex.remove(sleepAction));
+        assertEquals(Collections.<IJssAction>emptyList(), actionIndex.getActions("sl"));
+        assertEquals(2, actionIndex.getActions().size());
+    }
+
+    @Test
+    public void testUpdateWithReplacedAction() {
+        ActionIndex actionIndex = new ActionIndex();
+        EchoAction echoAction = new EchoAction();
+        SleepAction sleepAction = new SleepAction();
+        actionIndex.update(Arrays.<IJssAction>asList(echoAction, sleepAction));
+        String listing = actionIndex.getListing();
+        actionIndex.update(Arrays.<IJssAction>asList(echoAction, sleepAction));
+        assertSame(listing, actionIndex.getListing());
+
+        // Same number of actions, another one
+        TimeAction timeAction = new TimeAction();
+        actionIndex.update(Arrays.<IJssAction>asList(echoAction, timeAction));
+        assertEquals(Arrays.<IJssAction>asList(timeAction), actionIndex.getActions("t"));
+        assertEquals(Collections.<IJssAction>emptyList(), actionIndex.getActions("sl"));
+    }
+
+    @Test
+    public void testHelpFollowsShellActions() {
+        HeadlessShellController shell = new HeadlessShellController(System.out, System.err);
+        HelpAction helpAction = new HelpAction();
+        shell.add(helpAction);
+        shell.add(new EchoAction());
+
+        ActionIndex actionIndex = helpAction.getActionIndex(shell);
+        assertSame(actionIndex, helpAction.getActionIndex(new ShellOutputBuffer(shell)));
+        String listing = actionIndex.getListing();
+        assertSame(listing, helpAction.getActionIndex(shell).getListing());
+
+        SleepAction sleepAction = new SleepAction();
+        shell.add(sleepAction);
+        assertEquals(Arrays.<IJssAction>asList(sleepAction), helpAction.getActionIndex(shell).getActions("sl"));
+
+        shell.remove(sleepAction);
+        assertEquals(Collections.<IJssAction>emptyList(), helpAction.getActionIndex(shell).getActions("sl"));
+    }
+
+}
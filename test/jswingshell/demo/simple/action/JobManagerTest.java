@@ -0,0 +1,60 @@
+package jswingshell.demo.simple.action;
+
+import java.lang.ref.WeakReference;
+import jswingshell.IJssController;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import jswingshell.demo.simple.controller.ShellOutputBuffer;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of {@link JobManager}.
+ *
+ * @author Mathieu Brunot
+ */
+public class JobManagerTest {
+
+    @Test
+    public void testDecoratorSharesJobManager() {
+        HeadlessShellController shell = new HeadlessShellController(System.out, System.err);
+        ShellOutputBuffer outputBuffer = new ShellOutputBuffer(shell);
+
+        assertSame(JobManager.getInstance(shell), JobManager.getInstance(outputBuffer));
+        JobManager.release(shell);
+    }
+
+    @Test
+    public void testQueueModeLookup() {
+        HeadlessShellController shell = new HeadlessShellController(System.out, System.err);
+
+        assertFalse(JobManager.isQueueMode(null));
+        assertFalse(JobManager.isQueueMode(shell));
+        JobManager.getInstance(shell).setQueueMode(true);
+        assertTrue(JobManager.isQueueMode(new ShellOutputBuffer(shell)));
+
+        JobManager jobManager = JobManager.getInstance(shell);
+        JobManager.release(shell);
+        assertFalse(JobManager.isQueueMode(shell));
+        assertNotSame(jobManager, JobManager.getInstance(shell));
+        JobManager.release(shell);
+    }
+
+    @Test
+    public void testShellIsCollected() throws InterruptedException {
+        HeadlessShellController shell = new HeadlessShellController(System.out, System.err);
+        JobManager.getInstance(shell).setQueueMode(true);
+        WeakReference<IJssController> shellReference = new WeakReference<IJssController>(shell);
+        shell = null;
+
+        for (int i = 0; i < 50 && shellReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(shellReference.get());
+    }
+
+}
@@ -0,0 +1,106 @@
+package jswingshell.demo.simple.action;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the parallel blocks of {@link LoadCommandFile}.
+ *
+ * @author Mathieu Brunot
+ */
+public class LoadCommandFileTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Path scriptPath;
+
+    private ByteArrayOutputStream output;
+
+    private HeadlessShellController shell;
+
+    @Before
+    public void setUp() throws IOException {
+        scriptPath = Files.createTempFile("jss-load-test", ".shell");
+        output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, true, UTF_8.name());
+        shell = new HeadlessShellController(out, out, UTF_8);
+
+        LoadCommandFile loadCommandFile = new LoadCommandFile();
+        loadCommandFile.setCoalescing(false);
+        shell.add(loadCommandFile);
+        shell.add(new EchoAction());
+        shell.add(new SleepAction());
+        shell.add(new WaitAction());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(scriptPath);
+    }
+
+    @Test
+    public void testOutputInFileOrder() throws IOException {
+        int returnStatus = load("@parallel", "sleep 200", "echo b", "@join", "echo c");
+
+        assertEquals(AbstractJssAction.SUCCESS, returnStatus);
+        String text = getOutput();
+        assertTrue(text, text.indexOf("> sleep 200") < text.indexOf("> echo b"));
+        assertTrue(text, text.indexOf("\nb") < text.indexOf("\nc"));
+    }
+
+    @Test
+    public void testFirstErrorCancelsRunningCommands() throws IOException {
+        long start = System.nanoTime();
+        int returnStatus = load("@parallel", "sleep 10000", "sleep -1", "@join", "echo not reached");
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertEquals(AbstractJssAction.ERROR, returnStatus);
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 5000);
+        String text = getOutput();
+        // The output of the cancelled command is kept
+        assertTrue(text, text.contains("Sleep cancelled"));
+        assertTrue(text, text.contains("command \"sleep -1\" at line 3"));
+        assertTrue(text, !text.contains("not reached"));
+    }
+
+    @Test
+    public void testThreadedCommandsAreRejected() throws IOException {
+        int returnStatus = load("@parallel", "echo a", "wait 10", "@join");
+
+        assertEquals(AbstractJssAction.ERROR, returnStatus);
+        String text = getOutput();
+        assertTrue(text, text.contains("\"wait 10\" at line 3 is threaded"));
+        // Nothing of the block was executed
+        assertTrue(text, !text.contains("> echo a"));
+    }
+
+    @Test
+    public void testUnknownCommandsAreRejected() throws IOException {
+        int returnStatus = load("@parallel", "echo a", "unknown", "@join");
+
+        assertEquals(AbstractJssAction.ERROR, returnStatus);
+        assertTrue(getOutput(), getOutput().contains("\"unknown\" at line 3 not found"));
+    }
+
+    private int load(String... lines) throws IOException {
+        Files.write(scriptPath, Arrays.asList(lines), UTF_8);
+        return shell.interpretCommand(LoadCommandFile.DEFAULT_IDENTIFIER + " \"" + scriptPath + "\"");
+    }
+
+    private String getOutput() {
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+}
@@ -0,0 +1,212 @@
+package jswingshell.demo.simple.gui;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ScrollbackLimiter}.
+ *
+ * @author Mathieu Brunot
+ */
+public class ScrollbackLimiterTest {
+
+    private JTextArea textArea;
+
+    private final StringBuilder trimmed = new StringBuilder();
+
+    private final AtomicInteger cleared = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        onEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                textArea = new JTextArea();
+            }
+        });
+    }
+
+    @Test
+    public void testMaxLines() throws Exception {
+        final ScrollbackLimiter limiter = install(8, 0);
+        final StringBuilder text = new StringBuilder();
+        onEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 20; i++) {
+                    String line = "line " + i + "\n";
+                    text.append(line);
+                    textArea.append(line);
+                }
+                textArea.append("> prompt");
+                text.append("> prompt");
+            }
+        });
+        waitEventDispatchThread();
+
+        // Trimmed down to seven eighths of the limit
+        assertEquals(7, limiter.getLineCount());
+        assertEquals(7, textArea.getLineCount());
+        assertTrue(textArea.getText().startsWith("line 14\n"));
+        assertTrue(textArea.getText().endsWith("line 19\n> prompt"));
+        assertEquals(text.toString(), trimmed + textArea.getText());
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        final ScrollbackLimiter limiter = install(0, 80);
+        final StringBuilder text = new StringBuilder();
+        onEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 20; i++) {
+                    String line = "0123456789\n";
+                    text.append(line);
+                    textArea.append(line);
+                }
+            }
+        });
+        waitEventDispatchThread();
+
+        int length = textArea.getDocument().getLength();
+        assertTrue(length <= 80 - 80 / 8);
+        // Only whole lines are removed
+        assertEquals(0, length % 11);
+        assertEquals(length / 11 + 1, limiter.getLineCount());
+        assertEquals(text.toString(), trimmed + textArea.getText());
+    }
+
+    @Test
+    public void testLastLineNotTrimmed() throws Exception {
+        install(0, 16);
+        final String commandLine = "echo a command line longer than the limit";
+        onEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                textArea.append("first line\n");
+                textArea.append(commandLine);
+            }
+        });
+        waitEventDispatchThread();
+
+        assertEquals(commandLine, textArea.getText());
+        assertEquals("first line\n", trimmed.toString());
+    }
+
+    @Test
+    public void testCleared() throws Exception {
+        final ScrollbackLimiter limiter = install(8, 0);
+        onEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                textArea.append("line 1\nline 2\n");
+                textArea.setText("");
+            }
+        });
+        waitEventDispatchThread();
+
+        assertEquals(1, cleared.get());
+        assertEquals(1, limiter.getLineCount());
+    }
+
+    @Test
+    public void testAppendedFromOtherThread() throws Exception {
+        final ScrollbackLimiter limiter = install(8, 0);
+        // JTextArea#append is not atomic: hold the Event Dispatch Thread so that it does not trim meanwhile
+        final CountDownLatch appended = new CountDownLatch(1);
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    appended.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final StringBuilder text = new StringBuilder();
+        try {
+            for (int i = 0; i < 20; i++) {
+                // Appended outside of the Event Dispatch Thread, counted again later
+                String line = "line " + i + "\n";
+                text.append(line);
+                textArea.append(line);
+            }
+        } finally {
+            appended.countDown();
+        }
+        waitEventDispatchThread();
+
+        assertEquals(7, limiter.getLineCount());
+        assertEquals(7, textArea.getLineCount());
+        assertTrue(textArea.getText().startsWith("line 14\n"));
+        assertEquals(text.toString(), trimmed + textArea.getText());
+    }
+
+    @Test
+    public void testInstall() throws Exception {
+        ScrollbackLimiter limiter = install(8, 0);
+        assertSame(limiter, ScrollbackLimiter.getInstalled(textArea));
+
+        ScrollbackLimiter replacement = install(16, 0);
+        assertSame(replacement, ScrollbackLimiter.getInstalled(textArea));
+        assertEquals(16, replacement.getMaxLines());
+
+        replacement.uninstall();
+        assertNull(ScrollbackLimiter.getInstalled(textArea));
+    }
+
+    // #########################################################################
+    private ScrollbackLimiter install(int maxLines, int maxSize) throws Exception {
+        final ScrollbackLimiter[] limiter = new ScrollbackLimiter[1];
+        final ScrollbackLimiter.ScrollbackListener listener = new ScrollbackLimiter.ScrollbackListener() {
+            @Override
+            public void linesTrimmed(String lines) {
+                trimmed.append(lines);
+            }
+
+            @Override
+            public void scrollbackCleared() {
+                cleared.incrementAndGet();
+            }
+        };
+        final int lines = maxLines;
+        final int size = maxSize;
+        onEventDispatchThread(new Runnable() {
+            @Override
+            public void run() {
+                limiter[0] = ScrollbackLimiter.install(textArea, lines, size);
+                limiter[0].addScrollbackListener(listener);
+            }
+        });
+        return limiter[0];
+    }
+
+    private static void onEventDispatchThread(Runnable task) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(task);
+    }
+
+    /**
+     * Wait for the tasks scheduled on the Event Dispatch Thread, and for the
+     * tasks they schedule themselves.
+     */
+    private static void waitEventDispatchThread() throws InterruptedException, InvocationTargetException {
+        for (int i = 0; i < 4; i++) {
+            onEventDispatchThread(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package jswingshell.demo.simple.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CommandHistory}.
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandHistoryTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int SEGMENT_SIZE = 64;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jss-history-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path path : listFiles(null)) {
+            Files.delete(path);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testAddAndReopen() throws IOException {
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            assertTrue(history.add("echo Hello world!"));
+            assertFalse(history.add("echo Hello world!"));
+            assertFalse(history.add("   "));
+            assertTrue(history.add("time \u00e9t\u00e9"));
+            assertTrue(history.add("echo Hello world!"));
+            assertEquals(3, history.size());
+        }
+
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            assertEquals(3, history.size());
+            assertEquals("echo Hello world!", history.get(0));
+            assertEquals("time \u00e9t\u00e9", history.get(1));
+            assertEquals(2, history.search("Hello", history.size()));
+            assertEquals(0, history.search("Hello", 2));
+            assertEquals(1, history.search("\u00e9t\u00e9", history.size()));
+            assertEquals(-1, history.search("wait", history.size()));
+            // Still the last command once reopened
+            assertFalse(history.add("echo Hello world!"));
+        }
+    }
+
+    @Test
+    public void testCrashTailRecovery() throws IOException {
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            history.add("echo first");
+            history.add("echo second");
+        }
+
+        // A command interrupted while being written, in a segment not truncated
+        Path segmentPath = listFiles("history-*.log").get(0);
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap("echo inter".getBytes(UTF_8)), channel.size());
+            channel.write(ByteBuffer.allocate(SEGMENT_SIZE - (int) channel.size()), channel.size());
+        }
+
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            assertEquals(2, history.size());
+            assertEquals("echo second", history.get(1));
+            assertEquals(-1, history.search("inter", history.size()));
+
+            assertTrue(history.add("echo third"));
+            assertEquals(3, history.size());
+            assertEquals("echo third", history.get(2));
+        }
+
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            assertEquals(3, history.size());
+            assertEquals("echo second", history.get(1));
+            assertEquals("echo third", history.get(2));
+        }
+    }
+
+    @Test
+    public void testRotation() throws IOException {
+        List<String> commands = new ArrayList<>();
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 3)) {
+            for (int i = 0; i < 100; i++) {
+                String command = "echo command " + i;
+                assertTrue(history.add(command));
+                commands.add(command);
+            }
+
+            assertEquals(3, listFiles("history-*.log").size());
+            long size = history.size();
+            assertTrue(size > 0 && size < commands.size());
+            // The most recent commands are kept, in order
+            for (long i = 0; i < size; i++) {
+                assertEquals(commands.get((int) (commands.size() - size + i)), history.get(i));
+            }
+            assertEquals(-1, history.search("command 0", size));
+            assertEquals(size - 1, history.search("command 99", size));
+        }
+
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 2)) {
+            // Fewer segments kept once reopened
+            assertEquals(2, listFiles("history-*.log").size());
+            assertEquals(commands.get(commands.size() - 1), history.get(history.size() - 1));
+        }
+    }
+
+    @Test
+    public void testReadOnlyWhileUsed() throws IOException {
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            history.add("echo Hello world!");
+            try (CommandHistory otherHistory = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+                assertTrue(otherHistory.isReadOnly());
+                assertFalse(otherHistory.add("echo Goodbye"));
+            }
+            assertFalse(history.isReadOnly());
+        }
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        try (CommandHistory history = new CommandHistory(directory, SEGMENT_SIZE, 4)) {
+            for (int i = 0; i < 10; i++) {
+                history.add("echo command " + i);
+            }
+            history.clear();
+            assertEquals(0, history.size());
+            assertEquals(1, listFiles("history-*.log").size());
+            assertTrue(history.add("echo command 9"));
+        }
+    }
+
+    private List<Path> listFiles(String glob) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = glob != null ? Files.newDirectoryStream(directory, glob) : Files.newDirectoryStream(directory)) {
+            for (Path path : directoryStream) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+}
@@ -0,0 +1,70 @@
+package jswingshell.demo.simple.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.demo.simple.action.EchoAction;
+import jswingshell.demo.simple.action.LoadCommandFile;
+import jswingshell.demo.simple.action.SleepAction;
+import jswingshell.demo.simple.controller.HeadlessShellController;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CommandMetrics}.
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandMetricsTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private HeadlessShellController shell;
+
+    @Before
+    public void setUp() throws IOException {
+        CommandMetrics.setEnabled(true);
+        CommandMetrics.resetAll();
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, UTF_8.name());
+        shell = new HeadlessShellController(out, out, UTF_8);
+
+        LoadCommandFile loadCommandFile = new LoadCommandFile();
+        loadCommandFile.setCoalescing(false);
+        shell.add(loadCommandFile);
+        shell.add(new EchoAction());
+        shell.add(new SleepAction());
+    }
+
+    @Test
+    public void testRunRecordsCommand() {
+        EchoAction echoAction = new EchoAction();
+        assertEquals(AbstractJssAction.SUCCESS, CommandMetrics.run(echoAction, shell, "echo", "Hello"));
+        assertEquals(AbstractJssAction.SUCCESS, CommandMetrics.run(echoAction, shell, "echo", "world!"));
+
+        CommandMetrics metrics = CommandMetrics.get(echoAction, "echo");
+        assertEquals(2, metrics.getCount());
+        assertEquals(0, metrics.getErrorCount());
+    }
+
+    @Test
+    public void testShellFileCommandsAreRecorded() throws IOException {
+        Path scriptPath = Files.createTempFile("jss-metrics-test", ".shell");
+        try {
+            Files.write(scriptPath, Arrays.asList("echo 1", "@echo 2", "sleep -1"), UTF_8);
+            shell.interpretCommand(LoadCommandFile.DEFAULT_IDENTIFIER + " \"" + scriptPath + "\"");
+        } finally {
+            Files.delete(scriptPath);
+        }
+
+        assertEquals(1, CommandMetrics.get(LoadCommandFile.DEFAULT_IDENTIFIER).getCount());
+        assertEquals(2, CommandMetrics.get(EchoAction.DEFAULT_IDENTIFIER).getCount());
+        assertEquals(1, CommandMetrics.get(SleepAction.DEFAULT_IDENTIFIER).getErrorCount());
+    }
+
+}
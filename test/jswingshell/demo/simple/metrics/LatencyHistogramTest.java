@@ -0,0 +1,88 @@
+package jswingshell.demo.simple.metrics;
+
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests of {@link LatencyHistogram}.
+ *
+ * @author Mathieu Brunot
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Relative precision of the recorded values.
+     */
+    private static final double PRECISION = 0.02;
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+            histogram.record(value);
+        }
+        assertEquals(LatencyHistogram.SUB_BUCKET_COUNT, histogram.getCount());
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(LatencyHistogram.SUB_BUCKET_COUNT / 2, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.SUB_BUCKET_COUNT, histogram.getValueAtPercentile(100));
+        assertEquals((LatencyHistogram.SUB_BUCKET_COUNT + 1) / 2.0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            // From a microsecond to about ten seconds
+            values[i] = (long) Math.pow(10, 3 + 7 * random.nextDouble());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[]{1, 10, 50, 90, 99, 99.9, 100}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + "th percentile: " + actual + " instead of " + expected,
+                    actual >= expected && actual <= expected * (1 + PRECISION));
+        }
+    }
+
+    @Test
+    public void testHighestEquivalentValue() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 255, 256, 1000, 123456789, Long.MAX_VALUE / 3}) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            assertTrue(value + ": " + highest, highest >= value && highest <= value + value * PRECISION);
+            assertEquals(LatencyHistogram.indexOf(value), LatencyHistogram.indexOf(highest));
+        }
+    }
+
+    @Test
+    public void testNegativeAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+
+        histogram.record(1000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+}
@@ -0,0 +1,107 @@
+package jswingshell.demo.simple.script;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CommandScriptCache}.
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandScriptCacheTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Path scriptPath;
+
+    private ICommandTokenizer defaultTokenizer;
+
+    @Before
+    public void setUp() throws IOException {
+        scriptPath = Files.createTempFile("jss-cache-test", ".shell");
+        defaultTokenizer = CommandTokenizer.getDefault();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        CommandTokenizer.setDefault(defaultTokenizer);
+        Files.delete(scriptPath);
+    }
+
+    @Test
+    public void testCachedOnceRead() throws IOException {
+        Files.write(scriptPath, Arrays.asList("echo Hello world!", "@wait"), UTF_8);
+        CommandScriptCache cache = new CommandScriptCache(1024 * 1024);
+
+        List<String[]> read = readAll(cache);
+        assertEquals(1, cache.getScriptCount());
+        assertEquals(2, read.size());
+        assertArrayEquals(new String[]{"echo", "Hello", "world!"}, read.get(0));
+
+        List<String[]> cached = readAll(cache);
+        assertEquals(1, cache.getScriptCount());
+        assertEquals(read.size(), cached.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertArrayEquals(read.get(i), cached.get(i));
+        }
+    }
+
+    @Test
+    public void testChangedFileParsedAgain() throws IOException {
+        Files.write(scriptPath, Arrays.asList("echo Hello"), UTF_8);
+        CommandScriptCache cache = new CommandScriptCache(1024 * 1024);
+        readAll(cache);
+
+        Files.write(scriptPath, Arrays.asList("echo Hello world!"), UTF_8);
+        List<String[]> read = readAll(cache);
+        assertArrayEquals(new String[]{"echo", "Hello", "world!"}, read.get(0));
+        // The previous version of the file was replaced
+        assertEquals(1, cache.getScriptCount());
+    }
+
+    @Test
+    public void testTokenizerChangeParsedAgain() throws IOException {
+        String line = "echo a\\ b";
+        Files.write(scriptPath, Arrays.asList(line), UTF_8);
+        CommandScriptCache cache = new CommandScriptCache(1024 * 1024);
+
+        ICommandTokenizer withoutEscapes = new QuotingCommandTokenizer(false);
+        CommandTokenizer.setDefault(withoutEscapes);
+        assertArrayEquals(withoutEscapes.tokenize(line), readAll(cache).get(0));
+
+        ICommandTokenizer withEscapes = new QuotingCommandTokenizer(true);
+        CommandTokenizer.setDefault(withEscapes);
+        assertArrayEquals(new String[]{"echo", "a b"}, readAll(cache).get(0));
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        Files.write(scriptPath, Arrays.asList("echo Hello"), UTF_8);
+        CommandScriptCache cache = new CommandScriptCache(0);
+
+        readAll(cache);
+        assertEquals(0, cache.getScriptCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    private List<String[]> readAll(CommandScriptCache cache) throws IOException {
+        List<String[]> arguments = new ArrayList<>();
+        try (AbstractCommandFileReader reader = cache.open(scriptPath.toString(), UTF_8)) {
+            while (reader.next()) {
+                arguments.add(reader.getArguments());
+            }
+        }
+        return arguments;
+    }
+
+}
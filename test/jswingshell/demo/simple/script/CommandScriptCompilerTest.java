@@ -0,0 +1,120 @@
+package jswingshell.demo.simple.script;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link CommandScriptCompiler} and {@link BinaryCommandFileReader}.
+ *
+ * @author Mathieu Brunot
+ */
+public class CommandScriptCompilerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jss-compiler-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path sourcePath = directory.resolve("script.shell");
+        Files.write(sourcePath, Arrays.asList(
+                "// Comment",
+                "echo Hello world!",
+                "",
+                "@echo \"  Muted and quoted  \" \"\"",
+                "   time \"EEE, MMM d, ''yy\" en us   ",
+                "@wait",
+                "load C:\\scripts\\demo.shell",
+                "echo Unicode: \u00e9\u00e8\u4e2d\u6587",
+                "echo Hello world!"), UTF_8);
+        Path compiledPath = directory.resolve("script.jssb");
+
+        assertEquals(7, CommandScriptCompiler.compile(sourcePath, UTF_8, compiledPath));
+
+        List<ScriptCommand> sourceCommands = readCommands(sourcePath);
+        List<ScriptCommand> compiledCommands = readCommands(compiledPath);
+        assertEquals(7, sourceCommands.size());
+        assertEquals(sourceCommands.size(), compiledCommands.size());
+        for (int i = 0; i < sourceCommands.size(); i++) {
+            ScriptCommand sourceCommand = sourceCommands.get(i);
+            ScriptCommand compiledCommand = compiledCommands.get(i);
+            assertEquals(sourceCommand.getLineNumber(), compiledCommand.getLineNumber());
+            assertEquals(sourceCommand.isMuted(), compiledCommand.isMuted());
+            assertArrayEquals(sourceCommand.getArguments(), compiledCommand.getArguments());
+            if (sourceCommand.isMuted()) {
+                // Only the arguments of muted commands are compiled
+                assertArrayEquals(sourceCommand.getArguments(), CommandTokenizer.split(compiledCommand.getCommand()));
+            } else {
+                assertEquals(sourceCommand.getCommand(), compiledCommand.getCommand());
+            }
+        }
+        assertTrue(compiledCommands.get(1).isMuted());
+        assertArrayEquals(new String[]{"echo", "  Muted and quoted  ", ""}, compiledCommands.get(1).getArguments());
+        // Identifiers are shared by the commands
+        assertTrue(compiledCommands.get(0).getArguments()[0] == compiledCommands.get(6).getArguments()[0]);
+    }
+
+    @Test
+    public void testEmptyScript() throws IOException {
+        Path sourcePath = directory.resolve("empty.shell");
+        Files.write(sourcePath, Arrays.asList("// Nothing to do", ""), UTF_8);
+        Path compiledPath = directory.resolve("empty.jssb");
+
+        assertEquals(0, CommandScriptCompiler.compile(sourcePath, UTF_8, compiledPath));
+        try (AbstractCommandFileReader reader = AbstractCommandFileReader.open(compiledPath.toString(), UTF_8)) {
+            assertTrue(reader instanceof BinaryCommandFileReader);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFile() throws IOException {
+        Path sourcePath = directory.resolve("script.shell");
+        Files.write(sourcePath, Arrays.asList("echo Hello world!", "wait 10"), UTF_8);
+        Path compiledPath = directory.resolve("script.jssb");
+        CommandScriptCompiler.compile(sourcePath, UTF_8, compiledPath);
+
+        byte[] bytes = Files.readAllBytes(compiledPath);
+        Files.write(compiledPath, Arrays.copyOf(bytes, BinaryCommandFileReader.HEADER_SIZE + 2));
+        readCommands(compiledPath);
+    }
+
+    private static List<ScriptCommand> readCommands(Path path) throws IOException {
+        List<ScriptCommand> commands = new ArrayList<>();
+        try (AbstractCommandFileReader reader = AbstractCommandFileReader.open(path.toString(), UTF_8)) {
+            while (reader.next()) {
+                commands.add(new ScriptCommand(reader.getLineNumber(), reader.isMuted(), reader.getCommand(), reader.getArguments()));
+            }
+        }
+        return commands;
+    }
+
+}
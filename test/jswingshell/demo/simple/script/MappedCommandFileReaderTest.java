@@ -0,0 +1,116 @@
+package jswingshell.demo.simple.script;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link MappedCommandFileReader}, compared to
+ * {@link BufferedCommandFileReader}.
+ *
+ * @author Mathieu Brunot
+ */
+public class MappedCommandFileReaderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String SCRIPT = "// Comment\r\n"
+            + "echo Hello world!\r\n"
+            + "\n"
+            + "   \t\n"
+            + "  @echo \"  Muted and quoted  \"  \r"
+            + "  // Indented comment\n"
+            + "@\n"
+            + "time \"EEE, MMM d, ''yy\" en us\r\n"
+            + "echo Unicode: \u00e9\u00e8\u4e2d\u6587\n"
+            + "/not a comment\r\n"
+            + "echo Last line without terminator  ";
+
+    private static final String[] EXPECTED = {
+        "2: echo Hello world!",
+        "5: @echo \"  Muted and quoted  \"",
+        "7: @",
+        "8: time \"EEE, MMM d, ''yy\" en us",
+        "9: echo Unicode: \u00e9\u00e8\u4e2d\u6587",
+        "10: /not a comment",
+        "11: echo Last line without terminator"
+    };
+
+    private Path scriptPath;
+
+    @Before
+    public void setUp() throws IOException {
+        scriptPath = Files.createTempFile("jss-mapped-test", ".shell");
+        Files.write(scriptPath, SCRIPT.getBytes(UTF_8));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(scriptPath);
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        assertCommands(new MappedCommandFileReader(scriptPath, UTF_8));
+    }
+
+    @Test
+    public void testSmallWindows() throws IOException {
+        // Lines and "\r\n" terminators split across windows
+        for (int windowSize = 1; windowSize <= 16; windowSize++) {
+            assertCommands(new MappedCommandFileReader(scriptPath, UTF_8, windowSize));
+        }
+    }
+
+    @Test
+    public void testSameAsBufferedReader() throws IOException {
+        assertCommands(new BufferedCommandFileReader(scriptPath, UTF_8));
+    }
+
+    @Test
+    public void testOpen() throws IOException {
+        try (AbstractCommandFileReader reader = AbstractCommandFileReader.open(scriptPath.toString(), UTF_8)) {
+            assertTrue(reader instanceof MappedCommandFileReader);
+        }
+
+        Charset utf16 = Charset.forName("UTF-16");
+        assertFalse(AbstractCommandFileReader.isAsciiCompatible(utf16));
+        Files.write(scriptPath, SCRIPT.getBytes(utf16));
+        AbstractCommandFileReader reader = AbstractCommandFileReader.open(scriptPath.toString(), utf16);
+        assertTrue(reader instanceof BufferedCommandFileReader);
+        assertCommands(reader);
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Files.write(scriptPath, new byte[0]);
+        try (AbstractCommandFileReader reader = new MappedCommandFileReader(scriptPath, UTF_8)) {
+            assertFalse(reader.next());
+        }
+    }
+
+    private static void assertCommands(AbstractCommandFileReader reader) throws IOException {
+        List<String> commands = new ArrayList<>();
+        try {
+            while (reader.next()) {
+                commands.add(reader.getLineNumber() + ": " + (reader.isMuted() ? AbstractCommandFileReader.MUTE_PREFIX : "") + reader.getCommand());
+            }
+        } finally {
+            reader.close();
+        }
+        assertEquals(EXPECTED.length, commands.size());
+        for (int i = 0; i < EXPECTED.length; i++) {
+            assertEquals(EXPECTED[i], commands.get(i));
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package jswingshell.demo.simple.script;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import org.junit.Test;
+
+/**
+ * Tests of {@link QuotingCommandTokenizer} and {@link CachingCommandTokenizer}.
+ *
+ * @author Mathieu Brunot
+ */
+public class QuotingCommandTokenizerTest {
+
+    private static final String[][] TOKENS = {
+        {},
+        {"echo"},
+        {"echo", "Hello", "world!"},
+        {"echo", "            Hello world!"},
+        {"time", "EEE, MMM d, ''yy", "en", "us"},
+        {"echo", "", "empty", ""},
+        {"load", "C:\\scripts\\demo.shell"},
+        {"load", "C:\\scripts\\"},
+        {"echo", "a\\", "b"},
+        {"echo", "tab\tand\nnew line"},
+        {"echo", "\\\\server\\share", "\\"},};
+
+    private static final String[][] ESCAPED_TOKENS = {
+        {"echo", "He said \"hello\""},
+        {"echo", "\""},
+        {"echo", "trailing\\"},
+        {"echo", "\\\" and \\ "},};
+
+    @Test
+    public void testSplitWithoutEscapes() {
+        QuotingCommandTokenizer tokenizer = new QuotingCommandTokenizer();
+        assertArrayEquals(new String[0], tokenizer.tokenize(null));
+        assertArrayEquals(new String[0], tokenizer.tokenize("   "));
+        assertArrayEquals(new String[]{"echo", "Hello", "world!"}, tokenizer.tokenize("  echo Hello\tworld!  "));
+        assertArrayEquals(new String[]{"echo", "  Hello world!"}, tokenizer.tokenize("echo \"  Hello world!\""));
+        assertArrayEquals(new String[]{"load", "C:\\scripts\\"}, tokenizer.tokenize("load \"C:\\scripts\\\""));
+        assertArrayEquals(new String[]{"echo", "a\\", "b"}, tokenizer.tokenize("echo a\\ b"));
+    }
+
+    @Test
+    public void testSplitWithEscapes() {
+        QuotingCommandTokenizer tokenizer = new QuotingCommandTokenizer(true);
+        assertArrayEquals(new String[]{"echo", "He said \"hello\"", "and left"}, tokenizer.tokenize("echo \"He said \\\"hello\\\"\" and\\ left"));
+        assertArrayEquals(new String[]{"load", "C:\\scripts\\demo.shell"}, tokenizer.tokenize("load C:\\scripts\\demo.shell"));
+        assertArrayEquals(new String[]{"echo", "a b"}, tokenizer.tokenize("echo a\\ b"));
+    }
+
+    @Test
+    public void testRoundTripWithoutEscapes() {
+        assertRoundTrip(new QuotingCommandTokenizer(), TOKENS);
+    }
+
+    @Test
+    public void testRoundTripWithEscapes() {
+        QuotingCommandTokenizer tokenizer = new QuotingCommandTokenizer(true);
+        assertRoundTrip(tokenizer, TOKENS);
+        assertRoundTrip(tokenizer, ESCAPED_TOKENS);
+    }
+
+    @Test
+    public void testCachingRoundTrip() {
+        CachingCommandTokenizer tokenizer = new CachingCommandTokenizer(new QuotingCommandTokenizer(true), 4);
+        // Twice, to compare the cached tokens too
+        assertRoundTrip(tokenizer, TOKENS);
+        assertRoundTrip(tokenizer, TOKENS);
+    }
+
+    @Test
+    public void testCachedTokensAreCopied() {
+        CachingCommandTokenizer tokenizer = new CachingCommandTokenizer(new QuotingCommandTokenizer());
+        String[] tokens = tokenizer.tokenize("echo Hello world!");
+        tokens[1] = "Goodbye";
+        String[] cachedTokens = tokenizer.tokenize("echo Hello world!");
+        assertNotSame(tokens, cachedTokens);
+        assertArrayEquals(new String[]{"echo", "Hello", "world!"}, cachedTokens);
+    }
+
+    private static void assertRoundTrip(ICommandTokenizer tokenizer, String[][] tokensList) {
+        for (String[] tokens : tokensList) {
+            String commandLine = tokenizer.join(tokens);
+            assertArrayEquals(commandLine, tokens, tokenizer.tokenize(commandLine));
+            assertEquals(commandLine, tokenizer.join(tokenizer.tokenize(commandLine)));
+        }
+    }
+
+}